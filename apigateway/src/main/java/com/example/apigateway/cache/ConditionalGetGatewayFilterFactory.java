@@ -0,0 +1,74 @@
+package com.example.apigateway.cache;
+
+import org.reactivestreams.Publisher;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.NettyWriteResponseFilter;
+import org.springframework.cloud.gateway.filter.OrderedGatewayFilter;
+import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+/**
+ * Answers {@code If-None-Match} with {@code 304 Not Modified} when the response about to
+ * be written, fresh or cached, carries a matching ETag. The body is still read, so the
+ * response cache behind this filter stores it for the next client.
+ */
+public class ConditionalGetGatewayFilterFactory extends AbstractGatewayFilterFactory<Object> {
+
+    // outside the collapsing and caching filters, so it sees whatever they write
+    static final int ORDER = NettyWriteResponseFilter.WRITE_RESPONSE_FILTER_ORDER - 5;
+
+    private static final String WEAK_PREFIX = "W/";
+
+    public ConditionalGetGatewayFilterFactory() {
+        super(Object.class);
+    }
+
+    @Override
+    public GatewayFilter apply(Object config) {
+        return new OrderedGatewayFilter((exchange, chain) -> {
+            List<String> ifNoneMatch = exchange.getRequest().getHeaders().getIfNoneMatch();
+            if (!HttpMethod.GET.equals(exchange.getRequest().getMethod()) || ifNoneMatch.isEmpty()) {
+                return chain.filter(exchange);
+            }
+            ServerHttpResponse response = new ServerHttpResponseDecorator(exchange.getResponse()) {
+                @Override
+                public Mono<Void> writeWith(Publisher<? extends DataBuffer> body) {
+                    if (getStatusCode() != HttpStatus.OK || !matches(ifNoneMatch, getHeaders().getETag())) {
+                        return super.writeWith(body);
+                    }
+                    setStatusCode(HttpStatus.NOT_MODIFIED);
+                    getHeaders().remove(HttpHeaders.CONTENT_LENGTH);
+                    getHeaders().remove(HttpHeaders.CONTENT_TYPE);
+                    return Flux.from(body).doOnNext(DataBufferUtils::release).then(setComplete());
+                }
+            };
+            return chain.filter(exchange.mutate().response(response).build());
+        }, ORDER);
+    }
+
+    /**
+     * Weak comparison, as RFC 9110 prescribes for If-None-Match.
+     */
+    static boolean matches(List<String> ifNoneMatch, String etag) {
+        if (etag == null) {
+            return false;
+        }
+        String opaque = strip(etag);
+        return ifNoneMatch.stream().anyMatch(candidate -> "*".equals(candidate) || strip(candidate).equals(opaque));
+    }
+
+    private static String strip(String etag) {
+        String trimmed = etag.trim();
+        return trimmed.startsWith(WEAK_PREFIX) ? trimmed.substring(WEAK_PREFIX.length()) : trimmed;
+    }
+}
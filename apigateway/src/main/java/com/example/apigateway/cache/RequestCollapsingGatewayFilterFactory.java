@@ -0,0 +1,77 @@
+package com.example.apigateway.cache;
+
+import lombok.Data;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.NettyWriteResponseFilter;
+import org.springframework.cloud.gateway.filter.OrderedGatewayFilter;
+import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
+import org.springframework.cloud.gateway.filter.factory.cache.LocalResponseCacheUtils;
+import org.springframework.cloud.gateway.filter.factory.cache.keygenerator.CacheKeyGenerator;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Sends only one of several concurrent identical GET requests to the backend. The others
+ * wait until it has finished and then carry on down the chain, where the
+ * {@code LocalResponseCache} filter that must follow on the route answers them from the
+ * entry the first request just stored.
+ */
+public class RequestCollapsingGatewayFilterFactory
+        extends AbstractGatewayFilterFactory<RequestCollapsingGatewayFilterFactory.Config> {
+
+    // just ahead of LocalResponseCache, which runs at WRITE_RESPONSE_FILTER_ORDER - 3
+    static final int ORDER = NettyWriteResponseFilter.WRITE_RESPONSE_FILTER_ORDER - 4;
+
+    private final CacheKeyGenerator keyGenerator;
+
+    public RequestCollapsingGatewayFilterFactory(CacheKeyGenerator keyGenerator) {
+        super(Config.class);
+        this.keyGenerator = keyGenerator;
+    }
+
+    @Override
+    public List<String> shortcutFieldOrder() {
+        return List.of("maxWait");
+    }
+
+    @Override
+    public GatewayFilter apply(Config config) {
+        Map<String, Sinks.Empty<Void>> inFlight = new ConcurrentHashMap<>();
+        return new OrderedGatewayFilter((exchange, chain) -> Mono.defer(() -> {
+            ServerHttpRequest request = exchange.getRequest();
+            // no-cache requests skip the cache anyway, so there is nothing to wait for
+            if (!HttpMethod.GET.equals(request.getMethod()) || LocalResponseCacheUtils.isNoCacheRequest(request)) {
+                return chain.filter(exchange);
+            }
+            String key = keyGenerator.generateKey(request);
+            Sinks.Empty<Void> own = Sinks.empty();
+            Sinks.Empty<Void> leader = inFlight.putIfAbsent(key, own);
+            if (leader == null) {
+                return chain.filter(exchange).doFinally(signal -> {
+                    inFlight.remove(key, own);
+                    own.tryEmitEmpty();
+                });
+            }
+            // a slow or failed leader must not hold followers up: after maxWait they go
+            // to the backend themselves
+            return leader.asMono()
+                    .timeout(config.getMaxWait(), Mono.empty())
+                    .then(Mono.defer(() -> chain.filter(exchange)));
+        }), ORDER);
+    }
+
+    @Data
+    public static class Config {
+        /**
+         * Longest a request waits for an identical one already in flight.
+         */
+        private Duration maxWait = Duration.ofSeconds(2);
+    }
+}
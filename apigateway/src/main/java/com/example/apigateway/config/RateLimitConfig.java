@@ -0,0 +1,63 @@
+package com.example.apigateway.config;
+
+import com.example.apigateway.ratelimit.ApiKeyResolver;
+import com.example.apigateway.ratelimit.ClientIpKeyResolver;
+import com.example.apigateway.ratelimit.OtpEmailKeyResolver;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.cloud.gateway.filter.ratelimit.RedisRateLimiter;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+
+/**
+ * Limiters and key resolvers referenced from the routes in application.yml. Buckets live
+ * in Redis, so the quotas hold across all gateway replicas. If Redis is unreachable the
+ * limiter lets requests through rather than failing them.
+ */
+@Configuration
+@EnableConfigurationProperties(RateLimitProperties.class)
+public class RateLimitConfig {
+
+    /**
+     * Used by routes that only set redis-rate-limiter arguments; routes without any get
+     * the default quota.
+     */
+    @Bean
+    @Primary
+    public RedisRateLimiter redisRateLimiter(RateLimitProperties properties) {
+        return limiter(properties.getDefaults());
+    }
+
+    // both OTP limiters sit on one route, and route arguments are bound into every
+    // RedisRateLimiter for that route, so these two take their quotas from properties
+    @Bean
+    public RedisRateLimiter otpIpRateLimiter(RateLimitProperties properties) {
+        return limiter(properties.getOtpPerIp());
+    }
+
+    @Bean
+    public RedisRateLimiter otpEmailRateLimiter(RateLimitProperties properties) {
+        return limiter(properties.getOtpPerEmail());
+    }
+
+    @Bean
+    @Primary
+    public ClientIpKeyResolver ipKeyResolver(RateLimitProperties properties) {
+        return new ClientIpKeyResolver(properties.getTrustedProxies());
+    }
+
+    @Bean
+    public ApiKeyResolver apiKeyResolver(RateLimitProperties properties, ClientIpKeyResolver ipKeyResolver) {
+        return new ApiKeyResolver(properties.getApiKeyHeader(), ipKeyResolver);
+    }
+
+    @Bean
+    public OtpEmailKeyResolver otpEmailKeyResolver(ObjectMapper objectMapper, ClientIpKeyResolver ipKeyResolver) {
+        return new OtpEmailKeyResolver(objectMapper, ipKeyResolver);
+    }
+
+    private static RedisRateLimiter limiter(RateLimitProperties.Quota quota) {
+        return new RedisRateLimiter(quota.getReplenishRate(), quota.getBurstCapacity(), quota.getRequestedTokens());
+    }
+}
@@ -0,0 +1,60 @@
+package com.example.apigateway.config;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Data
+@ConfigurationProperties(prefix = "gateway.rate-limit")
+public class RateLimitProperties {
+
+    /**
+     * Number of proxies in front of the gateway whose X-Forwarded-For entries are trusted.
+     * 0 keys clients by the connection's remote address.
+     */
+    private int trustedProxies = 0;
+
+    /**
+     * Header carrying the caller's API key; callers without one are limited by IP.
+     */
+    private String apiKeyHeader = "X-API-Key";
+
+    /**
+     * Quota for routes that do not set their own redis-rate-limiter arguments.
+     */
+    private Quota defaults = new Quota(20, 40, 1);
+
+    /**
+     * OTP sends per client IP.
+     */
+    private Quota otpPerIp = new Quota(1, 10, 1);
+
+    /**
+     * OTP sends per email address: three right away, then one a minute.
+     */
+    private Quota otpPerEmail = new Quota(1, 180, 60);
+
+    /**
+     * Token bucket settings, as understood by Spring Cloud Gateway's RedisRateLimiter.
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Quota {
+        /**
+         * Tokens added to the bucket per second.
+         */
+        private int replenishRate;
+
+        /**
+         * Bucket size, i.e. the largest burst allowed.
+         */
+        private int burstCapacity;
+
+        /**
+         * Tokens taken per request; above 1 allows rates below one request per second.
+         */
+        private int requestedTokens;
+    }
+}
@@ -0,0 +1,25 @@
+package com.example.apigateway.config;
+
+import com.example.apigateway.cache.ConditionalGetGatewayFilterFactory;
+import com.example.apigateway.cache.RequestCollapsingGatewayFilterFactory;
+import org.springframework.cloud.gateway.filter.factory.cache.keygenerator.CacheKeyGenerator;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Filters used next to Spring Cloud Gateway's {@code LocalResponseCache} on the cached
+ * read routes in application.yml. Requests are collapsed by the same key the cache uses.
+ */
+@Configuration
+public class ResponseCacheConfig {
+
+    @Bean
+    public RequestCollapsingGatewayFilterFactory requestCollapsingGatewayFilterFactory(CacheKeyGenerator keyGenerator) {
+        return new RequestCollapsingGatewayFilterFactory(keyGenerator);
+    }
+
+    @Bean
+    public ConditionalGetGatewayFilterFactory conditionalGetGatewayFilterFactory() {
+        return new ConditionalGetGatewayFilterFactory();
+    }
+}
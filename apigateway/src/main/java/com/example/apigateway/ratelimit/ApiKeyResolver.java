@@ -0,0 +1,29 @@
+package com.example.apigateway.ratelimit;
+
+import org.springframework.cloud.gateway.filter.ratelimit.KeyResolver;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+/**
+ * Keys requests by API key, falling back to the client IP for anonymous callers.
+ */
+public class ApiKeyResolver implements KeyResolver {
+    static final String PREFIX = "key:";
+
+    private final String header;
+    private final ClientIpKeyResolver fallback;
+
+    public ApiKeyResolver(String header, ClientIpKeyResolver fallback) {
+        this.header = header;
+        this.fallback = fallback;
+    }
+
+    @Override
+    public Mono<String> resolve(ServerWebExchange exchange) {
+        String apiKey = exchange.getRequest().getHeaders().getFirst(header);
+        if (apiKey == null || apiKey.isBlank()) {
+            return fallback.resolve(exchange);
+        }
+        return Mono.just(PREFIX + KeyHashing.sha256(apiKey.trim()));
+    }
+}
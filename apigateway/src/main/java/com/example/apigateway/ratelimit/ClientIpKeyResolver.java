@@ -0,0 +1,38 @@
+package com.example.apigateway.ratelimit;
+
+import org.springframework.cloud.gateway.filter.ratelimit.KeyResolver;
+import org.springframework.cloud.gateway.support.ipresolver.RemoteAddressResolver;
+import org.springframework.cloud.gateway.support.ipresolver.XForwardedRemoteAddressResolver;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.net.InetSocketAddress;
+
+/**
+ * Keys requests by client IP. Only the configured number of proxy hops in
+ * X-Forwarded-For are trusted, so clients cannot pick their own bucket.
+ */
+public class ClientIpKeyResolver implements KeyResolver {
+    static final String PREFIX = "ip:";
+
+    private final RemoteAddressResolver addressResolver;
+
+    public ClientIpKeyResolver(int trustedProxies) {
+        this.addressResolver = trustedProxies > 0
+                ? XForwardedRemoteAddressResolver.maxTrustedIndex(trustedProxies)
+                : new RemoteAddressResolver() { };
+    }
+
+    @Override
+    public Mono<String> resolve(ServerWebExchange exchange) {
+        return Mono.justOrEmpty(clientIp(exchange)).map(ip -> PREFIX + ip);
+    }
+
+    String clientIp(ServerWebExchange exchange) {
+        InetSocketAddress address = addressResolver.resolve(exchange);
+        if (address == null) {
+            return null;
+        }
+        return address.getAddress() != null ? address.getAddress().getHostAddress() : address.getHostString();
+    }
+}
@@ -0,0 +1,73 @@
+package com.example.apigateway.cache;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConditionalGetGatewayFilterFactoryTest {
+
+    private static final String BODY = "{\"username\":\"veer\"}";
+
+    private final GatewayFilter filter = new ConditionalGetGatewayFilterFactory().apply(new Object());
+
+    // stands in for the backend or the response cache writing a 200 with an ETag
+    private final GatewayFilterChain chain = exchange -> {
+        ServerHttpResponse response = exchange.getResponse();
+        response.setStatusCode(HttpStatus.OK);
+        response.getHeaders().setETag("W/\"abc\"");
+        response.getHeaders().setContentLength(BODY.length());
+        return response.writeWith(Mono.just(DefaultDataBufferFactory.sharedInstance.wrap(BODY.getBytes(StandardCharsets.UTF_8))));
+    };
+
+    private static MockServerWebExchange get(String ifNoneMatch) {
+        MockServerHttpRequest.BaseBuilder<?> request = MockServerHttpRequest.get("/user/veer");
+        if (ifNoneMatch != null) {
+            request.header(HttpHeaders.IF_NONE_MATCH, ifNoneMatch);
+        }
+        return MockServerWebExchange.from(request);
+    }
+
+    @Test
+    void matchingEtag_shouldAnswerNotModifiedWithoutBody() {
+        MockServerWebExchange exchange = get("\"abc\"");
+
+        filter.filter(exchange, chain).block();
+
+        assertEquals(HttpStatus.NOT_MODIFIED, exchange.getResponse().getStatusCode());
+        assertEquals("W/\"abc\"", exchange.getResponse().getHeaders().getETag());
+        assertEquals("", exchange.getResponse().getBodyAsString().block());
+    }
+
+    @Test
+    void staleOrMissingEtag_shouldPassResponseThrough() {
+        MockServerWebExchange stale = get("\"old\"");
+        MockServerWebExchange unconditional = get(null);
+
+        filter.filter(stale, chain).block();
+        filter.filter(unconditional, chain).block();
+
+        assertEquals(HttpStatus.OK, stale.getResponse().getStatusCode());
+        assertEquals(BODY, stale.getResponse().getBodyAsString().block());
+        assertEquals(BODY, unconditional.getResponse().getBodyAsString().block());
+    }
+
+    @Test
+    void matches_shouldUseWeakComparisonAndWildcard() {
+        assertTrue(ConditionalGetGatewayFilterFactory.matches(List.of("\"x\"", "W/\"abc\""), "\"abc\""));
+        assertTrue(ConditionalGetGatewayFilterFactory.matches(List.of("*"), "\"abc\""));
+        assertFalse(ConditionalGetGatewayFilterFactory.matches(List.of("*"), null));
+        assertFalse(ConditionalGetGatewayFilterFactory.matches(List.of("\"abcd\""), "\"abc\""));
+    }
+}
@@ -0,0 +1,108 @@
+package com.example.apigateway.cache;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.factory.cache.keygenerator.CacheKeyGenerator;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RequestCollapsingGatewayFilterFactoryTest {
+
+    private final RequestCollapsingGatewayFilterFactory factory =
+            new RequestCollapsingGatewayFilterFactory(new CacheKeyGenerator());
+
+    private final AtomicInteger backendCalls = new AtomicInteger();
+    private final Sinks.Empty<Void> backend = Sinks.empty();
+
+    // every call stays "in flight" until the test completes the backend sink
+    private final GatewayFilterChain chain = exchange -> {
+        backendCalls.incrementAndGet();
+        return backend.asMono();
+    };
+
+    private GatewayFilter filter(Duration maxWait) {
+        RequestCollapsingGatewayFilterFactory.Config config = new RequestCollapsingGatewayFilterFactory.Config();
+        config.setMaxWait(maxWait);
+        return factory.apply(config);
+    }
+
+    private static MockServerWebExchange get(String path) {
+        return MockServerWebExchange.from(MockServerHttpRequest.get(path));
+    }
+
+    @Test
+    void concurrentIdenticalRequests_shouldWaitForTheFirstOne() {
+        GatewayFilter filter = filter(Duration.ofSeconds(5));
+
+        filter.filter(get("/user/veer"), chain).subscribe();
+        filter.filter(get("/user/veer"), chain).subscribe();
+        filter.filter(get("/user/veer"), chain).subscribe();
+        assertEquals(1, backendCalls.get());
+
+        backend.tryEmitEmpty();
+        // the followers now go down the chain, where the response cache answers them
+        assertEquals(3, backendCalls.get());
+    }
+
+    @Test
+    void differentRequests_shouldNotWaitForEachOther() {
+        GatewayFilter filter = filter(Duration.ofSeconds(5));
+
+        filter.filter(get("/user/veer"), chain).subscribe();
+        filter.filter(get("/user/rahul"), chain).subscribe();
+        filter.filter(MockServerWebExchange.from(MockServerHttpRequest.get("/user/veer")
+                .header(HttpHeaders.AUTHORIZATION, "Bearer token")), chain).subscribe();
+
+        assertEquals(3, backendCalls.get());
+    }
+
+    @Test
+    void noCacheAndNonGetRequests_shouldBypassCollapsing() {
+        GatewayFilter filter = filter(Duration.ofSeconds(5));
+
+        filter.filter(get("/user/veer"), chain).subscribe();
+        filter.filter(MockServerWebExchange.from(MockServerHttpRequest.get("/user/veer")
+                .header(HttpHeaders.CACHE_CONTROL, "no-cache")), chain).subscribe();
+        filter.filter(MockServerWebExchange.from(MockServerHttpRequest.delete("/user/veer")), chain).subscribe();
+
+        assertEquals(3, backendCalls.get());
+    }
+
+    @Test
+    void follower_shouldStopWaitingAfterMaxWait() {
+        GatewayFilter filter = filter(Duration.ofMillis(50));
+
+        filter.filter(get("/user/veer"), chain).subscribe();
+        AtomicInteger followerCalls = new AtomicInteger();
+        filter.filter(get("/user/veer"), exchange -> {
+            followerCalls.incrementAndGet();
+            return Mono.empty();
+        }).block(Duration.ofSeconds(1));
+
+        assertEquals(1, backendCalls.get());
+        assertEquals(1, followerCalls.get());
+    }
+
+    @Test
+    void finishedRequest_shouldNotHoldUpLaterOnes() {
+        GatewayFilter filter = filter(Duration.ofSeconds(5));
+        GatewayFilterChain failing = exchange -> {
+            backendCalls.incrementAndGet();
+            return Mono.error(new IllegalStateException("backend down"));
+        };
+
+        assertThrows(IllegalStateException.class, () -> filter.filter(get("/user/veer"), failing).block());
+        filter.filter(get("/user/veer"), chain).subscribe();
+
+        assertEquals(2, backendCalls.get());
+    }
+}
@@ -0,0 +1,49 @@
+package com.example.apigateway.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cloud.gateway.filter.ratelimit.RedisRateLimiter;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.route.RouteLocator;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+class RateLimitRoutesTest {
+
+    @Autowired
+    private RouteLocator routeLocator;
+
+    @Autowired
+    private Map<String, RedisRateLimiter> limiters;
+
+    @Test
+    void otpRoutes_shouldBeMatchedBeforeCatchAllUserRoute() {
+        List<String> ids = routeLocator.getRoutes().map(Route::getId).collectList().block();
+
+        assertNotNull(ids);
+        assertTrue(ids.indexOf("user-send-otp") < ids.indexOf("user-service"));
+        assertTrue(ids.indexOf("user-verify-otp") < ids.indexOf("user-service"));
+    }
+
+    @Test
+    void sendOtp_shouldCacheBodyBeforeBothLimiters() {
+        Route sendOtp = routeLocator.getRoutes().filter(route -> route.getId().equals("user-send-otp")).blockFirst();
+
+        assertNotNull(sendOtp);
+        assertEquals(3, sendOtp.getFilters().size());
+    }
+
+    @Test
+    void routeArguments_shouldOnlyOverrideQuotasOfTheirOwnRoute() {
+        RedisRateLimiter defaults = limiters.get("redisRateLimiter");
+
+        assertEquals(2, defaults.getConfig().get("user-verify-otp").getReplenishRate());
+        assertNull(defaults.getConfig().get("user-service"));
+        assertNull(limiters.get("otpEmailRateLimiter").getConfig().get("user-send-otp"));
+    }
+}
@@ -0,0 +1,52 @@
+package com.example.apigateway.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.factory.cache.ResponseCacheGatewayFilter;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.route.RouteLocator;
+import org.springframework.core.Ordered;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+class ResponseCacheRoutesTest {
+
+    @Autowired
+    private RouteLocator routeLocator;
+
+    private Route route(String id) {
+        return routeLocator.getRoutes().filter(route -> route.getId().equals(id)).blockFirst();
+    }
+
+    @Test
+    void cachedReadRoutes_shouldBeMatchedBeforeCatchAllUserRoute() {
+        List<String> ids = routeLocator.getRoutes().map(Route::getId).collectList().block();
+
+        assertNotNull(ids);
+        assertTrue(ids.indexOf("user-profile") < ids.indexOf("user-service"));
+        assertTrue(ids.indexOf("user-check-username") < ids.indexOf("user-service"));
+        assertTrue(ids.indexOf("user-list") >= 0);
+        assertTrue(ids.indexOf("user-list") < ids.indexOf("user-profile"));
+    }
+
+    @Test
+    void cachedReadRoutes_shouldConditionThenCollapseThenCache() {
+        for (String id : List.of("user-profile", "user-check-username")) {
+            List<GatewayFilter> filters = route(id).getFilters();
+
+            assertEquals(4, filters.size());
+            GatewayFilter cache = filters.stream().filter(ResponseCacheGatewayFilter.class::isInstance)
+                    .findFirst().orElseThrow();
+            List<Integer> orders = filters.stream().map(filter -> ((Ordered) filter).getOrder()).sorted().toList();
+            // ConditionalGet, RequestCollapsing, LocalResponseCache, then the rate limiter
+            assertEquals(((Ordered) cache).getOrder(), orders.get(2));
+            assertEquals(orders.get(1) + 1, orders.get(2));
+            assertEquals(orders.get(0) + 2, orders.get(2));
+        }
+    }
+}
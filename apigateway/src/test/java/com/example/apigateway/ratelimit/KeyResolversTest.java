@@ -0,0 +1,67 @@
+package com.example.apigateway.ratelimit;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+
+import java.net.InetSocketAddress;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class KeyResolversTest {
+
+    private final ClientIpKeyResolver ipResolver = new ClientIpKeyResolver(0);
+    private final OtpEmailKeyResolver emailResolver = new OtpEmailKeyResolver(new ObjectMapper(), ipResolver);
+    private final ApiKeyResolver apiKeyResolver = new ApiKeyResolver("X-API-Key", ipResolver);
+
+    private static MockServerWebExchange exchange(MockServerHttpRequest.BaseBuilder<?> request) {
+        return MockServerWebExchange.from(request.remoteAddress(new InetSocketAddress("10.0.0.7", 52000)));
+    }
+
+    private static MockServerWebExchange otpExchange(String body) {
+        MockServerWebExchange exchange = exchange(MockServerHttpRequest.post("/user/send-otp"));
+        exchange.getAttributes().put(ServerWebExchangeUtils.CACHED_REQUEST_BODY_ATTR, body);
+        return exchange;
+    }
+
+    @Test
+    void ip_shouldIgnoreForwardedHeaderUnlessProxiesAreTrusted() {
+        MockServerWebExchange exchange = exchange(MockServerHttpRequest.get("/user/")
+                .header("X-Forwarded-For", "203.0.113.9"));
+
+        assertEquals("ip:10.0.0.7", ipResolver.resolve(exchange).block());
+        assertEquals("ip:203.0.113.9", new ClientIpKeyResolver(1).resolve(exchange).block());
+    }
+
+    @Test
+    void email_shouldBeNormalisedAndHashed() {
+        String key = emailResolver.resolve(otpExchange("{\"email\":\" Veer@Gmail.com \",\"username\":\"veer\"}")).block();
+
+        assertNotNull(key);
+        assertTrue(key.startsWith("email:"));
+        assertFalse(key.contains("veer"));
+        assertEquals(key, emailResolver.resolve(otpExchange("{\"email\":\"veer@gmail.com\"}")).block());
+    }
+
+    @Test
+    void email_missingOrUnreadable_shouldFallBackToIp() {
+        assertEquals("ip:10.0.0.7", emailResolver.resolve(otpExchange("{\"username\":\"veer\"}")).block());
+        assertEquals("ip:10.0.0.7", emailResolver.resolve(otpExchange("not json")).block());
+        assertEquals("ip:10.0.0.7",
+                emailResolver.resolve(exchange(MockServerHttpRequest.post("/user/send-otp"))).block());
+    }
+
+    @Test
+    void apiKey_shouldKeyByHashedHeaderOrFallBackToIp() {
+        String key = apiKeyResolver.resolve(exchange(MockServerHttpRequest.post("/notification/otp")
+                .header("X-API-Key", "secret-key"))).block();
+
+        assertNotNull(key);
+        assertTrue(key.startsWith("key:"));
+        assertFalse(key.contains("secret-key"));
+        assertEquals("ip:10.0.0.7",
+                apiKeyResolver.resolve(exchange(MockServerHttpRequest.post("/notification/otp"))).block());
+    }
+}
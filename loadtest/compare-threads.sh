@@ -0,0 +1,75 @@
+#!/usr/bin/env bash
+# Platform vs virtual threads on userservice at 1k and 5k concurrent connections.
+#
+# Needs hey (https://github.com/rakyll/hey), a Java 21 runtime, and Postgres + Redis
+# running (docker-compose up postgres redis). Build first with:
+#   (cd userservice && mvn -Pjava21 -DskipTests package)
+#
+# The target endpoint does one JDBC lookup per request (the existence index is turned off
+# so every call reaches Postgres), which is the blocking pattern virtual threads help with.
+# Results land in loadtest/results/threads-<mode>-<connections>.txt plus a summary table.
+set -euo pipefail
+
+cd "$(dirname "$0")/.."
+JAR=${JAR:-$(ls userservice/target/userservice-*.jar | head -1)}
+PORT=${PORT:-8081}
+DURATION=${DURATION:-60s}
+CONNECTIONS=${CONNECTIONS:-"1000 5000"}
+URL=${URL:-"http://localhost:${PORT}/user/api/users/check-username?username=loadtest"}
+OUT=loadtest/results
+mkdir -p "$OUT"
+
+# 5k sockets on each side need more than the usual 1024 descriptors
+ulimit -n 65535 || echo "warning: could not raise open file limit" >&2
+
+run_mode() {
+  local mode=$1 profile=$2
+  echo "== $mode threads"
+  java -jar "$JAR" \
+    --server.port="$PORT" \
+    --spring.profiles.active="$profile" \
+    --spring.jpa.show-sql=false \
+    --user.existence-index.enabled=false \
+    --notification.outbox.enabled=false \
+    --eureka.client.enabled=false \
+    > "$OUT/threads-$mode-app.log" 2>&1 &
+  local pid=$!
+  trap 'kill $pid 2>/dev/null || true' RETURN
+
+  until curl -sf "http://localhost:${PORT}/actuator/health" > /dev/null; do
+    kill -0 $pid 2>/dev/null || { echo "userservice exited, see $OUT/threads-$mode-app.log" >&2; exit 1; }
+    sleep 1
+  done
+
+  # short warm-up so JIT and pools are settled before measuring
+  hey -z 10s -c 100 "$URL" > /dev/null
+  for c in $CONNECTIONS; do
+    echo "   $c connections for $DURATION"
+    hey -z "$DURATION" -c "$c" "$URL" > "$OUT/threads-$mode-$c.txt"
+  done
+}
+
+run_mode platform default
+run_mode virtual virtual-threads
+
+summary() {
+  printf '| mode | connections | req/s | p50 | p99 | non-2xx / errors |\n'
+  printf '|------|-------------|-------|-----|-----|------------------|\n'
+  for mode in platform virtual; do
+    for c in $CONNECTIONS; do
+      local f="$OUT/threads-$mode-$c.txt"
+      local rps p50 p99 errors
+      rps=$(awk '/Requests\/sec/ {print $2}' "$f")
+      p50=$(awk '/ 50% in/ {print $3 $4}' "$f")
+      p99=$(awk '/ 99% in/ {print $3 $4}' "$f")
+      errors=$(awk '/Status code distribution/ {s=1; next}
+                    /Error distribution/ {s=0; e=1; next}
+                    s && /\[[0-9]+\]/ && $1 != "[200]" {n += $2}
+                    e && /\[[0-9]+\]/ {gsub(/[][]/, "", $1); n += $1}
+                    END {print n+0}' "$f")
+      printf '| %s | %s | %s | %s | %s | %s |\n' "$mode" "$c" "$rps" "$p50" "$p99" "$errors"
+    done
+  done
+}
+
+summary | tee "$OUT/threads-summary.md"
@@ -0,0 +1,108 @@
+package com.example.loadtest;
+
+import io.gatling.javaapi.core.ChainBuilder;
+import io.gatling.javaapi.core.ScenarioBuilder;
+import io.gatling.javaapi.core.Simulation;
+import io.gatling.javaapi.http.HttpProtocolBuilder;
+
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+import static io.gatling.javaapi.core.CoreDsl.*;
+import static io.gatling.javaapi.http.HttpDsl.http;
+import static io.gatling.javaapi.http.HttpDsl.status;
+
+/**
+ * Open-model load on the registration chain: new users arrive at {@code rate} per second
+ * regardless of how fast earlier ones finish. Each one
+ * <ol>
+ *   <li>asks the gateway for an OTP (gateway → userservice),</li>
+ *   <li>waits for the mail in the fake SMTP inbox (userservice → outbox → notificationservice → SMTP),</li>
+ *   <li>verifies it through the gateway (gateway → userservice → Postgres).</li>
+ * </ol>
+ * A second scenario posts OTPs straight to notificationservice, so its own latency and
+ * rejections show up separately. Every user comes from its own X-Forwarded-For address,
+ * which the gateway trusts in docker-compose.loadtest.yml, so per-IP limits apply per user
+ * as they would in production.
+ */
+public class RegistrationSimulation extends Simulation {
+
+    private static final String GATEWAY = System.getProperty("gateway", "http://localhost:8080");
+    private static final String NOTIFICATION = System.getProperty("notification", "http://localhost:8082");
+    private static final String MAILBOX = System.getProperty("mailbox", "http://localhost:8025");
+    private static final double RATE = Double.parseDouble(System.getProperty("rate", "20"));
+    private static final double NOTIFICATION_RATE = Double.parseDouble(System.getProperty("notificationRate", String.valueOf(RATE)));
+    private static final Duration RAMP = Duration.ofSeconds(Long.getLong("ramp", 30));
+    private static final Duration DURATION = Duration.ofSeconds(Long.getLong("duration", 120));
+    private static final Duration DELIVERY_TIMEOUT = Duration.ofSeconds(Long.getLong("deliveryTimeout", 30));
+    private static final Duration POLL_INTERVAL = Duration.ofMillis(250);
+    private static final double MAX_ERROR_PCT = Double.parseDouble(System.getProperty("maxErrorPct", "1"));
+
+    // distinct per run, so reruns against the same database do not collide
+    private static final String RUN = Long.toString(System.currentTimeMillis(), 36);
+    private static final AtomicLong USERS = new AtomicLong();
+
+    private static final Iterator<Map<String, Object>> IDENTITIES = Stream.generate(() -> {
+        long n = USERS.incrementAndGet();
+        String name = "lt" + RUN + n;
+        return Map.<String, Object>of(
+                "username", name,
+                "email", name + "@loadtest.local",
+                "clientIp", "10." + (n >> 16 & 255) + "." + (n >> 8 & 255) + "." + (n & 255));
+    }).iterator();
+
+    private final HttpProtocolBuilder protocol = http
+            .acceptHeader("application/json")
+            .contentTypeHeader("application/json")
+            .shareConnections();
+
+    private final ChainBuilder awaitOtpMail = group("smtp: otp delivery").on(
+            doWhileDuring(session -> !session.contains("otp"), DELIVERY_TIMEOUT).on(
+                    pause(POLL_INTERVAL),
+                    // the OTP is the mail's subject, see EmailService.buildOtpMessage
+                    exec(http("mailbox: search")
+                            .get(MAILBOX + "/api/v1/search")
+                            .queryParam("query", "to:#{email}")
+                            .check(status().is(200))
+                            .check(jsonPath("$.messages[0].Subject").optional().saveAs("otp")))
+            ).exitHereIf(session -> !session.contains("otp")));
+
+    private final ScenarioBuilder registration = scenario("registration")
+            .feed(IDENTITIES)
+            .exec(http("gateway: send-otp")
+                    .post(GATEWAY + "/user/send-otp")
+                    .header("X-Forwarded-For", "#{clientIp}")
+                    .body(StringBody("{\"username\":\"#{username}\",\"email\":\"#{email}\",\"password\":\"Load-test#1\"}"))
+                    .check(status().is(200)))
+            .exitHereIfFailed()
+            .exec(awaitOtpMail)
+            .exec(http("gateway: verify-otp")
+                    .post(GATEWAY + "/user/verify-otp")
+                    .header("X-Forwarded-For", "#{clientIp}")
+                    .body(StringBody("{\"email\":\"#{email}\",\"otp\":\"#{otp}\"}"))
+                    .check(status().is(200))
+                    .check(bodyString().is("User registered successfully")));
+
+    private final ScenarioBuilder notification = scenario("notification")
+            .feed(IDENTITIES)
+            .exec(http("notificationservice: otp")
+                    .post(NOTIFICATION + "/notification/otp")
+                    .body(StringBody("{\"email\":\"#{email}\",\"otp\":\"123456\",\"purpose\":\"Load test\","
+                            + "\"idempotencyKey\":\"#{username}\"}"))
+                    .check(status().is(202)));
+
+    {
+        setUp(
+                registration.injectOpen(
+                        rampUsersPerSec(1).to(RATE).during(RAMP),
+                        constantUsersPerSec(RATE).during(DURATION)),
+                notification.injectOpen(
+                        rampUsersPerSec(1).to(Math.max(NOTIFICATION_RATE, 1)).during(RAMP),
+                        constantUsersPerSec(NOTIFICATION_RATE).during(DURATION)))
+                .protocols(protocol)
+                .assertions(global().failedRequests().percent().lte(MAX_ERROR_PCT));
+    }
+}
@@ -0,0 +1,89 @@
+#!/usr/bin/env bash
+# End-to-end load test: gateway -> userservice -> outbox -> notificationservice -> SMTP.
+#
+# Needs Docker (compose v2) and Maven. Brings up the whole stack from docker-compose.yml
+# with the loadtest overlay (fresh Postgres and Redis, Mailpit as SMTP server), runs the
+# Gatling simulation in loadtest/gatling, and tears everything down again with its data.
+#
+# While Gatling runs, circuit breaker state, rate limiter permits and OTP throttling are
+# sampled from userservice's actuator every SAMPLE_INTERVAL seconds. Results land in
+# loadtest/results: the Gatling HTML report under gatling/, samples in e2e-samples.ndjson
+# and the server-side latency percentiles in e2e-server-percentiles.json.
+#
+# Settings: RATE (new registrations per second), NOTIFICATION_RATE (direct OTP posts per
+# second), RAMP and DURATION (seconds), MAX_ERROR_PCT, OUTBOX_TRANSPORT (stream | http),
+# KEEP_STACK=1 to leave the containers running afterwards.
+set -euo pipefail
+
+cd "$(dirname "$0")/.."
+RATE=${RATE:-20}
+NOTIFICATION_RATE=${NOTIFICATION_RATE:-$RATE}
+RAMP=${RAMP:-30}
+DURATION=${DURATION:-120}
+MAX_ERROR_PCT=${MAX_ERROR_PCT:-1}
+SAMPLE_INTERVAL=${SAMPLE_INTERVAL:-5}
+export OUTBOX_TRANSPORT=${OUTBOX_TRANSPORT:-stream}
+OUT=loadtest/results
+USER_SERVICE=http://localhost:8081
+mkdir -p "$OUT"
+
+compose() {
+  docker compose -p loadtest -f docker-compose.yml -f loadtest/docker-compose.loadtest.yml "$@"
+}
+
+cleanup() {
+  [ -n "${sampler:-}" ] && kill "$sampler" 2>/dev/null || true
+  compose logs --no-color > "$OUT/e2e-stack.log" 2>&1 || true
+  [ "${KEEP_STACK:-0}" = 1 ] || compose down -v --remove-orphans
+}
+trap cleanup EXIT
+
+# wait_for <name> <url> [curl options]; without -f any HTTP answer, even a 404, counts
+wait_for() {
+  local name=$1 url=$2
+  shift 2
+  echo "   waiting for $name"
+  for _ in $(seq 1 180); do
+    curl -s -o /dev/null "$@" "$url" && return 0
+    sleep 2
+  done
+  echo "$name did not come up, see $OUT/e2e-stack.log" >&2
+  exit 1
+}
+
+echo "== starting stack (outbox transport: $OUTBOX_TRANSPORT)"
+compose up -d --build
+wait_for user-service "$USER_SERVICE/actuator/health" -f
+wait_for notification-service http://localhost:8082/
+wait_for api-gateway http://localhost:8080/
+wait_for mailpit http://localhost:8025/api/v1/info
+
+metric() {
+  curl -sf "$USER_SERVICE/actuator/metrics/$1" || echo null
+}
+
+sample() {
+  while true; do
+    printf '{"ts":%s,"circuitbreaker":%s,"ratelimiter":%s,"otpThrottled":%s}\n' \
+      "$(date +%s)" \
+      "$(metric resilience4j.circuitbreaker.state)" \
+      "$(metric resilience4j.ratelimiter.available.permissions)" \
+      "$(metric user.otp.throttled)"
+    sleep "$SAMPLE_INTERVAL"
+  done
+}
+
+: > "$OUT/e2e-samples.ndjson"
+sample >> "$OUT/e2e-samples.ndjson" &
+sampler=$!
+
+echo "== gatling: $RATE registrations/s, $NOTIFICATION_RATE direct OTPs/s, ${RAMP}s ramp + ${DURATION}s"
+status=0
+mvn -B -f loadtest/gatling gatling:test \
+  -Drate="$RATE" -DnotificationRate="$NOTIFICATION_RATE" \
+  -Dramp="$RAMP" -Dduration="$DURATION" -DmaxErrorPct="$MAX_ERROR_PCT" || status=$?
+
+kill "$sampler" 2>/dev/null || true
+metric http.server.requests.percentile > "$OUT/e2e-server-percentiles.json"
+echo "== report: $(ls -td "$OUT"/gatling/*/ 2>/dev/null | head -1)index.html"
+exit $status
@@ -0,0 +1,16 @@
+package com.example.notificationservice.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "notification.idempotency")
+public class IdempotencyProperties {
+
+    /**
+     * How long an idempotency key is remembered; redeliveries after that are sent again.
+     */
+    private Duration ttl = Duration.ofMinutes(10);
+}
@@ -0,0 +1,40 @@
+package com.example.notificationservice.config;
+
+import com.example.notificationservice.mail.PooledJavaMailSender;
+import org.springframework.boot.autoconfigure.mail.MailProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.Properties;
+
+@Configuration
+@EnableConfigurationProperties({MailDispatchProperties.class, SmtpPoolProperties.class, MailProperties.class,
+        IdempotencyProperties.class, StreamConsumerProperties.class})
+public class MailDispatchConfig {
+
+    /**
+     * Replaces the auto-configured JavaMailSender with one that reuses SMTP connections.
+     */
+    @Bean
+    public PooledJavaMailSender mailSender(MailProperties mail, SmtpPoolProperties pool) {
+        PooledJavaMailSender sender = new PooledJavaMailSender(pool.getMaxConnections(), pool.getMaxIdle(),
+                pool.getMaxMessagesPerConnection(), pool.getBorrowTimeout());
+        sender.setHost(mail.getHost());
+        if (mail.getPort() != null) {
+            sender.setPort(mail.getPort());
+        }
+        sender.setUsername(mail.getUsername());
+        sender.setPassword(mail.getPassword());
+        sender.setProtocol(mail.getProtocol());
+        if (mail.getDefaultEncoding() != null) {
+            sender.setDefaultEncoding(mail.getDefaultEncoding().name());
+        }
+        if (!mail.getProperties().isEmpty()) {
+            Properties properties = new Properties();
+            properties.putAll(mail.getProperties());
+            sender.setJavaMailProperties(properties);
+        }
+        return sender;
+    }
+}
@@ -0,0 +1,48 @@
+package com.example.notificationservice.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "notification.mail.dispatch")
+public class MailDispatchProperties {
+
+    /**
+     * Number of worker threads draining the queue to the mail server.
+     */
+    private int workers = 4;
+
+    /**
+     * Maximum number of messages waiting for a worker.
+     */
+    private int queueCapacity = 1000;
+
+    /**
+     * Maximum number of queued messages a worker sends over one connection in one go.
+     */
+    private int batchSize = 20;
+
+    /**
+     * What to do with a new message when the queue is full.
+     */
+    private OverflowPolicy overflowPolicy = OverflowPolicy.REJECT;
+
+    /**
+     * How long shutdown waits for queued messages to be delivered.
+     */
+    private Duration drainTimeout = Duration.ofSeconds(30);
+
+    /**
+     * Largest number of OTPs accepted in one POST /notification/otp/batch.
+     */
+    private int maxBatchRequest = 1000;
+
+    public enum OverflowPolicy {
+        /** Refuse the new message, the caller gets a 503 and can retry. */
+        REJECT,
+        /** Drop the oldest queued message to make room for the new one. */
+        SHED_OLDEST
+    }
+}
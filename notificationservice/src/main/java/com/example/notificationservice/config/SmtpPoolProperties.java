@@ -0,0 +1,31 @@
+package com.example.notificationservice.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "notification.mail.pool")
+public class SmtpPoolProperties {
+
+    /**
+     * Maximum number of SMTP connections open at the same time.
+     */
+    private int maxConnections = 4;
+
+    /**
+     * Idle connections older than this are closed.
+     */
+    private Duration maxIdle = Duration.ofSeconds(60);
+
+    /**
+     * Connections are closed and replaced after carrying this many messages.
+     */
+    private int maxMessagesPerConnection = 100;
+
+    /**
+     * How long a sender waits for a free connection before failing.
+     */
+    private Duration borrowTimeout = Duration.ofSeconds(10);
+}
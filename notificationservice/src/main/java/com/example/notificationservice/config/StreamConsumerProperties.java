@@ -0,0 +1,67 @@
+package com.example.notificationservice.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "notification.stream")
+public class StreamConsumerProperties {
+
+    /**
+     * Stream userservice appends OTP notifications to.
+     */
+    private String key = "outbox:notification:otp";
+
+    /**
+     * Consumer group shared by every notificationservice replica.
+     */
+    private String group = "notification-workers";
+
+    /**
+     * Consumer group of userservice's HTTP relay. Consumers do not start while it still
+     * reads the stream, since each group deletes the entries it handles.
+     */
+    private String relayGroup = "otp-relay";
+
+    /**
+     * Stream entries that failed too often or cannot be sent at all end up here.
+     */
+    private String deadLetterKey = "outbox:notification:otp:dlq";
+
+    /**
+     * Consumer threads per replica; each sends its batch over one pooled SMTP connection.
+     */
+    private int consumers = 2;
+
+    /**
+     * Maximum entries a consumer reads and sends per round.
+     */
+    private int batchSize = 20;
+
+    /**
+     * How long a consumer waits on an empty stream before checking for stale entries.
+     */
+    private Duration block = Duration.ofSeconds(2);
+
+    /**
+     * Entries left unacknowledged this long (crashed consumer, SMTP failure) are claimed and retried.
+     */
+    private Duration claimIdle = Duration.ofSeconds(60);
+
+    /**
+     * Deliveries after which a still pending entry is moved to the dead-letter stream.
+     */
+    private int maxDeliveries = 5;
+
+    /**
+     * Entries older than this are acknowledged unsent; should match the OTP lifetime.
+     */
+    private Duration maxAge = Duration.ofMinutes(5);
+
+    /**
+     * How long a sent idempotency key is remembered in Redis.
+     */
+    private Duration idempotencyTtl = Duration.ofMinutes(10);
+}
@@ -0,0 +1,38 @@
+package com.example.notificationservice.config;
+
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.core.env.Environment;
+import org.springframework.core.task.VirtualThreadTaskExecutor;
+
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Thread factories for the service's own background workers, following
+ * {@code spring.threads.virtual.enabled} like Tomcat and the Spring executors do.
+ */
+public final class WorkerThreads {
+
+    private WorkerThreads() {
+    }
+
+    public static boolean virtual(Environment environment) {
+        return Threading.VIRTUAL.isActive(environment);
+    }
+
+    /**
+     * Virtual threads when requested (Java 21+), otherwise daemon platform threads
+     * named {@code prefix1}, {@code prefix2}, ...
+     */
+    public static ThreadFactory factory(String prefix, boolean virtual) {
+        if (virtual) {
+            return new VirtualThreadTaskExecutor(prefix).getVirtualThreadFactory();
+        }
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
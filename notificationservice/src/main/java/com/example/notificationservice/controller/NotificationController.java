@@ -1,26 +1,70 @@
 package com.example.notificationservice.controller;
 
 import com.example.notificationservice.dto.OtpRequest;
+import com.example.notificationservice.dto.OtpResult;
+import com.example.notificationservice.service.EmailDispatcher;
 import com.example.notificationservice.service.EmailService;
+import com.example.notificationservice.service.IdempotencyGuard;
+import com.example.notificationservice.service.OtpBatchService;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.mail.SimpleMailMessage;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+
 @RestController
 @RequestMapping("/notification")
 @RequiredArgsConstructor
 public class NotificationController {
 
     private final EmailService emailService;
+    private final EmailDispatcher emailDispatcher;
+    private final IdempotencyGuard idempotencyGuard;
+    private final OtpBatchService otpBatchService;
+    private final ObjectMapper objectMapper;
 
     @PostMapping("/otp")
     public ResponseEntity<String> sendOtp(@RequestBody OtpRequest request) {
-        String message = "Your OTP for " + request.getPurpose() + " is: " + request.getOtp();
-        emailService.sendEmail(request.getEmail(), request.getOtp(), message);
-        return ResponseEntity.ok("OTP sent successfully");
+        SimpleMailMessage mail = emailService.buildOtpMessage(request);
+        if (!idempotencyGuard.firstSeen(request.getIdempotencyKey())) {
+            return ResponseEntity.accepted().body("OTP already queued for delivery");
+        }
+        if (!emailDispatcher.dispatch(mail)) {
+            idempotencyGuard.release(request.getIdempotencyKey());
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body("Notification queue is full, please retry");
+        }
+        return ResponseEntity.accepted().body("OTP queued for delivery");
+    }
+
+    @PostMapping(value = "/otp/batch", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<List<OtpResult>> sendOtpBatch(@RequestBody List<OtpRequest> requests) {
+        return ResponseEntity.accepted().body(otpBatchService.queue(requests.iterator()));
+    }
+
+    /**
+     * Same as the JSON array variant, but reads one OtpRequest per line so large batches
+     * are parsed as they arrive instead of being buffered whole.
+     */
+    @PostMapping(value = "/otp/batch", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<List<OtpResult>> sendOtpBatchNdjson(InputStream body) throws IOException {
+        try (MappingIterator<OtpRequest> requests = objectMapper.readerFor(OtpRequest.class).readValues(body)) {
+            return ResponseEntity.accepted().body(otpBatchService.queue(requests));
+        } catch (RuntimeException e) {
+            if (e.getCause() instanceof IOException) {
+                throw new IllegalArgumentException("Malformed NDJSON batch: " + e.getCause().getMessage());
+            }
+            throw e;
+        }
     }
 
 }
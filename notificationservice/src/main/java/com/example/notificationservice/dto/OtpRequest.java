@@ -11,4 +11,5 @@ public class OtpRequest {
     private String email;
     private String otp;
     private String purpose;
+    private String idempotencyKey;
 }
@@ -0,0 +1,25 @@
+package com.example.notificationservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class OtpResult {
+    private int index;
+    private Status status;
+    private String message;
+
+    public enum Status {
+        /** Queued for delivery. */
+        ACCEPTED,
+        /** Idempotency key seen before, nothing was queued again. */
+        DUPLICATE,
+        /** The request itself is wrong; retrying will not help. */
+        INVALID,
+        /** The mail queue was full; retry later. */
+        REJECTED
+    }
+}
@@ -0,0 +1,104 @@
+package com.example.notificationservice.mail;
+
+import com.example.notificationservice.mail.SmtpConnectionPool.PooledTransport;
+import jakarta.mail.Address;
+import jakarta.mail.AuthenticationFailedException;
+import jakarta.mail.SendFailedException;
+import jakarta.mail.internet.MimeMessage;
+import org.springframework.lang.Nullable;
+import org.springframework.mail.MailAuthenticationException;
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+
+import java.time.Duration;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * {@link JavaMailSenderImpl} that borrows its transport from a {@link SmtpConnectionPool}
+ * instead of connecting and disconnecting around every {@code send} call.
+ */
+public class PooledJavaMailSender extends JavaMailSenderImpl implements AutoCloseable {
+    private static final String HEADER_MESSAGE_ID = "Message-ID";
+
+    private final SmtpConnectionPool pool;
+
+    public PooledJavaMailSender(int maxConnections, Duration maxIdle,
+                                int maxMessagesPerConnection, Duration borrowTimeout) {
+        this.pool = new SmtpConnectionPool(this::connectTransport, maxConnections, maxIdle,
+                maxMessagesPerConnection, borrowTimeout);
+    }
+
+    @Override
+    protected void doSend(MimeMessage[] mimeMessages, @Nullable Object[] originalMessages) throws MailException {
+        Map<Object, Exception> failedMessages = new LinkedHashMap<>();
+        PooledTransport transport = null;
+        try {
+            for (int i = 0; i < mimeMessages.length; i++) {
+                if (transport == null) {
+                    try {
+                        transport = pool.borrow();
+                    } catch (AuthenticationFailedException ex) {
+                        throw new MailAuthenticationException(ex);
+                    } catch (Exception ex) {
+                        // None of the remaining messages can go out
+                        for (int j = i; j < mimeMessages.length; j++) {
+                            failedMessages.put(original(mimeMessages, originalMessages, j), ex);
+                        }
+                        throw new MailSendException("Mail server connection failed", ex, failedMessages);
+                    }
+                }
+
+                MimeMessage mimeMessage = mimeMessages[i];
+                try {
+                    if (mimeMessage.getSentDate() == null) {
+                        mimeMessage.setSentDate(new Date());
+                    }
+                    String messageId = mimeMessage.getMessageID();
+                    mimeMessage.saveChanges();
+                    if (messageId != null) {
+                        mimeMessage.setHeader(HEADER_MESSAGE_ID, messageId);
+                    }
+                    Address[] addresses = mimeMessage.getAllRecipients();
+                    transport.transport().sendMessage(mimeMessage, addresses != null ? addresses : new Address[0]);
+                    transport.markSent();
+                } catch (SendFailedException ex) {
+                    // Rejected recipients, the connection itself is still usable
+                    failedMessages.put(original(mimeMessages, originalMessages, i), ex);
+                } catch (Exception ex) {
+                    failedMessages.put(original(mimeMessages, originalMessages, i), ex);
+                    pool.invalidate(transport);
+                    transport = null;
+                }
+
+                if (transport != null && pool.isExhausted(transport)) {
+                    pool.release(transport);
+                    transport = null;
+                }
+            }
+        } finally {
+            if (transport != null) {
+                pool.release(transport);
+            }
+        }
+
+        if (!failedMessages.isEmpty()) {
+            throw new MailSendException(failedMessages);
+        }
+    }
+
+    public SmtpConnectionPool getPool() {
+        return pool;
+    }
+
+    @Override
+    public void close() {
+        pool.close();
+    }
+
+    private static Object original(MimeMessage[] mimeMessages, @Nullable Object[] originalMessages, int index) {
+        return originalMessages != null ? originalMessages[index] : mimeMessages[index];
+    }
+}
@@ -0,0 +1,159 @@
+package com.example.notificationservice.mail;
+
+import jakarta.mail.MessagingException;
+import jakarta.mail.Transport;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps connected, authenticated SMTP transports around so consecutive sends skip the
+ * TCP + STARTTLS + AUTH handshake. Connections are recycled after a fixed number of
+ * messages and closed when they sit idle for too long.
+ */
+@Slf4j
+public class SmtpConnectionPool implements AutoCloseable {
+
+    @FunctionalInterface
+    public interface TransportFactory {
+        Transport connect() throws MessagingException;
+    }
+
+    private final TransportFactory factory;
+    private final Duration maxIdle;
+    private final int maxMessagesPerConnection;
+    private final Duration borrowTimeout;
+    private final Semaphore permits;
+    private final ConcurrentLinkedDeque<PooledTransport> idle = new ConcurrentLinkedDeque<>();
+    private final ScheduledExecutorService evictor;
+
+    public SmtpConnectionPool(TransportFactory factory, int maxConnections, Duration maxIdle,
+                              int maxMessagesPerConnection, Duration borrowTimeout) {
+        this.factory = factory;
+        this.maxIdle = maxIdle;
+        this.maxMessagesPerConnection = maxMessagesPerConnection;
+        this.borrowTimeout = borrowTimeout;
+        this.permits = new Semaphore(maxConnections, true);
+        this.evictor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "smtp-pool-evictor");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long period = Math.max(1, maxIdle.toMillis() / 2);
+        evictor.scheduleWithFixedDelay(this::evictIdle, period, period, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Hands out an idle connection, or opens a new one when none is available and the
+     * pool is below its size limit.
+     */
+    public PooledTransport borrow() throws MessagingException {
+        try {
+            if (!permits.tryAcquire(borrowTimeout.toMillis(), TimeUnit.MILLISECONDS)) {
+                throw new MessagingException("Timed out waiting for an SMTP connection");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new MessagingException("Interrupted waiting for an SMTP connection", e);
+        }
+
+        try {
+            PooledTransport pooled;
+            while ((pooled = idle.pollFirst()) != null) {
+                if (!pooled.isExpired(maxIdle) && pooled.transport.isConnected()) {
+                    return pooled;
+                }
+                closeQuietly(pooled);
+            }
+            return new PooledTransport(factory.connect());
+        } catch (MessagingException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    /**
+     * Returns a healthy connection to the pool, closing it instead once it has carried
+     * its share of messages.
+     */
+    public void release(PooledTransport pooled) {
+        if (isExhausted(pooled)) {
+            closeQuietly(pooled);
+        } else {
+            pooled.lastUsed = System.nanoTime();
+            idle.offerFirst(pooled);
+        }
+        permits.release();
+    }
+
+    /**
+     * Drops a connection that failed mid-send instead of returning it to the pool.
+     */
+    public void invalidate(PooledTransport pooled) {
+        closeQuietly(pooled);
+        permits.release();
+    }
+
+    public boolean isExhausted(PooledTransport pooled) {
+        return pooled.messagesSent >= maxMessagesPerConnection;
+    }
+
+    public int idleCount() {
+        return idle.size();
+    }
+
+    void evictIdle() {
+        Iterator<PooledTransport> iterator = idle.descendingIterator();
+        while (iterator.hasNext()) {
+            PooledTransport pooled = iterator.next();
+            if (pooled.isExpired(maxIdle) && idle.removeFirstOccurrence(pooled)) {
+                closeQuietly(pooled);
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        evictor.shutdownNow();
+        PooledTransport pooled;
+        while ((pooled = idle.pollFirst()) != null) {
+            closeQuietly(pooled);
+        }
+    }
+
+    private void closeQuietly(PooledTransport pooled) {
+        try {
+            pooled.transport.close();
+        } catch (MessagingException e) {
+            log.debug("Error closing SMTP connection: {}", e.getMessage());
+        }
+    }
+
+    public static final class PooledTransport {
+        private final Transport transport;
+        private int messagesSent;
+        private volatile long lastUsed = System.nanoTime();
+
+        PooledTransport(Transport transport) {
+            this.transport = transport;
+        }
+
+        public Transport transport() {
+            return transport;
+        }
+
+        public void markSent() {
+            messagesSent++;
+        }
+
+        boolean isExpired(Duration maxIdle) {
+            return System.nanoTime() - lastUsed > maxIdle.toNanos();
+        }
+    }
+}
@@ -0,0 +1,159 @@
+package com.example.notificationservice.service;
+
+import com.example.notificationservice.config.MailDispatchProperties;
+import com.example.notificationservice.config.MailDispatchProperties.OverflowPolicy;
+import com.example.notificationservice.config.WorkerThreads;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.env.Environment;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.SimpleMailMessage;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bounded in-process queue in front of the mail server. Request threads only pay for
+ * the enqueue, a fixed pool of workers does the SMTP round trips, sending whatever has
+ * piled up in the queue as one batch over a pooled connection.
+ */
+@Slf4j
+@Service
+public class EmailDispatcher {
+    private static final long POLL_INTERVAL_MS = 200;
+
+    private final EmailService emailService;
+    private final MailDispatchProperties properties;
+    private final BlockingQueue<SimpleMailMessage> queue;
+    private final boolean virtualThreads;
+    private ExecutorService workers;
+    private volatile boolean accepting = true;
+
+    @Autowired
+    public EmailDispatcher(EmailService emailService, MailDispatchProperties properties, Environment environment) {
+        this(emailService, properties, WorkerThreads.virtual(environment));
+    }
+
+    EmailDispatcher(EmailService emailService, MailDispatchProperties properties) {
+        this(emailService, properties, false);
+    }
+
+    private EmailDispatcher(EmailService emailService, MailDispatchProperties properties, boolean virtualThreads) {
+        this.emailService = emailService;
+        this.properties = properties;
+        this.queue = new ArrayBlockingQueue<>(properties.getQueueCapacity());
+        this.virtualThreads = virtualThreads;
+    }
+
+    @PostConstruct
+    public void start() {
+        workers = Executors.newFixedThreadPool(properties.getWorkers(),
+                WorkerThreads.factory("mail-worker-", virtualThreads));
+        for (int i = 0; i < properties.getWorkers(); i++) {
+            workers.execute(this::drain);
+        }
+    }
+
+    /**
+     * Queues a message for delivery.
+     *
+     * @return false when the message was not accepted (queue full or shutting down)
+     */
+    public boolean dispatch(SimpleMailMessage message) {
+        if (!accepting) {
+            return false;
+        }
+        if (queue.offer(message)) {
+            return true;
+        }
+        if (properties.getOverflowPolicy() == OverflowPolicy.SHED_OLDEST) {
+            SimpleMailMessage shed = queue.poll();
+            if (shed != null) {
+                log.warn("Mail queue full, dropped message to {}", Arrays.toString(shed.getTo()));
+            }
+            return queue.offer(message);
+        }
+        log.warn("Mail queue full, rejected message to {}", Arrays.toString(message.getTo()));
+        return false;
+    }
+
+    /**
+     * Queues messages in order until one is not accepted.
+     *
+     * @return how many of the leading messages were queued
+     */
+    public int dispatchAll(List<SimpleMailMessage> messages) {
+        int accepted = 0;
+        for (SimpleMailMessage message : messages) {
+            if (!dispatch(message)) {
+                break;
+            }
+            accepted++;
+        }
+        return accepted;
+    }
+
+    public int queueDepth() {
+        return queue.size();
+    }
+
+    /**
+     * Stops accepting new messages and gives the workers up to the drain timeout
+     * to deliver what is already queued.
+     */
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        accepting = false;
+        workers.shutdown();
+        if (!workers.awaitTermination(properties.getDrainTimeout().toMillis(), TimeUnit.MILLISECONDS)) {
+            log.warn("Mail queue not drained in {}, {} message(s) lost", properties.getDrainTimeout(), queue.size());
+            workers.shutdownNow();
+        }
+    }
+
+    private void drain() {
+        while (true) {
+            SimpleMailMessage message;
+            try {
+                message = queue.poll(POLL_INTERVAL_MS, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            if (message == null) {
+                if (!accepting) {
+                    return;
+                }
+                continue;
+            }
+            List<SimpleMailMessage> batch = new ArrayList<>(properties.getBatchSize());
+            batch.add(message);
+            queue.drainTo(batch, properties.getBatchSize() - 1);
+            deliver(batch);
+        }
+    }
+
+    private void deliver(List<SimpleMailMessage> batch) {
+        try {
+            emailService.deliver(batch.toArray(new SimpleMailMessage[0]));
+        } catch (MailSendException e) {
+            e.getFailedMessages().forEach((failed, cause) ->
+                    log.error("Error sending email to {}: {}", recipients(failed), cause.getMessage()));
+        } catch (Exception e) {
+            log.error("Error sending {} email(s): {}", batch.size(), e.getMessage());
+        }
+    }
+
+    private static String recipients(Object message) {
+        return message instanceof SimpleMailMessage mail ? Arrays.toString(mail.getTo()) : String.valueOf(message);
+    }
+}
@@ -1,5 +1,6 @@
 package com.example.notificationservice.service;
 
+import com.example.notificationservice.dto.OtpRequest;
 import lombok.RequiredArgsConstructor;
 import org.springframework.mail.SimpleMailMessage;
 import org.springframework.mail.javamail.JavaMailSender;
@@ -12,6 +13,20 @@ public class EmailService {
 
 
     public void sendEmail(String to, String subject, String body) {
+        SimpleMailMessage message = buildMessage(to, subject, body);
+
+        try {
+            mailSender.send(message);
+            System.out.println("send"+message.getSubject());
+        } catch (Exception e) {
+            System.out.println("Error sending email: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Validates the recipient and fills in defaults, without talking to the mail server.
+     */
+    public SimpleMailMessage buildMessage(String to, String subject, String body) {
         if (to == null || to.isEmpty()) {
             throw new IllegalArgumentException("Recipient email is required");
         }
@@ -22,15 +37,24 @@ public class EmailService {
             body = "";
         }
 
-        try {
-            SimpleMailMessage message = new SimpleMailMessage();
-            message.setTo(to);
-            message.setSubject(subject);
-            message.setText(body);
-            mailSender.send(message);
-            System.out.println("send"+subject);
-        } catch (Exception e) {
-            System.out.println("Error sending email: " + e.getMessage());
-        }
+        SimpleMailMessage message = new SimpleMailMessage();
+        message.setTo(to);
+        message.setSubject(subject);
+        message.setText(body);
+        return message;
+    }
+
+    public SimpleMailMessage buildOtpMessage(OtpRequest request) {
+        String body = "Your OTP for " + request.getPurpose() + " is: " + request.getOtp();
+        return buildMessage(request.getEmail(), request.getOtp(), body);
+    }
+
+    /**
+     * Sends already built messages over a single connection, letting
+     * {@link org.springframework.mail.MailException} propagate so the caller can decide
+     * what to do with failures.
+     */
+    public void deliver(SimpleMailMessage... messages) {
+        mailSender.send(messages);
     }
 }
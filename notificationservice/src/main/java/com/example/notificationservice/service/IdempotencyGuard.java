@@ -0,0 +1,55 @@
+package com.example.notificationservice.service;
+
+import com.example.notificationservice.config.IdempotencyProperties;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Remembers recently accepted idempotency keys so a notification redelivered by the
+ * userservice outbox is only emailed once. Keys are claimed in Redis with SET NX PX, so a
+ * retry that lands on another replica, or on this one after a restart, is still caught.
+ * The stream consumer records the keys it sends under the same prefix.
+ */
+@Slf4j
+@Component
+public class IdempotencyGuard {
+    public static final String KEY_PREFIX = "notification:sent:";
+
+    private final StringRedisTemplate redisTemplate;
+    private final IdempotencyProperties properties;
+
+    public IdempotencyGuard(StringRedisTemplate redisTemplate, IdempotencyProperties properties) {
+        this.redisTemplate = redisTemplate;
+        this.properties = properties;
+    }
+
+    /**
+     * Claims the key for the TTL. Redis errors propagate, so nothing is sent without a claim.
+     *
+     * @return true if the key has not been seen within the TTL (or is null) and the
+     *         caller should go ahead; false for a repeat
+     */
+    public boolean firstSeen(String key) {
+        if (key == null || key.isEmpty()) {
+            return true;
+        }
+        return Boolean.TRUE.equals(redisTemplate.opsForValue().setIfAbsent(KEY_PREFIX + key, "1", properties.getTtl()));
+    }
+
+    /**
+     * Forgets a key whose message could not be accepted, so the sender's retry goes through.
+     */
+    public void release(String key) {
+        if (key == null) {
+            return;
+        }
+        try {
+            redisTemplate.delete(KEY_PREFIX + key);
+        } catch (DataAccessException e) {
+            // the claim then runs out with the TTL; until then a retry counts as a repeat
+            log.warn("Could not release idempotency key {}: {}", key, e.getMessage());
+        }
+    }
+}
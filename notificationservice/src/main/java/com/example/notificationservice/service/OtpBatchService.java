@@ -0,0 +1,82 @@
+package com.example.notificationservice.service;
+
+import com.example.notificationservice.config.MailDispatchProperties;
+import com.example.notificationservice.dto.OtpRequest;
+import com.example.notificationservice.dto.OtpResult;
+import com.example.notificationservice.dto.OtpResult.Status;
+import lombok.RequiredArgsConstructor;
+import org.springframework.mail.SimpleMailMessage;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Queues a batch of OTP requests: one pass validates and builds every message, then all
+ * valid ones are handed to the dispatcher together, so the request thread never waits on
+ * SMTP. Each item gets its own status, so a bad address or a full queue does not fail the
+ * rest of the batch.
+ */
+@Service
+@RequiredArgsConstructor
+public class OtpBatchService {
+    private final EmailService emailService;
+    private final EmailDispatcher emailDispatcher;
+    private final IdempotencyGuard idempotencyGuard;
+    private final MailDispatchProperties properties;
+
+    public List<OtpResult> queue(Iterator<OtpRequest> requests) {
+        List<OtpResult> results = new ArrayList<>();
+        List<SimpleMailMessage> messages = new ArrayList<>();
+        List<OtpResult> pending = new ArrayList<>();
+        List<String> keys = new ArrayList<>();
+
+        int index = 0;
+        try {
+            while (requests.hasNext()) {
+                if (index == properties.getMaxBatchRequest()) {
+                    throw new IllegalArgumentException("Batch exceeds " + properties.getMaxBatchRequest() + " requests");
+                }
+                OtpRequest request = requests.next();
+                OtpResult result = new OtpResult(index++, null, null);
+                results.add(result);
+                SimpleMailMessage mail;
+                try {
+                    mail = emailService.buildOtpMessage(request);
+                } catch (IllegalArgumentException e) {
+                    result.setStatus(Status.INVALID);
+                    result.setMessage(e.getMessage());
+                    continue;
+                }
+                if (!idempotencyGuard.firstSeen(request.getIdempotencyKey())) {
+                    result.setStatus(Status.DUPLICATE);
+                    result.setMessage("OTP already queued for delivery");
+                    continue;
+                }
+                messages.add(mail);
+                pending.add(result);
+                keys.add(request.getIdempotencyKey());
+            }
+        } catch (RuntimeException e) {
+            // nothing was queued, so the whole batch will be retried; let it through then
+            keys.forEach(idempotencyGuard::release);
+            throw e;
+        }
+
+        int accepted = emailDispatcher.dispatchAll(messages);
+        for (int i = 0; i < pending.size(); i++) {
+            OtpResult result = pending.get(i);
+            if (i < accepted) {
+                result.setStatus(Status.ACCEPTED);
+                result.setMessage("OTP queued for delivery");
+            } else {
+                // forget the key so the sender's retry goes through
+                idempotencyGuard.release(keys.get(i));
+                result.setStatus(Status.REJECTED);
+                result.setMessage("Notification queue is full, please retry");
+            }
+        }
+        return results;
+    }
+}
@@ -0,0 +1,328 @@
+package com.example.notificationservice.stream;
+
+import com.example.notificationservice.config.StreamConsumerProperties;
+import com.example.notificationservice.config.WorkerThreads;
+import com.example.notificationservice.dto.OtpRequest;
+import com.example.notificationservice.service.EmailService;
+import com.example.notificationservice.service.IdempotencyGuard;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.env.Environment;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.Range;
+import org.springframework.data.redis.connection.stream.Consumer;
+import org.springframework.data.redis.connection.stream.MapRecord;
+import org.springframework.data.redis.connection.stream.PendingMessage;
+import org.springframework.data.redis.connection.stream.ReadOffset;
+import org.springframework.data.redis.connection.stream.RecordId;
+import org.springframework.data.redis.connection.stream.StreamInfo.XInfoConsumer;
+import org.springframework.data.redis.connection.stream.StreamInfo.XInfoConsumers;
+import org.springframework.data.redis.connection.stream.StreamOffset;
+import org.springframework.data.redis.connection.stream.StreamReadOptions;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.StreamOperations;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.SimpleMailMessage;
+import org.springframework.stereotype.Component;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Consumes OTP notifications straight from the Redis stream userservice writes to, as
+ * part of a consumer group shared by all replicas, so email throughput scales with the
+ * number of notificationservice instances. An entry is acknowledged, and its idempotency
+ * key remembered as sent, only after its mail was handed to the SMTP server; entries stuck in the pending list are claimed again and,
+ * after {@code max-deliveries}, moved to the dead-letter stream.
+ *
+ * <p>Runs only with {@code notification.outbox.transport=stream}, the same setting that
+ * turns off userservice's HTTP relay.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "notification.outbox", name = "transport", havingValue = "stream")
+public class OtpStreamConsumer {
+    static final String SENT_KEY_PREFIX = IdempotencyGuard.KEY_PREFIX;
+    private static final long ERROR_BACKOFF_MS = 1_000;
+
+    private final StringRedisTemplate redisTemplate;
+    private final EmailService emailService;
+    private final StreamConsumerProperties properties;
+    private final boolean virtualThreads;
+    private final String consumerPrefix = ManagementFactory.getRuntimeMXBean().getName();
+    private final List<Thread> workers = new ArrayList<>();
+    private volatile boolean running;
+    private volatile long nextClaimAt;
+
+    @Autowired
+    public OtpStreamConsumer(StringRedisTemplate redisTemplate, EmailService emailService,
+                             StreamConsumerProperties properties, Environment environment) {
+        this(redisTemplate, emailService, properties, WorkerThreads.virtual(environment));
+    }
+
+    OtpStreamConsumer(StringRedisTemplate redisTemplate, EmailService emailService,
+                      StreamConsumerProperties properties) {
+        this(redisTemplate, emailService, properties, false);
+    }
+
+    private OtpStreamConsumer(StringRedisTemplate redisTemplate, EmailService emailService,
+                              StreamConsumerProperties properties, boolean virtualThreads) {
+        this.redisTemplate = redisTemplate;
+        this.emailService = emailService;
+        this.properties = properties;
+        this.virtualThreads = virtualThreads;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        checkNoRelay();
+        running = true;
+        ThreadFactory threads = WorkerThreads.factory("otp-stream-", virtualThreads);
+        for (int i = 1; i <= properties.getConsumers(); i++) {
+            Consumer consumer = Consumer.from(properties.getGroup(), consumerPrefix + "-" + i);
+            Thread worker = threads.newThread(() -> run(consumer));
+            worker.start();
+            workers.add(worker);
+        }
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        for (Thread worker : workers) {
+            worker.join(properties.getBlock().toMillis() + ERROR_BACKOFF_MS);
+        }
+    }
+
+    private void run(Consumer consumer) {
+        boolean groupReady = false;
+        while (running) {
+            try {
+                if (!groupReady) {
+                    createGroup();
+                    groupReady = true;
+                }
+                consumeOnce(consumer);
+            } catch (RuntimeException e) {
+                groupReady = false;
+                log.warn("OTP stream consumer {} failed, retrying in {} ms: {}",
+                        consumer.getName(), ERROR_BACKOFF_MS, e.getMessage());
+                try {
+                    Thread.sleep(ERROR_BACKOFF_MS);
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * One round for one consumer: handles stale pending entries when due, then blocks
+     * for new ones.
+     *
+     * @return number of entries acknowledged
+     */
+    int consumeOnce(Consumer consumer) {
+        int acked = 0;
+        long now = System.currentTimeMillis();
+        if (now >= nextClaimAt) {
+            // one consumer per claim interval is enough, the others skip it
+            nextClaimAt = now + properties.getClaimIdle().toMillis();
+            acked += process(claimStale(consumer));
+        }
+        return acked + process(readNew(consumer));
+    }
+
+    // the varargs array holds a single StreamOffset<String> and is only read by the driver
+    @SuppressWarnings("unchecked")
+    private List<MapRecord<String, Object, Object>> readNew(Consumer consumer) {
+        return stream().read(consumer,
+                StreamReadOptions.empty().count(properties.getBatchSize()).block(properties.getBlock()),
+                StreamOffset.create(properties.getKey(), ReadOffset.lastConsumed()));
+    }
+
+    /**
+     * Fails startup while userservice's relay group has a consumer active within
+     * {@code claim-idle}: both would read and delete the same entries.
+     */
+    void checkNoRelay() {
+        XInfoConsumers relays;
+        try {
+            relays = stream().consumers(properties.getKey(), properties.getRelayGroup());
+        } catch (DataAccessException e) {
+            // no stream or relay group yet, or Redis is down and the consumers will retry
+            return;
+        }
+        for (XInfoConsumer relay : relays) {
+            if (relay.idleTimeMs() < properties.getClaimIdle().toMillis()) {
+                throw new IllegalStateException("OTP outbox relay " + relay.consumerName() + " is still reading "
+                        + properties.getKey() + "; set notification.outbox.transport=stream on userservice too");
+            }
+        }
+    }
+
+    void createGroup() {
+        try {
+            stream().createGroup(properties.getKey(), ReadOffset.from("0"), properties.getGroup());
+        } catch (DataAccessException e) {
+            // BUSYGROUP: another consumer created it first
+            log.debug("OTP stream consumer group not created: {}", e.getMessage());
+        }
+    }
+
+    private List<MapRecord<String, Object, Object>> claimStale(Consumer consumer) {
+        List<RecordId> stale = new ArrayList<>();
+        for (PendingMessage pending : stream().pending(properties.getKey(), properties.getGroup(),
+                Range.unbounded(), properties.getBatchSize())) {
+            if (pending.getElapsedTimeSinceLastDelivery().compareTo(properties.getClaimIdle()) < 0) {
+                continue;
+            }
+            if (pending.getTotalDeliveryCount() >= properties.getMaxDeliveries()) {
+                deadLetter(pending.getId(), "delivery failed " + pending.getTotalDeliveryCount() + " times");
+            } else {
+                stale.add(pending.getId());
+            }
+        }
+        if (stale.isEmpty()) {
+            return List.of();
+        }
+        return stream().claim(properties.getKey(), properties.getGroup(), consumer.getName(),
+                properties.getClaimIdle(), stale.toArray(new RecordId[0]));
+    }
+
+    private int process(List<MapRecord<String, Object, Object>> records) {
+        if (records == null || records.isEmpty()) {
+            return 0;
+        }
+        List<RecordId> done = new ArrayList<>(records.size());
+        Map<RecordId, SimpleMailMessage> toSend = new LinkedHashMap<>();
+        Map<RecordId, String> keys = new HashMap<>();
+        Set<String> batchKeys = new HashSet<>();
+        for (MapRecord<String, Object, Object> record : records) {
+            if (System.currentTimeMillis() - record.getId().getTimestamp() > properties.getMaxAge().toMillis()) {
+                // the OTP has expired, sending it now would only confuse the user
+                done.add(record.getId());
+                continue;
+            }
+            OtpRequest request = toRequest(record);
+            SimpleMailMessage mail;
+            try {
+                mail = emailService.buildOtpMessage(request);
+            } catch (IllegalArgumentException e) {
+                deadLetter(record, e.getMessage());
+                continue;
+            }
+            String key = request.getIdempotencyKey();
+            if (key != null && (!batchKeys.add(key) || alreadySent(key))) {
+                log.debug("Skipping already sent OTP notification {}", key);
+                done.add(record.getId());
+                continue;
+            }
+            toSend.put(record.getId(), mail);
+            keys.put(record.getId(), key);
+        }
+
+        if (!toSend.isEmpty()) {
+            Set<SimpleMailMessage> failed = send(toSend.values());
+            toSend.forEach((id, mail) -> {
+                if (failed.contains(mail)) {
+                    // left pending, the next claim retries it
+                    return;
+                }
+                // only a mail the SMTP server accepted is remembered as sent
+                markSent(keys.get(id));
+                done.add(id);
+            });
+        }
+        acknowledge(done);
+        return done.size();
+    }
+
+    /**
+     * @return the messages that were not accepted, compared by identity
+     */
+    private Set<SimpleMailMessage> send(Collection<SimpleMailMessage> messages) {
+        Set<SimpleMailMessage> failed = Collections.newSetFromMap(new IdentityHashMap<>());
+        try {
+            emailService.deliver(messages.toArray(new SimpleMailMessage[0]));
+        } catch (MailSendException e) {
+            e.getFailedMessages().forEach((message, cause) -> {
+                log.warn("Error sending OTP email, will retry: {}", cause.getMessage());
+                if (message instanceof SimpleMailMessage mail) {
+                    failed.add(mail);
+                }
+            });
+            if (failed.isEmpty()) {
+                failed.addAll(messages);
+            }
+        } catch (RuntimeException e) {
+            log.warn("Error sending {} OTP email(s), will retry: {}", messages.size(), e.getMessage());
+            failed.addAll(messages);
+        }
+        return failed;
+    }
+
+    private boolean alreadySent(String idempotencyKey) {
+        return Boolean.TRUE.equals(redisTemplate.hasKey(SENT_KEY_PREFIX + idempotencyKey));
+    }
+
+    private void markSent(String idempotencyKey) {
+        if (idempotencyKey != null) {
+            redisTemplate.opsForValue().set(SENT_KEY_PREFIX + idempotencyKey, "1", properties.getIdempotencyTtl());
+        }
+    }
+
+    private void deadLetter(RecordId id, String reason) {
+        List<MapRecord<String, Object, Object>> records = stream().range(properties.getKey(), Range.just(id.getValue()));
+        if (records == null || records.isEmpty()) {
+            // already trimmed or deleted, nothing left to keep
+            acknowledge(List.of(id));
+            return;
+        }
+        deadLetter(records.get(0), reason);
+    }
+
+    private void deadLetter(MapRecord<String, Object, Object> record, String reason) {
+        Map<Object, Object> fields = new HashMap<>(record.getValue());
+        fields.put("sourceId", record.getId().getValue());
+        fields.put("error", reason);
+        stream().add(MapRecord.create(properties.getDeadLetterKey(), fields));
+        acknowledge(List.of(record.getId()));
+        log.error("Moved OTP notification {} to {}: {}", record.getId(), properties.getDeadLetterKey(), reason);
+    }
+
+    private void acknowledge(List<RecordId> ids) {
+        if (ids.isEmpty()) {
+            return;
+        }
+        RecordId[] array = ids.toArray(new RecordId[0]);
+        stream().acknowledge(properties.getKey(), properties.getGroup(), array);
+        // entries hold OTPs, do not keep them once handled
+        stream().delete(properties.getKey(), array);
+    }
+
+    private StreamOperations<String, Object, Object> stream() {
+        return redisTemplate.opsForStream();
+    }
+
+    private static OtpRequest toRequest(MapRecord<String, Object, Object> record) {
+        Map<Object, Object> fields = record.getValue();
+        return new OtpRequest((String) fields.get("email"), (String) fields.get("otp"),
+                (String) fields.get("purpose"), (String) fields.get("idempotencyKey"));
+    }
+}
@@ -0,0 +1,102 @@
+package com.example.notificationservice.benchmark;
+
+import com.example.notificationservice.config.IdempotencyProperties;
+import com.example.notificationservice.config.MailDispatchProperties;
+import com.example.notificationservice.controller.NotificationController;
+import com.example.notificationservice.dto.OtpRequest;
+import com.example.notificationservice.service.EmailDispatcher;
+import com.example.notificationservice.service.EmailService;
+import com.example.notificationservice.service.IdempotencyGuard;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.core.env.StandardEnvironment;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mail.SimpleMailMessage;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+
+import java.lang.reflect.Proxy;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Cost of POST /notification/otp up to the mail queue, with an SMTP stand-in that accepts
+ * every message and an idempotency claim that never goes to Redis, so the numbers do not
+ * depend on either server.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class NotificationBenchmark {
+
+    private EmailService emailService;
+    private EmailDispatcher dispatcher;
+    private NotificationController controller;
+    private OtpRequest request;
+    private final AtomicLong keys = new AtomicLong();
+
+    @Setup
+    public void setUp() {
+        emailService = new EmailService(new JavaMailSenderImpl() {
+            @Override
+            public void send(SimpleMailMessage... messages) {
+            }
+        });
+        MailDispatchProperties dispatch = new MailDispatchProperties();
+        // the workers drain instantly, but a full queue must not turn into 503s mid-run
+        dispatch.setOverflowPolicy(MailDispatchProperties.OverflowPolicy.SHED_OLDEST);
+        dispatcher = new EmailDispatcher(emailService, dispatch, new StandardEnvironment());
+        dispatcher.start();
+        controller = new NotificationController(emailService, dispatcher,
+                new IdempotencyGuard(claimAlwaysSucceeds(), new IdempotencyProperties()), null, null);
+        request = new OtpRequest("veer@gmail.com", "123456", "Registration", null);
+    }
+
+    @TearDown
+    public void tearDown() throws InterruptedException {
+        dispatcher.shutdown();
+    }
+
+    /**
+     * Every benchmark call uses a fresh key, so the claim always succeeds; nothing is stored.
+     */
+    @SuppressWarnings("unchecked")
+    private static StringRedisTemplate claimAlwaysSucceeds() {
+        ValueOperations<String, String> values = (ValueOperations<String, String>) Proxy.newProxyInstance(
+                NotificationBenchmark.class.getClassLoader(), new Class<?>[]{ValueOperations.class},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "setIfAbsent" -> Boolean.TRUE;
+                    default -> throw new UnsupportedOperationException(method.getName());
+                });
+        return new StringRedisTemplate() {
+            @Override
+            public ValueOperations<String, String> opsForValue() {
+                return values;
+            }
+        };
+    }
+
+    @Benchmark
+    public SimpleMailMessage buildOtpMessage() {
+        return emailService.buildOtpMessage(request);
+    }
+
+    @Benchmark
+    public ResponseEntity<String> sendOtp() {
+        return controller.sendOtp(new OtpRequest(request.getEmail(), request.getOtp(), request.getPurpose(),
+                Long.toString(keys.incrementAndGet())));
+    }
+}
@@ -0,0 +1,94 @@
+package com.example.notificationservice.controller;
+
+import com.example.notificationservice.dto.OtpRequest;
+import com.example.notificationservice.dto.OtpResult;
+import com.example.notificationservice.dto.OtpResult.Status;
+import com.example.notificationservice.exception.GlobalExceptionHandler;
+import com.example.notificationservice.service.EmailDispatcher;
+import com.example.notificationservice.service.EmailService;
+import com.example.notificationservice.service.IdempotencyGuard;
+import com.example.notificationservice.service.OtpBatchService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+class NotificationControllerTest {
+
+    private final OtpBatchService otpBatchService = mock(OtpBatchService.class);
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setup() {
+        NotificationController controller = new NotificationController(mock(EmailService.class),
+                mock(EmailDispatcher.class), mock(IdempotencyGuard.class), otpBatchService, new ObjectMapper());
+        mockMvc = MockMvcBuilders.standaloneSetup(controller)
+                .setControllerAdvice(new GlobalExceptionHandler())
+                .build();
+    }
+
+    @Test
+    void sendOtpBatch_acceptsJsonArray_andReturnsPerItemStatus() throws Exception {
+        when(otpBatchService.queue(any())).thenAnswer(invocation -> {
+            Iterator<OtpRequest> requests = invocation.getArgument(0);
+            List<OtpResult> results = new ArrayList<>();
+            for (int i = 0; requests.hasNext(); i++) {
+                requests.next();
+                results.add(new OtpResult(i, Status.ACCEPTED, "OTP queued for delivery"));
+            }
+            return results;
+        });
+
+        mockMvc.perform(post("/notification/otp/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[{\"email\":\"a@x.com\",\"otp\":\"1\",\"purpose\":\"Registration\"},"
+                                + "{\"email\":\"b@x.com\",\"otp\":\"2\",\"purpose\":\"Registration\"}]"))
+                .andExpect(status().isAccepted())
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[1].index").value(1))
+                .andExpect(jsonPath("$[1].status").value("ACCEPTED"));
+    }
+
+    @Test
+    void sendOtpBatch_readsNdjsonLineByLine() throws Exception {
+        when(otpBatchService.queue(any())).thenAnswer(invocation -> {
+            Iterator<OtpRequest> requests = invocation.getArgument(0);
+            List<OtpRequest> seen = new ArrayList<>();
+            requests.forEachRemaining(seen::add);
+            assertEquals(List.of("a@x.com", "b@x.com"), seen.stream().map(OtpRequest::getEmail).toList());
+            return List.of(new OtpResult(0, Status.ACCEPTED, null), new OtpResult(1, Status.INVALID, "bad"));
+        });
+
+        mockMvc.perform(post("/notification/otp/batch")
+                        .contentType(MediaType.APPLICATION_NDJSON)
+                        .content("{\"email\":\"a@x.com\",\"otp\":\"1\",\"purpose\":\"Registration\",\"idempotencyKey\":\"k1\"}\n"
+                                + "{\"email\":\"b@x.com\",\"otp\":\"2\",\"purpose\":\"Registration\"}\n"))
+                .andExpect(status().isAccepted())
+                .andExpect(jsonPath("$[1].status").value("INVALID"));
+    }
+
+    @Test
+    void sendOtpBatch_rejectsMalformedNdjson() throws Exception {
+        when(otpBatchService.queue(any())).thenAnswer(invocation -> {
+            invocation.<Iterator<OtpRequest>>getArgument(0).forEachRemaining(request -> { });
+            return List.of();
+        });
+
+        mockMvc.perform(post("/notification/otp/batch")
+                        .contentType(MediaType.APPLICATION_NDJSON)
+                        .content("{\"email\":\"a@x.com\"}\n{not json\n"))
+                .andExpect(status().isBadRequest());
+    }
+}
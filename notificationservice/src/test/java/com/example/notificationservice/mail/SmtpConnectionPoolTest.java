@@ -0,0 +1,98 @@
+package com.example.notificationservice.mail;
+
+import com.example.notificationservice.mail.SmtpConnectionPool.PooledTransport;
+import jakarta.mail.MessagingException;
+import jakarta.mail.Transport;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class SmtpConnectionPoolTest {
+
+    private final SmtpConnectionPool.TransportFactory factory = mock(SmtpConnectionPool.TransportFactory.class);
+    private SmtpConnectionPool pool;
+
+    private Transport connectedTransport() {
+        Transport transport = mock(Transport.class);
+        when(transport.isConnected()).thenReturn(true);
+        return transport;
+    }
+
+    @AfterEach
+    void tearDown() {
+        pool.close();
+    }
+
+    @Test
+    void borrow_shouldReuseReleasedConnection() throws Exception {
+        Transport transport = connectedTransport();
+        when(factory.connect()).thenReturn(transport);
+        pool = new SmtpConnectionPool(factory, 2, Duration.ofMinutes(1), 100, Duration.ofSeconds(1));
+
+        PooledTransport first = pool.borrow();
+        pool.release(first);
+        PooledTransport second = pool.borrow();
+
+        assertSame(first, second);
+        verify(factory, times(1)).connect();
+    }
+
+    @Test
+    void release_shouldCloseConnectionAfterMaxMessages() throws Exception {
+        Transport transport = connectedTransport();
+        when(factory.connect()).thenReturn(transport);
+        pool = new SmtpConnectionPool(factory, 2, Duration.ofMinutes(1), 2, Duration.ofSeconds(1));
+
+        PooledTransport pooled = pool.borrow();
+        pooled.markSent();
+        pooled.markSent();
+        assertTrue(pool.isExhausted(pooled));
+        pool.release(pooled);
+
+        assertEquals(0, pool.idleCount());
+        verify(transport).close();
+    }
+
+    @Test
+    void borrow_shouldReplaceDisconnectedConnection() throws Exception {
+        Transport stale = mock(Transport.class);
+        when(stale.isConnected()).thenReturn(false);
+        Transport fresh = connectedTransport();
+        when(factory.connect()).thenReturn(stale, fresh);
+        pool = new SmtpConnectionPool(factory, 2, Duration.ofMinutes(1), 100, Duration.ofSeconds(1));
+
+        pool.release(pool.borrow());
+        PooledTransport pooled = pool.borrow();
+
+        assertSame(fresh, pooled.transport());
+        verify(stale).close();
+    }
+
+    @Test
+    void evictIdle_shouldCloseExpiredConnections() throws Exception {
+        Transport transport = connectedTransport();
+        when(factory.connect()).thenReturn(transport);
+        pool = new SmtpConnectionPool(factory, 2, Duration.ofMillis(1), 100, Duration.ofSeconds(1));
+
+        pool.release(pool.borrow());
+        Thread.sleep(5);
+        pool.evictIdle();
+
+        assertEquals(0, pool.idleCount());
+        verify(transport, atLeastOnce()).close();
+    }
+
+    @Test
+    void borrow_shouldTimeOutWhenPoolIsExhausted() throws Exception {
+        when(factory.connect()).thenAnswer(invocation -> connectedTransport());
+        pool = new SmtpConnectionPool(factory, 1, Duration.ofMinutes(1), 100, Duration.ofMillis(50));
+
+        pool.borrow();
+
+        assertThrows(MessagingException.class, () -> pool.borrow());
+    }
+}
@@ -0,0 +1,138 @@
+package com.example.notificationservice.service;
+
+import com.example.notificationservice.config.MailDispatchProperties;
+import com.example.notificationservice.config.MailDispatchProperties.OverflowPolicy;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.SimpleMailMessage;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class EmailDispatcherTest {
+
+    @Mock
+    private EmailService emailService;
+
+    private MailDispatchProperties properties(int capacity, OverflowPolicy policy) {
+        MailDispatchProperties properties = new MailDispatchProperties();
+        properties.setWorkers(2);
+        properties.setQueueCapacity(capacity);
+        properties.setOverflowPolicy(policy);
+        properties.setBatchSize(2);
+        return properties;
+    }
+
+    private SimpleMailMessage message(String to) {
+        SimpleMailMessage message = new SimpleMailMessage();
+        message.setTo(to);
+        return message;
+    }
+
+    @Test
+    void dispatch_shouldDeliverOnWorkerThread() throws Exception {
+        EmailDispatcher dispatcher = new EmailDispatcher(emailService, properties(10, OverflowPolicy.REJECT));
+        dispatcher.start();
+
+        SimpleMailMessage message = message("test@gmail.com");
+        assertTrue(dispatcher.dispatch(message));
+
+        verify(emailService, timeout(1000)).deliver(message);
+        dispatcher.shutdown();
+    }
+
+    @Test
+    void dispatch_queueFull_shouldReject() {
+        // workers not started, so nothing drains the queue
+        EmailDispatcher dispatcher = new EmailDispatcher(emailService, properties(1, OverflowPolicy.REJECT));
+
+        assertTrue(dispatcher.dispatch(message("a@gmail.com")));
+        assertFalse(dispatcher.dispatch(message("b@gmail.com")));
+        assertEquals(1, dispatcher.queueDepth());
+    }
+
+    @Test
+    void dispatchAll_shouldStopAtFirstRejectedMessage() {
+        EmailDispatcher dispatcher = new EmailDispatcher(emailService, properties(2, OverflowPolicy.REJECT));
+
+        int accepted = dispatcher.dispatchAll(List.of(message("a@gmail.com"), message("b@gmail.com"), message("c@gmail.com")));
+
+        assertEquals(2, accepted);
+        assertEquals(2, dispatcher.queueDepth());
+    }
+
+    @Test
+    void dispatch_queueFull_shouldShedOldest() throws Exception {
+        EmailDispatcher dispatcher = new EmailDispatcher(emailService, properties(1, OverflowPolicy.SHED_OLDEST));
+        SimpleMailMessage oldest = message("a@gmail.com");
+        SimpleMailMessage newest = message("b@gmail.com");
+
+        assertTrue(dispatcher.dispatch(oldest));
+        assertTrue(dispatcher.dispatch(newest));
+
+        dispatcher.start();
+        verify(emailService, timeout(1000)).deliver(newest);
+        verify(emailService, never()).deliver(oldest);
+        dispatcher.shutdown();
+    }
+
+    @Test
+    void shutdown_shouldDrainQueueAndStopAccepting() throws Exception {
+        AtomicInteger delivered = new AtomicInteger();
+        doAnswer(invocation -> delivered.addAndGet(invocation.getArguments().length))
+                .when(emailService).deliver(any(SimpleMailMessage[].class));
+        EmailDispatcher dispatcher = new EmailDispatcher(emailService, properties(10, OverflowPolicy.REJECT));
+        for (int i = 0; i < 5; i++) {
+            dispatcher.dispatch(message(i + "@gmail.com"));
+        }
+        dispatcher.start();
+        dispatcher.shutdown();
+
+        assertEquals(5, delivered.get());
+        assertFalse(dispatcher.dispatch(message("late@gmail.com")));
+    }
+
+    @Test
+    void worker_shouldSendQueuedMessagesAsOneBatch() throws Exception {
+        MailDispatchProperties properties = properties(10, OverflowPolicy.REJECT);
+        properties.setWorkers(1);
+        EmailDispatcher dispatcher = new EmailDispatcher(emailService, properties);
+        SimpleMailMessage first = message("a@gmail.com");
+        SimpleMailMessage second = message("b@gmail.com");
+        SimpleMailMessage third = message("c@gmail.com");
+        dispatcher.dispatch(first);
+        dispatcher.dispatch(second);
+        dispatcher.dispatch(third);
+
+        dispatcher.start();
+
+        verify(emailService, timeout(1000)).deliver(first, second);
+        verify(emailService, timeout(1000)).deliver(third);
+        dispatcher.shutdown();
+    }
+
+    @Test
+    void worker_shouldSurviveMailFailures() throws Exception {
+        doThrow(new MailSendException("Mail Server Down"))
+                .doNothing()
+                .when(emailService).deliver(any(SimpleMailMessage.class));
+        EmailDispatcher dispatcher = new EmailDispatcher(emailService, properties(10, OverflowPolicy.REJECT));
+        dispatcher.start();
+
+        SimpleMailMessage first = message("a@gmail.com");
+        SimpleMailMessage second = message("b@gmail.com");
+        dispatcher.dispatch(first);
+        verify(emailService, timeout(1000)).deliver(first);
+        dispatcher.dispatch(second);
+
+        verify(emailService, timeout(1000)).deliver(second);
+        dispatcher.shutdown();
+    }
+}
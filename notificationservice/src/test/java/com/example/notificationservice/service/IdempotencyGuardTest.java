@@ -0,0 +1,70 @@
+package com.example.notificationservice.service;
+
+import com.example.notificationservice.config.IdempotencyProperties;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class IdempotencyGuardTest {
+
+    @Mock
+    private StringRedisTemplate redisTemplate;
+    @Mock
+    private ValueOperations<String, String> valueOps;
+
+    private final IdempotencyProperties properties = new IdempotencyProperties();
+    private IdempotencyGuard guard;
+
+    @BeforeEach
+    void setUp() {
+        properties.setTtl(Duration.ofMinutes(1));
+        lenient().when(redisTemplate.opsForValue()).thenReturn(valueOps);
+        guard = new IdempotencyGuard(redisTemplate, properties);
+    }
+
+    @Test
+    void firstSeen_claimsTheKeyInRedisForTheTtl() {
+        when(valueOps.setIfAbsent("notification:sent:key-1", "1", Duration.ofMinutes(1))).thenReturn(true, false);
+
+        assertTrue(guard.firstSeen("key-1"));
+        // a repeat, whichever replica it reaches
+        assertFalse(guard.firstSeen("key-1"));
+    }
+
+    @Test
+    void firstSeen_alwaysAllowsMissingKey() {
+        assertTrue(guard.firstSeen(null));
+        assertTrue(guard.firstSeen(""));
+        verifyNoInteractions(redisTemplate);
+    }
+
+    @Test
+    void firstSeen_propagatesRedisFailure() {
+        when(valueOps.setIfAbsent(anyString(), anyString(), any(Duration.class)))
+                .thenThrow(new QueryTimeoutException("redis down"));
+
+        assertThrows(QueryTimeoutException.class, () -> guard.firstSeen("key-1"));
+    }
+
+    @Test
+    void release_deletesTheClaim_andSurvivesRedisFailure() {
+        guard.release("key-1");
+        verify(redisTemplate).delete("notification:sent:key-1");
+
+        when(redisTemplate.delete("notification:sent:key-2")).thenThrow(new QueryTimeoutException("redis down"));
+        guard.release("key-2");
+    }
+}
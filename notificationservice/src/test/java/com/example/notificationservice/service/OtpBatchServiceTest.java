@@ -0,0 +1,88 @@
+package com.example.notificationservice.service;
+
+import com.example.notificationservice.config.MailDispatchProperties;
+import com.example.notificationservice.dto.OtpRequest;
+import com.example.notificationservice.dto.OtpResult;
+import com.example.notificationservice.dto.OtpResult.Status;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.mail.SimpleMailMessage;
+import org.springframework.mail.javamail.JavaMailSender;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+class OtpBatchServiceTest {
+
+    private final MailDispatchProperties properties = new MailDispatchProperties();
+    private final EmailDispatcher dispatcher = mock(EmailDispatcher.class);
+    private final IdempotencyGuard guard = mock(IdempotencyGuard.class);
+    private OtpBatchService service;
+
+    @BeforeEach
+    void setUp() {
+        EmailService emailService = new EmailService(mock(JavaMailSender.class));
+        service = new OtpBatchService(emailService, dispatcher, guard, properties);
+        when(guard.firstSeen(any())).thenReturn(true);
+    }
+
+    @Test
+    void queue_enqueuesValidItemsTogether_andReportsEachOne() {
+        when(dispatcher.dispatchAll(anyList())).thenAnswer(invocation -> invocation.<List<?>>getArgument(0).size());
+        when(guard.firstSeen("dup")).thenReturn(false);
+
+        List<OtpResult> results = service.queue(List.of(
+                new OtpRequest("a@x.com", "111111", "Registration", "k1"),
+                new OtpRequest(null, "222222", "Registration", "k2"),
+                new OtpRequest("c@x.com", "333333", "Registration", "dup"),
+                new OtpRequest("d@x.com", "444444", "Registration", "k4")).iterator());
+
+        assertEquals(List.of(Status.ACCEPTED, Status.INVALID, Status.DUPLICATE, Status.ACCEPTED),
+                results.stream().map(OtpResult::getStatus).toList());
+        assertEquals(List.of(0, 1, 2, 3), results.stream().map(OtpResult::getIndex).toList());
+        assertEquals("Recipient email is required", results.get(1).getMessage());
+        verify(dispatcher).dispatchAll(argThat((List<SimpleMailMessage> batch) -> batch.size() == 2));
+    }
+
+    @Test
+    void queue_marksOverflowRejected_andReleasesTheirKeys() {
+        when(dispatcher.dispatchAll(anyList())).thenReturn(1);
+
+        List<OtpResult> results = service.queue(List.of(
+                new OtpRequest("a@x.com", "111111", "Registration", "k1"),
+                new OtpRequest("b@x.com", "222222", "Registration", "k2")).iterator());
+
+        assertEquals(Status.ACCEPTED, results.get(0).getStatus());
+        assertEquals(Status.REJECTED, results.get(1).getStatus());
+        verify(guard).release("k2");
+        verify(guard, never()).release("k1");
+    }
+
+    @Test
+    void queue_releasesClaimedKeys_whenRedisFailsMidBatch() {
+        when(guard.firstSeen("k2")).thenThrow(new QueryTimeoutException("redis down"));
+
+        assertThrows(QueryTimeoutException.class, () -> service.queue(List.of(
+                new OtpRequest("a@x.com", "111111", "Registration", "k1"),
+                new OtpRequest("b@x.com", "222222", "Registration", "k2")).iterator()));
+        verifyNoInteractions(dispatcher);
+        verify(guard).release("k1");
+    }
+
+    @Test
+    void queue_rejectsOversizedBatch() {
+        properties.setMaxBatchRequest(1);
+
+        assertThrows(IllegalArgumentException.class, () -> service.queue(List.of(
+                new OtpRequest("a@x.com", "111111", "Registration", "k1"),
+                new OtpRequest("b@x.com", "222222", "Registration", "k2")).iterator()));
+        verifyNoInteractions(dispatcher);
+        verify(guard).release("k1");
+    }
+}
@@ -0,0 +1,238 @@
+package com.example.notificationservice.stream;
+
+import com.example.notificationservice.config.StreamConsumerProperties;
+import com.example.notificationservice.dto.OtpRequest;
+import com.example.notificationservice.service.EmailService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.InvalidDataAccessApiUsageException;
+import org.springframework.data.domain.Range;
+import org.springframework.data.redis.connection.stream.Consumer;
+import org.springframework.data.redis.connection.stream.MapRecord;
+import org.springframework.data.redis.connection.stream.PendingMessage;
+import org.springframework.data.redis.connection.stream.PendingMessages;
+import org.springframework.data.redis.connection.stream.RecordId;
+import org.springframework.data.redis.connection.stream.StreamInfo.XInfoConsumers;
+import org.springframework.data.redis.connection.stream.StreamOffset;
+import org.springframework.data.redis.connection.stream.StreamReadOptions;
+import org.springframework.data.redis.core.StreamOperations;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.SimpleMailMessage;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class OtpStreamConsumerTest {
+
+    private static final String STREAM = "outbox:notification:otp";
+    private static final String GROUP = "notification-workers";
+    private static final Consumer CONSUMER = Consumer.from(GROUP, "test-1");
+
+    @Mock
+    private StringRedisTemplate redisTemplate;
+    @Mock
+    private StreamOperations<String, Object, Object> streamOps;
+    @Mock
+    private ValueOperations<String, String> valueOps;
+    @Mock
+    private EmailService emailService;
+
+    private final StreamConsumerProperties properties = new StreamConsumerProperties();
+    private OtpStreamConsumer consumer;
+
+    @BeforeEach
+    void setUp() {
+        when(redisTemplate.<Object, Object>opsForStream()).thenReturn(streamOps);
+        lenient().when(redisTemplate.opsForValue()).thenReturn(valueOps);
+        lenient().when(streamOps.pending(eq(STREAM), eq(GROUP), any(Range.class), anyLong()))
+                .thenReturn(new PendingMessages(GROUP, List.of()));
+        lenient().when(emailService.buildOtpMessage(any(OtpRequest.class))).thenAnswer(invocation -> {
+            OtpRequest request = invocation.getArgument(0);
+            if (request.getEmail() == null) {
+                throw new IllegalArgumentException("Recipient email is required");
+            }
+            SimpleMailMessage mail = new SimpleMailMessage();
+            mail.setTo(request.getEmail());
+            mail.setText(request.getOtp());
+            return mail;
+        });
+        consumer = new OtpStreamConsumer(redisTemplate, emailService, properties);
+    }
+
+    private static MapRecord<String, Object, Object> record(long timestamp, String email, String key) {
+        Map<Object, Object> fields = new java.util.HashMap<>(Map.of("otp", "123456",
+                "purpose", "Registration", "idempotencyKey", key));
+        if (email != null) {
+            fields.put("email", email);
+        }
+        return MapRecord.<String, Object, Object>create(STREAM, fields).withId(RecordId.of(timestamp, 0));
+    }
+
+    @SuppressWarnings("unchecked")
+    private void readReturns(List<MapRecord<String, Object, Object>> records) {
+        when(streamOps.read(any(Consumer.class), any(StreamReadOptions.class), any(StreamOffset[].class)))
+                .thenReturn(records);
+    }
+
+    private static XInfoConsumers relays(long idleMs) {
+        return XInfoConsumers.fromList("otp-relay", List.of(List.of("name", "relay-1", "pending", 0L, "idle", idleMs)));
+    }
+
+    @Test
+    void start_refusesWhileTheUserserviceRelayReadsTheStream() {
+        when(streamOps.consumers(STREAM, "otp-relay")).thenReturn(relays(500));
+
+        IllegalStateException e = assertThrows(IllegalStateException.class, () -> consumer.start());
+        assertEquals("OTP outbox relay relay-1 is still reading " + STREAM
+                + "; set notification.outbox.transport=stream on userservice too", e.getMessage());
+    }
+
+    @Test
+    void checkNoRelay_ignoresIdleOrMissingRelayGroup() {
+        when(streamOps.consumers(STREAM, "otp-relay"))
+                .thenReturn(relays(Duration.ofMinutes(5).toMillis()))
+                .thenThrow(new InvalidDataAccessApiUsageException("NOGROUP No such consumer group"));
+
+        assertDoesNotThrow(() -> consumer.checkNoRelay());
+        assertDoesNotThrow(() -> consumer.checkNoRelay());
+    }
+
+    @Test
+    void consumeOnce_sendsBatchOverOneCall_thenAcks() {
+        long now = System.currentTimeMillis();
+        MapRecord<String, Object, Object> first = record(now, "a@x.com", "k1");
+        MapRecord<String, Object, Object> second = record(now + 1, "b@x.com", "k2");
+        readReturns(List.of(first, second));
+
+        assertEquals(2, consumer.consumeOnce(CONSUMER));
+
+        verify(emailService).deliver(any(SimpleMailMessage.class), any(SimpleMailMessage.class));
+        verify(streamOps).acknowledge(STREAM, GROUP, first.getId(), second.getId());
+        verify(streamOps).delete(STREAM, first.getId(), second.getId());
+        verify(valueOps).set(eq("notification:sent:k1"), eq("1"), any(Duration.class));
+        verify(valueOps).set(eq("notification:sent:k2"), eq("1"), any(Duration.class));
+    }
+
+    @Test
+    void consumeOnce_skipsAlreadySentKey() {
+        MapRecord<String, Object, Object> repeat = record(System.currentTimeMillis(), "a@x.com", "k1");
+        readReturns(List.of(repeat));
+        when(redisTemplate.hasKey("notification:sent:k1")).thenReturn(true);
+
+        assertEquals(1, consumer.consumeOnce(CONSUMER));
+
+        verify(emailService, never()).deliver(any(SimpleMailMessage[].class));
+        verify(streamOps).acknowledge(STREAM, GROUP, repeat.getId());
+    }
+
+    @Test
+    void consumeOnce_sendsRepeatedKeyOnlyOncePerBatch() {
+        long now = System.currentTimeMillis();
+        MapRecord<String, Object, Object> first = record(now, "a@x.com", "k1");
+        MapRecord<String, Object, Object> repeat = record(now + 1, "a@x.com", "k1");
+        readReturns(List.of(first, repeat));
+
+        assertEquals(2, consumer.consumeOnce(CONSUMER));
+
+        verify(emailService).deliver(any(SimpleMailMessage.class));
+        verify(streamOps).acknowledge(STREAM, GROUP, repeat.getId(), first.getId());
+    }
+
+    @Test
+    void consumeOnce_marksSentOnlyAfterDelivery() {
+        MapRecord<String, Object, Object> entry = record(System.currentTimeMillis(), "a@x.com", "k1");
+        readReturns(List.of(entry));
+
+        consumer.consumeOnce(CONSUMER);
+
+        var order = inOrder(emailService, valueOps, streamOps);
+        order.verify(emailService).deliver(any(SimpleMailMessage.class));
+        order.verify(valueOps).set(eq("notification:sent:k1"), eq("1"), any(Duration.class));
+        order.verify(streamOps).acknowledge(STREAM, GROUP, entry.getId());
+    }
+
+    @Test
+    void consumeOnce_leavesFailedMessagesPending_andDoesNotMarkThemSent() {
+        long now = System.currentTimeMillis();
+        MapRecord<String, Object, Object> ok = record(now, "a@x.com", "k1");
+        MapRecord<String, Object, Object> bad = record(now + 1, "b@x.com", "k2");
+        readReturns(List.of(ok, bad));
+        doAnswer(invocation -> {
+            SimpleMailMessage failed = invocation.getArgument(1);
+            throw new MailSendException(Map.of(failed, new RuntimeException("mailbox unavailable")));
+        }).when(emailService).deliver(any(SimpleMailMessage.class), any(SimpleMailMessage.class));
+
+        assertEquals(1, consumer.consumeOnce(CONSUMER));
+
+        verify(streamOps).acknowledge(STREAM, GROUP, ok.getId());
+        verify(valueOps).set(eq("notification:sent:k1"), eq("1"), any(Duration.class));
+        verify(valueOps, never()).set(eq("notification:sent:k2"), anyString(), any(Duration.class));
+    }
+
+    @Test
+    void consumeOnce_deadLettersUnsendableEntry() {
+        MapRecord<String, Object, Object> invalid = record(System.currentTimeMillis(), null, "k1");
+        readReturns(List.of(invalid));
+
+        assertEquals(0, consumer.consumeOnce(CONSUMER));
+
+        verify(streamOps).add(argThat((MapRecord<String, Object, Object> dlq) ->
+                dlq.getStream().equals("outbox:notification:otp:dlq")
+                        && "Recipient email is required".equals(dlq.getValue().get("error"))));
+        verify(streamOps).acknowledge(STREAM, GROUP, invalid.getId());
+        verify(emailService, never()).deliver(any(SimpleMailMessage[].class));
+    }
+
+    @Test
+    void consumeOnce_dropsExpiredEntry() {
+        MapRecord<String, Object, Object> stale = record(System.currentTimeMillis() - Duration.ofMinutes(10).toMillis(), "a@x.com", "k1");
+        readReturns(List.of(stale));
+
+        assertEquals(1, consumer.consumeOnce(CONSUMER));
+
+        verifyNoInteractions(emailService);
+        verify(streamOps).acknowledge(STREAM, GROUP, stale.getId());
+    }
+
+    @Test
+    void consumeOnce_claimsStaleEntries_andDeadLettersExhaustedOnes() {
+        MapRecord<String, Object, Object> retry = record(System.currentTimeMillis(), "a@x.com", "k1");
+        MapRecord<String, Object, Object> exhausted = record(System.currentTimeMillis(), "b@x.com", "k2")
+                .withId(RecordId.of(System.currentTimeMillis(), 1));
+        PendingMessage retryPending = new PendingMessage(retry.getId(), Consumer.from(GROUP, "dead"),
+                Duration.ofMinutes(2), 2);
+        PendingMessage exhaustedPending = new PendingMessage(exhausted.getId(), Consumer.from(GROUP, "dead"),
+                Duration.ofMinutes(2), properties.getMaxDeliveries());
+        when(streamOps.pending(eq(STREAM), eq(GROUP), any(Range.class), anyLong()))
+                .thenReturn(new PendingMessages(GROUP, List.of(retryPending, exhaustedPending)));
+        when(streamOps.range(eq(STREAM), any(Range.class))).thenReturn(List.of(exhausted));
+        when(streamOps.claim(eq(STREAM), eq(GROUP), eq(CONSUMER.getName()), eq(properties.getClaimIdle()), eq(retry.getId())))
+                .thenReturn(List.of(retry));
+        readReturns(List.of());
+
+        assertEquals(1, consumer.consumeOnce(CONSUMER));
+
+        verify(streamOps).add(argThat((MapRecord<String, Object, Object> dlq) ->
+                exhausted.getId().getValue().equals(dlq.getValue().get("sourceId"))));
+        verify(streamOps).acknowledge(STREAM, GROUP, exhausted.getId());
+        verify(streamOps).acknowledge(STREAM, GROUP, retry.getId());
+        verify(emailService).deliver(any(SimpleMailMessage.class));
+    }
+}
@@ -0,0 +1,137 @@
+package com.example.userservice.cache;
+
+import com.example.userservice.config.SingleFlightProperties;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * Lets concurrent identical lookups share one database call. The first caller for a key
+ * runs the loader on its own thread; callers arriving while it runs, or up to
+ * {@code resultTtl} after it finished, get the same result. Failures are handed to the
+ * callers already waiting and then forgotten.
+ */
+public class SingleFlight<K, V> {
+    // a finished lookup is re-put with its result TTL, so this only bounds a hung loader
+    private static final Duration MAX_IN_FLIGHT = Duration.ofMinutes(1);
+
+    private final boolean enabled;
+    private final Duration resultTtl;
+    private final Cache<K, CompletableFuture<V>> flights;
+    private final AtomicLong leaders = new AtomicLong();
+    private final AtomicLong shared = new AtomicLong();
+
+    public SingleFlight(String name, SingleFlightProperties properties, MeterRegistry meterRegistry) {
+        this.enabled = properties.isEnabled();
+        this.resultTtl = properties.getResultTtl();
+        this.flights = Caffeine.newBuilder()
+                .maximumSize(properties.getMaxKeys())
+                .expireAfter(new FlightExpiry())
+                .build();
+
+        FunctionCounter.builder("user.singleflight.calls", leaders, AtomicLong::get)
+                .description("Lookups that went to the database")
+                .tags("name", name, "result", "leader").register(meterRegistry);
+        FunctionCounter.builder("user.singleflight.calls", shared, AtomicLong::get)
+                .description("Lookups answered by another caller's database call")
+                .tags("name", name, "result", "shared").register(meterRegistry);
+        Gauge.builder("user.singleflight.coalescing.ratio", this, SingleFlight::coalescingRatio)
+                .description("Share of lookups that did not need their own database call")
+                .tag("name", name).register(meterRegistry);
+    }
+
+    public V load(K key, Function<K, V> loader) {
+        if (!enabled) {
+            return loader.apply(key);
+        }
+        CompletableFuture<V> own = new CompletableFuture<>();
+        CompletableFuture<V> running = flights.asMap().putIfAbsent(key, own);
+        if (running != null) {
+            shared.incrementAndGet();
+            return await(running);
+        }
+
+        leaders.incrementAndGet();
+        V value;
+        try {
+            value = loader.apply(key);
+        } catch (RuntimeException | Error e) {
+            flights.asMap().remove(key, own);
+            own.completeExceptionally(e);
+            throw e;
+        }
+        own.complete(value);
+        if (resultTtl.isZero() || value == null) {
+            flights.asMap().remove(key, own);
+        } else {
+            // re-putting the finished future restarts its expiry with the result TTL
+            flights.asMap().replace(key, own, own);
+        }
+        return value;
+    }
+
+    /**
+     * Drops finished results, e.g. after the row behind them changed. Lookups still
+     * running are dropped too, so later callers start a fresh one.
+     */
+    public void invalidate(Collection<K> keys) {
+        flights.invalidateAll(keys);
+    }
+
+    public void invalidate(K key) {
+        flights.invalidate(key);
+    }
+
+    double coalescingRatio() {
+        long coalesced = shared.get();
+        long total = coalesced + leaders.get();
+        return total == 0 ? 0 : (double) coalesced / total;
+    }
+
+    private V await(CompletableFuture<V> running) {
+        try {
+            return running.join();
+        } catch (CompletionException e) {
+            // rethrow what the leader's loader threw, as if this caller had run it
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            if (e.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw e;
+        }
+    }
+
+    private class FlightExpiry implements Expiry<K, CompletableFuture<V>> {
+        @Override
+        public long expireAfterCreate(K key, CompletableFuture<V> flight, long currentTime) {
+            return ttl(flight);
+        }
+
+        @Override
+        public long expireAfterUpdate(K key, CompletableFuture<V> flight, long currentTime, long currentDuration) {
+            return ttl(flight);
+        }
+
+        @Override
+        public long expireAfterRead(K key, CompletableFuture<V> flight, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+
+        private long ttl(CompletableFuture<V> flight) {
+            return (flight.isDone() ? resultTtl : MAX_IN_FLIGHT).toNanos();
+        }
+    }
+}
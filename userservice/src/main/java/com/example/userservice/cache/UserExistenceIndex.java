@@ -0,0 +1,327 @@
+package com.example.userservice.cache;
+
+import com.example.userservice.config.ExistenceIndexProperties;
+import com.example.userservice.config.SingleFlightProperties;
+import com.example.userservice.dto.UserIdentityView;
+import com.example.userservice.dto.UserMapper;
+import com.example.userservice.repository.UserRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.StringJoiner;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+
+/**
+ * In-memory Bloom filters over every username and email in the users table. A negative
+ * answer is final and skips the database; only "might exist" falls through to Postgres.
+ * Filters are seeded at startup, updated as users are saved (on every replica, via Redis
+ * pub/sub) and periodically rebuilt to forget deleted users. Concurrent database checks
+ * for the same value share one query.
+ */
+@Slf4j
+@Component
+public class UserExistenceIndex implements MessageListener {
+    static final String CHANNEL = "user-index:add";
+    private static final String USERNAME_PREFIX = "u:";
+    private static final String EMAIL_PREFIX = "e:";
+
+    private final UserRepository userRepository;
+    private final RedisTemplate<String, String> redisTemplate;
+    private final RedisMessageListenerContainer listenerContainer;
+    private final ExistenceIndexProperties properties;
+    private final MeterRegistry meterRegistry;
+    private final TransactionTemplate readOnlyTx;
+    private final Timer rebuildTimer;
+    private final SingleFlight<String, Boolean> lookups;
+    private final AtomicLong negatives = new AtomicLong();
+    private final AtomicLong falsePositives = new AtomicLong();
+    // not synchronized: the rebuild blocks on JDBC and would pin a virtual thread's carrier
+    private final ReentrantLock rebuildLock = new ReentrantLock();
+
+    // null until the first build completes; until then every lookup goes to the database
+    private volatile Filters current;
+    private volatile Filters building;
+
+    private record Filters(BloomFilter usernames, BloomFilter emails) {
+        void add(String username, String email) {
+            if (username != null) {
+                usernames.put(username);
+            }
+            if (email != null) {
+                // rows stored before emails were normalized may still be mixed case
+                emails.put(UserMapper.normalizeEmail(email));
+            }
+        }
+    }
+
+    public UserExistenceIndex(UserRepository userRepository,
+                              RedisTemplate<String, String> redisTemplate,
+                              RedisMessageListenerContainer listenerContainer,
+                              ExistenceIndexProperties properties,
+                              MeterRegistry meterRegistry,
+                              PlatformTransactionManager transactionManager,
+                              SingleFlightProperties singleFlightProperties) {
+        this.userRepository = userRepository;
+        this.redisTemplate = redisTemplate;
+        this.listenerContainer = listenerContainer;
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+        this.readOnlyTx = new TransactionTemplate(transactionManager);
+        this.readOnlyTx.setReadOnly(true);
+        this.rebuildTimer = Timer.builder("user.existence.index.rebuild")
+                .description("Time to rebuild the username/email Bloom filters from the users table")
+                .register(meterRegistry);
+        this.lookups = new SingleFlight<>("existence", singleFlightProperties, meterRegistry);
+    }
+
+    @PostConstruct
+    public void registerMetrics() {
+        Gauge.builder("user.existence.index.expected.fpp", this, index -> index.expectedFpp(Filters::usernames))
+                .tag("type", "username").register(meterRegistry);
+        Gauge.builder("user.existence.index.expected.fpp", this, index -> index.expectedFpp(Filters::emails))
+                .tag("type", "email").register(meterRegistry);
+        Gauge.builder("user.existence.index.observed.fpp", this, UserExistenceIndex::observedFpp)
+                .description("Share of absent values the filter reported as 'might exist'")
+                .register(meterRegistry);
+        Gauge.builder("user.existence.index.size", this, index -> index.current == null ? 0 : index.current.usernames.insertions())
+                .register(meterRegistry);
+
+        if (properties.isEnabled() && properties.isRedisSync()) {
+            listenerContainer.addMessageListener(this, new ChannelTopic(CHANNEL));
+        }
+    }
+
+    public boolean usernameExists(String username) {
+        return exists(username, USERNAME_PREFIX, Filters::usernames, userRepository::existsByUsername, "username");
+    }
+
+    public boolean emailExists(String email) {
+        return exists(UserMapper.normalizeEmail(email), EMAIL_PREFIX, Filters::emails,
+                userRepository::existsByEmail, "email");
+    }
+
+    /**
+     * Non-blocking variant: {@code database} is only subscribed to when the filter cannot
+     * rule the username out.
+     */
+    public Mono<Boolean> usernameExists(String username, Function<String, Mono<Boolean>> database) {
+        return existsAsync(username, Filters::usernames, database, "username");
+    }
+
+    public Mono<Boolean> emailExists(String email, Function<String, Mono<Boolean>> database) {
+        return existsAsync(UserMapper.normalizeEmail(email), Filters::emails, database, "email");
+    }
+
+    /**
+     * Adds a saved user's keys to the filters once the surrounding transaction commits,
+     * and tells the other replicas to do the same.
+     */
+    public void recordUser(String username, String email) {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        afterCommit(() -> addAndPublish(username, email));
+    }
+
+    /**
+     * Bulk variant of {@link #recordUser} for imports: the other replicas get one message
+     * for the whole batch instead of two per user.
+     */
+    public void recordUsers(Collection<? extends UserIdentityView> users) {
+        if (!properties.isEnabled() || users.isEmpty()) {
+            return;
+        }
+        afterCommit(() -> addAllAndPublish(users));
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void seedOnStartup() {
+        Thread seeder = new Thread(this::rebuild, "user-index-seed");
+        seeder.setDaemon(true);
+        seeder.start();
+    }
+
+    @Scheduled(initialDelayString = "${user.existence-index.rebuild-interval:PT6H}",
+            fixedDelayString = "${user.existence-index.rebuild-interval:PT6H}")
+    public void rebuild() {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        rebuildLock.lock();
+        Timer.Sample sample = Timer.start(meterRegistry);
+        try {
+            long capacity = Math.max(properties.getExpectedInsertions(), userRepository.count() * 2);
+            Filters fresh = new Filters(new BloomFilter(capacity, properties.getFpp()),
+                    new BloomFilter(capacity, properties.getFpp()));
+            building = fresh;
+            readOnlyTx.executeWithoutResult(status -> {
+                try (Stream<UserIdentityView> users = userRepository.streamAllIdentities()) {
+                    users.forEach(user -> fresh.add(user.getUsername(), user.getEmail()));
+                }
+            });
+            current = fresh;
+            negatives.set(0);
+            falsePositives.set(0);
+            log.info("User existence index rebuilt with {} users", fresh.usernames.insertions());
+        } catch (RuntimeException e) {
+            log.warn("User existence index rebuild failed, keeping previous filters: {}", e.getMessage());
+        } finally {
+            building = null;
+            sample.stop(rebuildTimer);
+            rebuildLock.unlock();
+        }
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        // bulk imports send several entries per message, one per line
+        for (String entry : new String(message.getBody(), StandardCharsets.UTF_8).split("\n")) {
+            if (entry.startsWith(USERNAME_PREFIX)) {
+                add(entry.substring(USERNAME_PREFIX.length()), null);
+            } else if (entry.startsWith(EMAIL_PREFIX)) {
+                add(null, entry.substring(EMAIL_PREFIX.length()));
+            }
+        }
+    }
+
+    private void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    private boolean exists(String value, String prefix, Function<Filters, BloomFilter> filter,
+                           Predicate<String> database, String type) {
+        Filters filters = properties.isEnabled() ? current : null;
+        if (ruledOut(filters, filter, value, type)) {
+            return false;
+        }
+        boolean exists = lookups.load(prefix + value, key -> database.test(value));
+        recordMaybe(filters, type, exists);
+        return exists;
+    }
+
+    private Mono<Boolean> existsAsync(String value, Function<Filters, BloomFilter> filter,
+                                      Function<String, Mono<Boolean>> database, String type) {
+        return Mono.defer(() -> {
+            Filters filters = properties.isEnabled() ? current : null;
+            if (ruledOut(filters, filter, value, type)) {
+                return Mono.just(false);
+            }
+            return database.apply(value).doOnNext(exists -> recordMaybe(filters, type, exists));
+        });
+    }
+
+    private boolean ruledOut(Filters filters, Function<Filters, BloomFilter> filter, String value, String type) {
+        if (filters != null && !filter.apply(filters).mightContain(value)) {
+            meterRegistry.counter("user.existence.index.lookups", "type", type, "result", "negative").increment();
+            negatives.incrementAndGet();
+            return true;
+        }
+        return false;
+    }
+
+    private void recordMaybe(Filters filters, String type, boolean exists) {
+        if (filters != null) {
+            meterRegistry.counter("user.existence.index.lookups", "type", type, "result", "maybe").increment();
+            if (!exists) {
+                falsePositives.incrementAndGet();
+            }
+        }
+    }
+
+    private void addAndPublish(String username, String email) {
+        add(username, email);
+        if (!properties.isRedisSync()) {
+            return;
+        }
+        try {
+            if (username != null) {
+                redisTemplate.convertAndSend(CHANNEL, USERNAME_PREFIX + username);
+            }
+            if (email != null) {
+                redisTemplate.convertAndSend(CHANNEL, EMAIL_PREFIX + email);
+            }
+        } catch (RuntimeException e) {
+            // other replicas pick the user up on their next rebuild
+            log.warn("Could not publish user index update: {}", e.getMessage());
+        }
+    }
+
+    private void addAllAndPublish(Collection<? extends UserIdentityView> users) {
+        StringJoiner entries = new StringJoiner("\n");
+        for (UserIdentityView user : users) {
+            add(user.getUsername(), user.getEmail());
+            entries.add(USERNAME_PREFIX + user.getUsername()).add(EMAIL_PREFIX + user.getEmail());
+        }
+        if (!properties.isRedisSync()) {
+            return;
+        }
+        try {
+            redisTemplate.convertAndSend(CHANNEL, entries.toString());
+        } catch (RuntimeException e) {
+            log.warn("Could not publish user index update for {} users: {}", users.size(), e.getMessage());
+        }
+    }
+
+    private void add(String username, String email) {
+        // a shared "does not exist" answer may still be cached for this user
+        if (username != null) {
+            lookups.invalidate(USERNAME_PREFIX + username);
+        }
+        if (email != null) {
+            lookups.invalidate(EMAIL_PREFIX + UserMapper.normalizeEmail(email));
+        }
+        // read building before current: a rebuild that starts after this point streams
+        // the already committed row, one that finished before it has swapped current
+        Filters inProgress = building;
+        Filters filters = current;
+        if (inProgress != null) {
+            inProgress.add(username, email);
+        }
+        if (filters != null) {
+            filters.add(username, email);
+        }
+    }
+
+    private double expectedFpp(Function<Filters, BloomFilter> filter) {
+        Filters filters = current;
+        return filters == null ? 0 : filter.apply(filters).expectedFpp();
+    }
+
+    private double observedFpp() {
+        long fp = falsePositives.get();
+        long absent = fp + negatives.get();
+        return absent == 0 ? 0 : (double) fp / absent;
+    }
+}
@@ -0,0 +1,197 @@
+package com.example.userservice.cache;
+
+import com.example.userservice.config.ProfileCacheProperties;
+import com.example.userservice.config.SingleFlightProperties;
+import com.example.userservice.dto.UserResponse;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Function;
+
+/**
+ * Read-through cache for user profiles: a bounded per-replica Caffeine cache in front of
+ * a shared Redis tier. Evictions replace the Redis entry with a short-lived tombstone and
+ * are broadcast over pub/sub so every replica drops its local copy. Concurrent misses for
+ * the same user share one Redis read and, if needed, one load.
+ *
+ * <p>A load that started before an eviction may return the old row. It is handed to its
+ * callers but cached in neither tier: the local tier checks when the user was last
+ * evicted, and the Redis write is a SET NX that loses to the tombstone.
+ */
+@Slf4j
+@Component
+public class UserProfileCache implements MessageListener {
+    static final String KEY_PREFIX = "cache:user:";
+    static final String EVICT_CHANNEL = "user-cache:evict";
+    static final String TOMBSTONE = "-";
+
+    private final RedisTemplate<String, String> redisTemplate;
+    private final RedisMessageListenerContainer listenerContainer;
+    private final ObjectMapper objectMapper;
+    private final ProfileCacheProperties properties;
+    private final MeterRegistry meterRegistry;
+    private final Cache<String, UserResponse> local;
+    // when each user was last evicted on this replica, kept as long as a tombstone lives
+    private final Cache<String, Long> evictedAt;
+    private final SingleFlight<String, UserResponse> loads;
+
+    public UserProfileCache(RedisTemplate<String, String> redisTemplate,
+                            RedisMessageListenerContainer listenerContainer,
+                            ObjectMapper objectMapper,
+                            ProfileCacheProperties properties,
+                            SingleFlightProperties singleFlightProperties,
+                            MeterRegistry meterRegistry) {
+        this.redisTemplate = redisTemplate;
+        this.listenerContainer = listenerContainer;
+        this.objectMapper = objectMapper;
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+        this.local = Caffeine.newBuilder()
+                .maximumSize(properties.getLocalMaxSize())
+                .expireAfterWrite(properties.getLocalTtl())
+                .recordStats()
+                .build();
+        this.evictedAt = Caffeine.newBuilder()
+                .expireAfterWrite(properties.getTombstoneTtl())
+                .build();
+        this.loads = new SingleFlight<>("profile", singleFlightProperties, meterRegistry);
+    }
+
+    @PostConstruct
+    public void init() {
+        CaffeineCacheMetrics.monitor(meterRegistry, local, "user.profile.local");
+        if (properties.isEnabled()) {
+            listenerContainer.addMessageListener(this, new ChannelTopic(EVICT_CHANNEL));
+        }
+    }
+
+    /**
+     * Returns the cached profile, falling back to Redis and then to {@code loader}.
+     * Whatever the loader returns is written to both tiers unless the user was evicted
+     * while it ran; exceptions are not cached.
+     */
+    public UserResponse get(String username, Function<String, UserResponse> loader) {
+        if (!properties.isEnabled()) {
+            return loader.apply(username);
+        }
+        UserResponse cached = local.getIfPresent(username);
+        if (cached != null) {
+            return cached;
+        }
+
+        return loads.load(username, name -> readThrough(name, loader));
+    }
+
+    /**
+     * Evicts the given usernames everywhere. Inside a transaction the eviction waits for
+     * the commit, so no replica can re-cache the old row in between.
+     */
+    public void evict(String... usernames) {
+        List<String> keys = Arrays.stream(usernames).filter(Objects::nonNull).distinct().toList();
+        if (!properties.isEnabled() || keys.isEmpty()) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    evictNow(keys);
+                }
+            });
+        } else {
+            evictNow(keys);
+        }
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String username = new String(message.getBody(), StandardCharsets.UTF_8);
+        evictedAt.put(username, System.nanoTime());
+        local.invalidate(username);
+        loads.invalidate(username);
+    }
+
+    private void evictNow(List<String> usernames) {
+        long now = System.nanoTime();
+        usernames.forEach(username -> evictedAt.put(username, now));
+        local.invalidateAll(usernames);
+        loads.invalidate(usernames);
+        try {
+            for (String username : usernames) {
+                // a tombstone rather than a delete, so a load already running cannot write the old row back
+                redisTemplate.opsForValue().set(KEY_PREFIX + username, TOMBSTONE, properties.getTombstoneTtl());
+                redisTemplate.convertAndSend(EVICT_CHANNEL, username);
+            }
+        } catch (RuntimeException e) {
+            // the local TTL bounds how long other replicas can serve the old profile
+            log.warn("Could not evict {} from the shared profile cache: {}", usernames, e.getMessage());
+        }
+        meterRegistry.counter("user.profile.cache.evictions").increment(usernames.size());
+    }
+
+    private UserResponse readThrough(String username, Function<String, UserResponse> loader) {
+        long started = System.nanoTime();
+        UserResponse shared = readRedis(username);
+        if (shared != null) {
+            cacheLocally(username, shared, started);
+            return shared;
+        }
+        UserResponse loaded = loader.apply(username);
+        if (!evictedSince(username, started)) {
+            writeRedis(username, loaded);
+        }
+        cacheLocally(username, loaded, started);
+        return loaded;
+    }
+
+    private void cacheLocally(String username, UserResponse profile, long started) {
+        if (!evictedSince(username, started)) {
+            local.put(username, profile);
+        }
+    }
+
+    private boolean evictedSince(String username, long started) {
+        Long at = evictedAt.getIfPresent(username);
+        return at != null && at - started >= 0;
+    }
+
+    private UserResponse readRedis(String username) {
+        try {
+            String json = redisTemplate.opsForValue().get(KEY_PREFIX + username);
+            boolean hit = json != null && !TOMBSTONE.equals(json);
+            meterRegistry.counter("user.profile.cache.redis", "result", hit ? "hit" : "miss").increment();
+            return hit ? objectMapper.readValue(json, UserResponse.class) : null;
+        } catch (JsonProcessingException | RuntimeException e) {
+            log.warn("Shared profile cache read failed for {}: {}", username, e.getMessage());
+            return null;
+        }
+    }
+
+    private void writeRedis(String username, UserResponse profile) {
+        try {
+            // NX: a tombstone written since the load started wins
+            redisTemplate.opsForValue().setIfAbsent(KEY_PREFIX + username,
+                    objectMapper.writeValueAsString(profile), properties.getRedisTtl());
+        } catch (JsonProcessingException | RuntimeException e) {
+            log.warn("Shared profile cache write failed for {}: {}", username, e.getMessage());
+        }
+    }
+}
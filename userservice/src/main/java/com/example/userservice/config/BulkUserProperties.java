@@ -0,0 +1,30 @@
+package com.example.userservice.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Data
+@ConfigurationProperties(prefix = "user.bulk")
+public class BulkUserProperties {
+
+    /**
+     * Value callers must send in the X-Admin-Token header. While empty the import and
+     * export endpoints refuse every request.
+     */
+    private String adminToken;
+
+    /**
+     * Rows hashed, checked and inserted together, each chunk in its own transaction.
+     */
+    private int chunkSize = 1000;
+
+    /**
+     * Threads hashing imported passwords; 0 means half the available CPUs.
+     */
+    private int hashThreads = 0;
+
+    /**
+     * Rejected rows listed in the import report; the counts always cover every row.
+     */
+    private int maxReportedErrors = 100;
+}
@@ -0,0 +1,36 @@
+package com.example.userservice.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "user.existence-index")
+public class ExistenceIndexProperties {
+
+    /**
+     * When false every existence check goes straight to the database.
+     */
+    private boolean enabled = true;
+
+    /**
+     * Minimum capacity of each filter; rebuilds size up to twice the current row count.
+     */
+    private long expectedInsertions = 1_000_000;
+
+    /**
+     * Target false-positive probability at capacity.
+     */
+    private double fpp = 0.01;
+
+    /**
+     * How often the filters are rebuilt from the users table, which also drops deleted users.
+     */
+    private Duration rebuildInterval = Duration.ofHours(6);
+
+    /**
+     * Broadcast new usernames/emails over Redis pub/sub so every replica's filter stays current.
+     */
+    private boolean redisSync = true;
+}
@@ -0,0 +1,26 @@
+package com.example.userservice.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "notification.batch")
+public class NotificationBatchProperties {
+
+    /**
+     * How long the first OTP of a batch waits for others before the batch is posted.
+     */
+    private Duration window = Duration.ofMillis(10);
+
+    /**
+     * Largest batch posted in one request; a full batch is sent without waiting out the window.
+     */
+    private int maxSize = 100;
+
+    /**
+     * Single sends waiting for a batch beyond this are refused instead of queued.
+     */
+    private int queueCapacity = 1000;
+}
@@ -0,0 +1,20 @@
+package com.example.userservice.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Data
+@ConfigurationProperties(prefix = "user.otp")
+public class OtpProperties {
+
+    /**
+     * Digits per OTP, 4 to 9; codes keep leading zeros, so every OTP has exactly this length.
+     */
+    private int length = 6;
+
+    /**
+     * SecureRandom instances OTPs are drawn from, rounded up to a power of two; 0 means
+     * two per available CPU.
+     */
+    private int stripes = 0;
+}
@@ -0,0 +1,41 @@
+package com.example.userservice.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "user.otp-throttle")
+public class OtpThrottleProperties {
+
+    /**
+     * When false OTP sends and verification attempts are not limited.
+     */
+    private boolean enabled = true;
+
+    /**
+     * Minimum gap between two OTP sends to the same email.
+     */
+    private Duration cooldown = Duration.ofSeconds(60);
+
+    /**
+     * Length of the sliding window that {@link #maxSendsPerWindow} applies to.
+     */
+    private Duration window = Duration.ofHours(1);
+
+    /**
+     * OTP sends allowed per email within the window.
+     */
+    private int maxSendsPerWindow = 5;
+
+    /**
+     * Wrong OTPs accepted for an email before it is locked out; the OTP is burned then.
+     */
+    private int maxVerifyFailures = 5;
+
+    /**
+     * How long a locked out email can neither verify nor request a new OTP.
+     */
+    private Duration lockout = Duration.ofMinutes(15);
+}
@@ -0,0 +1,66 @@
+package com.example.userservice.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "notification.outbox")
+public class OutboxProperties {
+
+    /**
+     * When false the relay does not run; entries stay in the stream until it is turned back on.
+     */
+    private boolean enabled = true;
+
+    /**
+     * How entries reach notificationservice: HTTP posts by the relay in this service, or
+     * STREAM, where notificationservice consumes the stream itself and the relay stays off.
+     * Must be set to the same value on notificationservice.
+     */
+    private Transport transport = Transport.HTTP;
+
+    /**
+     * Redis stream holding OTP notifications that still have to be sent.
+     */
+    private String stream = "outbox:notification:otp";
+
+    /**
+     * Consumer group shared by the relays of all replicas.
+     */
+    private String group = "otp-relay";
+
+    /**
+     * Consumer group notificationservice reads the stream with under STREAM. The relay does
+     * not start while it is active, since each group deletes the entries it handles.
+     */
+    private String notifierGroup = "notification-workers";
+
+    /**
+     * Maximum entries read from the stream per round.
+     */
+    private int batchSize = 50;
+
+    /**
+     * How long a relay waits on an empty stream before checking for stale entries.
+     */
+    private Duration block = Duration.ofSeconds(2);
+
+    /**
+     * Entries left unacknowledged this long (crashed replica, failed delivery) are claimed and retried.
+     */
+    private Duration claimIdle = Duration.ofSeconds(30);
+
+    /**
+     * Entries older than this are dropped unsent; should match the OTP lifetime.
+     */
+    private Duration maxAge = Duration.ofMinutes(5);
+
+    /**
+     * Approximate cap on the stream length, protecting Redis memory while the notifier is down.
+     */
+    private long maxLength = 100_000;
+
+    public enum Transport { HTTP, STREAM }
+}
@@ -0,0 +1,31 @@
+package com.example.userservice.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "user.password")
+public class PasswordHashingProperties {
+
+    /**
+     * BCrypt log rounds for new hashes; existing hashes with a lower cost are rehashed on next use.
+     */
+    private int bcryptStrength = 10;
+
+    /**
+     * Threads dedicated to hashing; 0 means one per available CPU.
+     */
+    private int hashThreads = 0;
+
+    /**
+     * Hash requests allowed to wait for a thread before new ones are rejected.
+     */
+    private int queueCapacity = 200;
+
+    /**
+     * How long a request thread waits for its hash before giving up.
+     */
+    private Duration timeout = Duration.ofSeconds(5);
+}
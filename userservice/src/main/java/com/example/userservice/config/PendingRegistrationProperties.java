@@ -0,0 +1,21 @@
+package com.example.userservice.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Data
+@ConfigurationProperties(prefix = "user.pending-registration")
+public class PendingRegistrationProperties {
+
+    /**
+     * Format new pending registrations are written in; both formats are always read.
+     */
+    private Format format = Format.COMPACT;
+
+    public enum Format {
+        /** Version-tagged password hash and username; the email comes from the key. */
+        COMPACT,
+        /** The full request as JSON, readable by instances that predate the compact format. */
+        JSON
+    }
+}
@@ -0,0 +1,73 @@
+package com.example.userservice.config;
+
+import com.example.userservice.datasource.ReplicaDataSource;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The JDBC DataSource, declared here so read-only work can be routed to replicas; Boot
+ * still provides JPA and its transaction manager around it. spring.datasource.* and
+ * spring.datasource.hikari.* apply as usual.
+ */
+@Configuration
+@EnableConfigurationProperties(DataSourceProperties.class)
+public class PersistenceConfig {
+
+    // DataSourceProperties is enabled here too: Boot's DataSourceAutoConfiguration, which
+    // normally does it, backs off when user.reactive.enabled brings in R2DBC
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        return properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+
+    /**
+     * Connections are fetched on the first statement, once the transaction's read-only
+     * flag is known. With replicas enabled, {@code @Transactional(readOnly = true)} work
+     * then runs on them; everything else stays on the primary.
+     */
+    @Bean
+    @Primary
+    public DataSource dataSource(HikariDataSource primaryDataSource,
+                                 ObjectProvider<ReplicaDataSource> replicaDataSource) {
+        LazyConnectionDataSourceProxy dataSource = new LazyConnectionDataSourceProxy(primaryDataSource);
+        replicaDataSource.ifAvailable(dataSource::setReadOnlyDataSource);
+        return dataSource;
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "user.replicas", name = "enabled", havingValue = "true")
+    public ReplicaDataSource replicaDataSource(ReplicaProperties replicas, DataSourceProperties primary,
+                                               HikariDataSource primaryDataSource, MeterRegistry meterRegistry) {
+        List<ReplicaDataSource.Replica> pools = new ArrayList<>();
+        for (int i = 0; i < replicas.getUrls().size(); i++) {
+            HikariDataSource pool = new HikariDataSource();
+            pool.setPoolName(primaryDataSource.getPoolName() + "-replica-" + i);
+            pool.setJdbcUrl(replicas.getUrls().get(i));
+            pool.setUsername(replicas.getUsername() != null ? replicas.getUsername() : primary.determineUsername());
+            pool.setPassword(replicas.getPassword() != null ? replicas.getPassword() : primary.determinePassword());
+            pool.setMaximumPoolSize(replicas.getPoolSize());
+            pool.setConnectionTimeout(replicas.getConnectionTimeout().toMillis());
+            pool.setReadOnly(true);
+            // a replica that is down at startup is retried by the health check instead
+            pool.setInitializationFailTimeout(-1);
+            pool.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(meterRegistry));
+            pools.add(new ReplicaDataSource.Replica(pool.getPoolName(), pool));
+        }
+        return new ReplicaDataSource(pools, primaryDataSource, replicas.getMaxLag(), meterRegistry);
+    }
+}
@@ -0,0 +1,37 @@
+package com.example.userservice.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "user.profile-cache")
+public class ProfileCacheProperties {
+
+    /**
+     * When false profiles are always read from the database.
+     */
+    private boolean enabled = true;
+
+    /**
+     * Maximum number of profiles held in each replica's local cache.
+     */
+    private long localMaxSize = 10_000;
+
+    /**
+     * Upper bound on how long a replica serves a profile from memory.
+     */
+    private Duration localTtl = Duration.ofSeconds(60);
+
+    /**
+     * How long a profile stays in the shared Redis tier.
+     */
+    private Duration redisTtl = Duration.ofMinutes(10);
+
+    /**
+     * How long an eviction keeps loads that were already running from caching the old
+     * profile; must be longer than the slowest profile load.
+     */
+    private Duration tombstoneTtl = Duration.ofSeconds(30);
+}
@@ -0,0 +1,36 @@
+package com.example.userservice.config;
+
+import org.springframework.boot.autoconfigure.AutoConfigurationImportFilter;
+import org.springframework.boot.autoconfigure.AutoConfigurationMetadata;
+import org.springframework.context.EnvironmentAware;
+import org.springframework.core.env.Environment;
+
+/**
+ * Leaves Boot's R2DBC auto-configuration out unless {@code user.reactive.enabled} is set.
+ * An R2DBC ConnectionFactory makes Boot back off from its JDBC DataSource and JPA
+ * transaction manager, so the blocking service only gets them from Boot as long as R2DBC
+ * stays off; {@link ReactiveConfig} fills the gap when it is on.
+ */
+public class ReactiveAutoConfigurationFilter implements AutoConfigurationImportFilter, EnvironmentAware {
+    private static final String R2DBC = "org.springframework.boot.autoconfigure.r2dbc.";
+    private static final String DATA_R2DBC = "org.springframework.boot.autoconfigure.data.r2dbc.";
+
+    private Environment environment;
+
+    @Override
+    public void setEnvironment(Environment environment) {
+        this.environment = environment;
+    }
+
+    @Override
+    public boolean[] match(String[] autoConfigurationClasses, AutoConfigurationMetadata autoConfigurationMetadata) {
+        boolean reactive = environment.getProperty("user.reactive.enabled", Boolean.class, false);
+        boolean[] matches = new boolean[autoConfigurationClasses.length];
+        for (int i = 0; i < autoConfigurationClasses.length; i++) {
+            String candidate = autoConfigurationClasses[i];
+            matches[i] = reactive || candidate == null
+                    || !(candidate.startsWith(R2DBC) || candidate.startsWith(DATA_R2DBC));
+        }
+        return matches;
+    }
+}
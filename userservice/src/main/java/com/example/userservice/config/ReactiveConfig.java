@@ -0,0 +1,40 @@
+package com.example.userservice.config;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.transaction.TransactionManagerCustomizers;
+import org.springframework.cloud.client.loadbalancer.LoadBalanced;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.orm.jpa.JpaTransactionManager;
+import org.springframework.web.reactive.function.client.WebClient;
+
+/**
+ * Wiring for the reactive registration path. R2DBC itself is auto-configured only while
+ * this is enabled, see {@link ReactiveAutoConfigurationFilter}.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "user.reactive", name = "enabled", havingValue = "true")
+public class ReactiveConfig {
+
+    @Bean
+    @LoadBalanced
+    public WebClient.Builder loadBalancedWebClientBuilder() {
+        return WebClient.builder();
+    }
+
+    /**
+     * R2DBC registers a reactive transaction manager, which would otherwise suppress
+     * Boot's JPA one; {@code @Transactional} service methods keep running on JPA.
+     */
+    @Bean
+    @Primary
+    public JpaTransactionManager transactionManager(EntityManagerFactory entityManagerFactory,
+                                                    ObjectProvider<TransactionManagerCustomizers> customizers) {
+        JpaTransactionManager transactionManager = new JpaTransactionManager(entityManagerFactory);
+        customizers.ifAvailable(customizer -> customizer.customize(transactionManager));
+        return transactionManager;
+    }
+}
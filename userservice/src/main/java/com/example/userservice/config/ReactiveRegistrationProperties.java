@@ -0,0 +1,34 @@
+package com.example.userservice.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "user.reactive")
+public class ReactiveRegistrationProperties {
+
+    /**
+     * Exposes the non-blocking registration endpoints under /user/reactive.
+     */
+    private boolean enabled = false;
+
+    /**
+     * OUTBOX appends the OTP email to the Redis outbox like the blocking path; DIRECT posts
+     * it to notificationservice inline and reports a failure to the caller.
+     */
+    private Delivery delivery = Delivery.OUTBOX;
+
+    /**
+     * Base URL of notificationservice, resolved through the load balancer.
+     */
+    private String notificationUrl = "http://NOTIFICATION-SERVICE";
+
+    /**
+     * Upper bound on a single notification call, before retries.
+     */
+    private Duration notificationTimeout = Duration.ofSeconds(3);
+
+    public enum Delivery { OUTBOX, DIRECT }
+}
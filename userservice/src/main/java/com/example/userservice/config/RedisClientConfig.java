@@ -0,0 +1,87 @@
+package com.example.userservice.config;
+
+import com.example.userservice.redis.CommandTimeoutSource;
+import com.example.userservice.redis.RedisCommandMetrics;
+import com.example.userservice.redis.RedisConnectionEvents;
+import io.lettuce.core.ClientOptions;
+import io.lettuce.core.SocketOptions;
+import io.lettuce.core.TimeoutOptions;
+import io.lettuce.core.resource.ClientResources;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.data.redis.LettuceClientOptionsBuilderCustomizer;
+import org.springframework.boot.autoconfigure.data.redis.RedisProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+
+/**
+ * Lettuce settings for every Redis template in the service: per-command timeouts,
+ * failing fast while a connection is being re-established, TCP keep-alive, and command
+ * latency and connection event metrics. Pooling itself is Spring Boot's
+ * spring.data.redis.lettuce.pool.
+ */
+@Configuration
+public class RedisClientConfig {
+
+    @Bean
+    public LettuceClientOptionsBuilderCustomizer redisClientOptions(RedisClientProperties properties,
+                                                                    RedisProperties redisProperties) {
+        return builder -> {
+            SocketOptions.Builder socket = SocketOptions.builder().keepAlive(properties.isKeepAlive());
+            if (redisProperties.getConnectTimeout() != null) {
+                socket.connectTimeout(redisProperties.getConnectTimeout());
+            }
+            builder.socketOptions(socket.build())
+                    .autoReconnect(true)
+                    .disconnectedBehavior(properties.isRejectWhenDisconnected()
+                            ? ClientOptions.DisconnectedBehavior.REJECT_COMMANDS
+                            : ClientOptions.DisconnectedBehavior.ACCEPT_COMMANDS)
+                    .timeoutOptions(TimeoutOptions.builder()
+                            .timeoutCommands(true)
+                            .timeoutSource(new CommandTimeoutSource(properties.getCommandTimeout()))
+                            .build());
+        };
+    }
+
+    @Bean
+    public RedisCommandMetrics redisCommandMetrics(MeterRegistry meterRegistry, RedisClientProperties properties) {
+        return new RedisCommandMetrics(meterRegistry, properties.isLatencyHistogram());
+    }
+
+    @Bean
+    public RedisConnectionEvents redisConnectionEvents(ClientResources clientResources, MeterRegistry meterRegistry) {
+        return new RedisConnectionEvents(clientResources, meterRegistry);
+    }
+
+    /**
+     * Applies the connection sharing setting before the factory starts. Registers the
+     * command metrics with its client, and subscribes to connection events, before any
+     * connection is opened. Lettuce only attaches listeners to connections created after
+     * they were added.
+     */
+    @Bean
+    public static BeanPostProcessor lettuceConnectionFactoryPostProcessor(ObjectProvider<RedisClientProperties> properties,
+                                                                          ObjectProvider<RedisCommandMetrics> metrics,
+                                                                          ObjectProvider<RedisConnectionEvents> events) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessBeforeInitialization(Object bean, String beanName) {
+                if (bean instanceof LettuceConnectionFactory factory) {
+                    factory.setShareNativeConnection(properties.getObject().isShareNativeConnection());
+                }
+                return bean;
+            }
+
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof LettuceConnectionFactory factory && factory.getNativeClient() != null) {
+                    factory.getNativeClient().addListener(metrics.getObject());
+                    events.getObject();
+                }
+                return bean;
+            }
+        };
+    }
+}
@@ -0,0 +1,39 @@
+package com.example.userservice.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "user.redis")
+public class RedisClientProperties {
+
+    /**
+     * Timeout for each ordinary command. Blocking reads are bounded by spring.data.redis.timeout
+     * instead, which must stay above notification.outbox.block.
+     */
+    private Duration commandTimeout = Duration.ofMillis(500);
+
+    /**
+     * Fail commands at once while the connection is down and being re-established, instead
+     * of queueing them until they time out.
+     */
+    private boolean rejectWhenDisconnected = true;
+
+    /**
+     * TCP keep-alive on Redis connections, so half-open connections are noticed and reconnected.
+     */
+    private boolean keepAlive = true;
+
+    /**
+     * When false every operation borrows its own connection from the pool instead of sharing
+     * one multiplexed connection; needs spring.data.redis.lettuce.pool.enabled.
+     */
+    private boolean shareNativeConnection = true;
+
+    /**
+     * Publish percentile histogram buckets for user.redis.command, not just the percentiles.
+     */
+    private boolean latencyHistogram = true;
+}
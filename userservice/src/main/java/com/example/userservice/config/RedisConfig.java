@@ -0,0 +1,55 @@
+package com.example.userservice.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+@Slf4j
+@Configuration
+public class RedisConfig {
+    private static final long SUBSCRIBE_RETRY_MS = 5_000;
+
+    /**
+     * Shared pub/sub container used to keep per-replica in-memory state in sync.
+     * It is started once the application is up, so Redis being unreachable at boot
+     * does not stop the service from starting.
+     */
+    @Bean
+    public RedisMessageListenerContainer redisMessageListenerContainer(RedisConnectionFactory connectionFactory) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer() {
+            @Override
+            public boolean isAutoStartup() {
+                return false;
+            }
+        };
+        container.setConnectionFactory(connectionFactory);
+        return container;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void startListenerContainer(ApplicationReadyEvent event) {
+        RedisMessageListenerContainer container = event.getApplicationContext()
+                .getBean(RedisMessageListenerContainer.class);
+        Thread starter = new Thread(() -> {
+            while (!container.isRunning()) {
+                try {
+                    container.start();
+                } catch (RuntimeException e) {
+                    log.warn("Redis pub/sub unavailable, retrying in {} ms: {}", SUBSCRIBE_RETRY_MS, e.getMessage());
+                    try {
+                        Thread.sleep(SUBSCRIBE_RETRY_MS);
+                    } catch (InterruptedException interrupted) {
+                        Thread.currentThread().interrupt();
+                        return;
+                    }
+                }
+            }
+        }, "redis-subscriber-start");
+        starter.setDaemon(true);
+        starter.start();
+    }
+}
@@ -0,0 +1,51 @@
+package com.example.userservice.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@ConfigurationProperties(prefix = "user.replicas")
+public class ReplicaProperties {
+
+    /**
+     * When true, read-only transactions run on the replicas below.
+     */
+    private boolean enabled = false;
+
+    /**
+     * JDBC URLs of the Postgres streaming replicas.
+     */
+    private List<String> urls = new ArrayList<>();
+
+    /**
+     * Replica login; the primary's spring.datasource credentials when unset.
+     */
+    private String username;
+
+    private String password;
+
+    /**
+     * Connections per replica.
+     */
+    private int poolSize = 10;
+
+    /**
+     * How long a read waits for a replica connection before the next replica, and
+     * finally the primary, is tried.
+     */
+    private Duration connectionTimeout = Duration.ofSeconds(1);
+
+    /**
+     * Replication lag beyond which a replica stops receiving reads until it catches up.
+     */
+    private Duration maxLag = Duration.ofSeconds(5);
+
+    /**
+     * Interval between the health and lag checks of each replica.
+     */
+    private Duration checkInterval = Duration.ofSeconds(5);
+}
@@ -0,0 +1,27 @@
+package com.example.userservice.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "user.single-flight")
+public class SingleFlightProperties {
+
+    /**
+     * When false every lookup that misses the caches runs its own database query.
+     */
+    private boolean enabled = true;
+
+    /**
+     * How long a finished lookup keeps answering identical requests. Zero shares only
+     * lookups that are still running.
+     */
+    private Duration resultTtl = Duration.ofMillis(500);
+
+    /**
+     * Upper bound on the number of keys tracked at once, per lookup type.
+     */
+    private long maxKeys = 10_000;
+}
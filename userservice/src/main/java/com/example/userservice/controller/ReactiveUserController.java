@@ -0,0 +1,37 @@
+package com.example.userservice.controller;
+
+import com.example.userservice.dto.UserRequest;
+import com.example.userservice.dto.VerifyOtpRequest;
+import com.example.userservice.service.ReactiveUserService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Mono;
+
+/**
+ * Registration endpoints backed by {@link ReactiveUserService}. The request thread is
+ * released while Redis, Postgres or notificationservice are working on the request.
+ */
+@RestController
+@RequiredArgsConstructor
+@RequestMapping("/user/reactive")
+@ConditionalOnProperty(prefix = "user.reactive", name = "enabled", havingValue = "true")
+public class ReactiveUserController {
+    private final ReactiveUserService userService;
+
+    @PostMapping("/send-otp")
+    public Mono<ResponseEntity<String>> sendOtp(@RequestBody UserRequest userRequest) {
+        return userService.sendOtp(userRequest).map(ResponseEntity::ok);
+    }
+
+    @PostMapping("/verify-otp")
+    public Mono<ResponseEntity<String>> verifyOtp(@RequestBody VerifyOtpRequest request) {
+        return userService.verifyOtpAndRegister(request).map(ResponseEntity::ok);
+    }
+
+    @GetMapping("/check-username")
+    public Mono<ResponseEntity<Boolean>> isUsernameAvailable(@RequestParam String username) {
+        return userService.isUsernameAvailable(username).map(ResponseEntity::ok);
+    }
+}
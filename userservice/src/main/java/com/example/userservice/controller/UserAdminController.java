@@ -0,0 +1,88 @@
+package com.example.userservice.controller;
+
+import com.example.userservice.config.BulkUserProperties;
+import com.example.userservice.dto.ImportReport;
+import com.example.userservice.dto.UserPage;
+import com.example.userservice.service.BulkUserService;
+import com.example.userservice.service.UserService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.filter.ShallowEtagHeaderFilter;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+
+/**
+ * Endpoints for the admin console, all guarded by the X-Admin-Token header.
+ */
+@RestController
+@RequiredArgsConstructor
+@RequestMapping("/user")
+public class UserAdminController {
+    static final String TOKEN_HEADER = "X-Admin-Token";
+    static final String NDJSON = "application/x-ndjson";
+    static final String CSV = "text/csv";
+
+    private final BulkUserService bulkUserService;
+    private final UserService userService;
+    private final BulkUserProperties properties;
+
+    /**
+     * Imports users from a CSV (with a header row) or NDJSON body, read as it arrives.
+     */
+    @PostMapping(value = "/admin/import", consumes = {CSV, NDJSON})
+    public ResponseEntity<ImportReport> importUsers(@RequestHeader(value = TOKEN_HEADER, required = false) String token,
+                                                    HttpServletRequest request) throws IOException {
+        if (!authorized(token)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+        BulkUserService.Format format = BulkUserService.Format.fromMediaType(request.getContentType());
+        return ResponseEntity.ok(bulkUserService.importUsers(request.getInputStream(), format));
+    }
+
+    @GetMapping("/admin/export")
+    public void exportUsers(@RequestHeader(value = TOKEN_HEADER, required = false) String token,
+                            @RequestParam(defaultValue = "ndjson") String format,
+                            HttpServletRequest request,
+                            HttpServletResponse response) throws IOException {
+        if (!authorized(token)) {
+            response.setStatus(HttpStatus.FORBIDDEN.value());
+            return;
+        }
+        boolean csv = "csv".equalsIgnoreCase(format);
+        // the ETag filter would otherwise buffer the whole export to hash it
+        ShallowEtagHeaderFilter.disableContentCaching(request);
+        response.setContentType(csv ? CSV : NDJSON);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION,
+                "attachment; filename=\"users." + (csv ? "csv" : "ndjson") + "\"");
+        bulkUserService.exportUsers(response.getOutputStream(),
+                csv ? BulkUserService.Format.CSV : BulkUserService.Format.NDJSON);
+    }
+
+    /**
+     * One page of users, newest first. {@code q} filters by username or email prefix.
+     */
+    @GetMapping("/list")
+    public ResponseEntity<UserPage> listUsers(@RequestHeader(value = TOKEN_HEADER, required = false) String token,
+                                              @RequestParam(required = false) String after,
+                                              @RequestParam(defaultValue = "50") int size,
+                                              @RequestParam(required = false) String q) {
+        if (!authorized(token)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+        return ResponseEntity.ok(userService.listUsers(after, size, q));
+    }
+
+    private boolean authorized(String token) {
+        String expected = properties.getAdminToken();
+        return expected != null && !expected.isBlank() && token != null
+                && MessageDigest.isEqual(expected.getBytes(StandardCharsets.UTF_8), token.getBytes(StandardCharsets.UTF_8));
+    }
+}
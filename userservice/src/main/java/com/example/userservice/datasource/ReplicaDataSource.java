@@ -0,0 +1,162 @@
+package com.example.userservice.datasource;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.sql.SQLTransientConnectionException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Hands out connections to the read replicas in turn, skipping those that failed their
+ * last check or lag the primary by more than {@code maxLag}. Falls back to the primary
+ * when no replica is usable, so reads never fail because of a replica.
+ */
+@Slf4j
+public class ReplicaDataSource extends AbstractDataSource implements AutoCloseable {
+
+    // replay lag in seconds; an idle replica that has replayed all it received counts as 0
+    static final String LAG_QUERY = "select case when not pg_is_in_recovery() then 0"
+            + " when pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() then 0"
+            + " else coalesce(extract(epoch from now() - pg_last_xact_replay_timestamp()), 0) end";
+
+    private static final int CHECK_TIMEOUT_SECONDS = 2;
+
+    private final List<Replica> replicas;
+    private final DataSource primary;
+    private final Duration maxLag;
+    private final AtomicInteger next = new AtomicInteger();
+    private final Counter replicaConnections;
+    private final Counter primaryConnections;
+
+    public ReplicaDataSource(List<Replica> replicas, DataSource primary, Duration maxLag,
+                             MeterRegistry meterRegistry) {
+        this.replicas = List.copyOf(replicas);
+        this.primary = primary;
+        this.maxLag = maxLag;
+        this.replicaConnections = Counter.builder("user.db.read.connections")
+                .description("Connections handed out for read-only transactions")
+                .tag("target", "replica").register(meterRegistry);
+        this.primaryConnections = Counter.builder("user.db.read.connections")
+                .description("Connections handed out for read-only transactions")
+                .tag("target", "primary").register(meterRegistry);
+        for (Replica replica : this.replicas) {
+            Gauge.builder("user.db.replica.usable", replica, r -> r.usable ? 1 : 0)
+                    .tag("replica", replica.name).register(meterRegistry);
+            Gauge.builder("user.db.replica.lag", replica, r -> r.lagSeconds)
+                    .baseUnit("seconds").tag("replica", replica.name).register(meterRegistry);
+        }
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        int start = Math.floorMod(next.getAndIncrement(), Math.max(replicas.size(), 1));
+        for (int i = 0; i < replicas.size(); i++) {
+            Replica replica = replicas.get((start + i) % replicas.size());
+            if (!replica.usable) {
+                continue;
+            }
+            try {
+                Connection connection = replica.dataSource.getConnection();
+                replicaConnections.increment();
+                return connection;
+            } catch (SQLException e) {
+                if (isConnectionFailure(e)) {
+                    // out until the next check finds it healthy again
+                    replica.markDown(e);
+                }
+            }
+        }
+        primaryConnections.increment();
+        return primary.getConnection();
+    }
+
+    /**
+     * Hikari reports a pool that stayed busy for its whole connection timeout as a
+     * {@link SQLTransientConnectionException} without a cause; that replica is healthy,
+     * just saturated, so this read moves on without taking it out. When connections could
+     * not be opened or validated, Hikari attaches that failure as the cause.
+     */
+    static boolean isConnectionFailure(SQLException e) {
+        return !(e instanceof SQLTransientConnectionException) || e.getCause() != null;
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        throw new SQLFeatureNotSupportedException("Replica connections use the configured credentials");
+    }
+
+    /**
+     * Replicas start out unusable, so reads stay on the primary until the first check,
+     * which runs at startup.
+     */
+    @Scheduled(fixedDelayString = "${user.replicas.check-interval:PT5S}")
+    public void checkReplicas() {
+        for (Replica replica : replicas) {
+            replica.check(maxLag);
+        }
+    }
+
+    @Override
+    public void close() throws Exception {
+        for (Replica replica : replicas) {
+            if (replica.dataSource instanceof AutoCloseable closeable) {
+                closeable.close();
+            }
+        }
+    }
+
+    public static final class Replica {
+        private final String name;
+        private final DataSource dataSource;
+        private volatile boolean usable;
+        private volatile double lagSeconds;
+
+        public Replica(String name, DataSource dataSource) {
+            this.name = name;
+            this.dataSource = dataSource;
+        }
+
+        boolean isUsable() {
+            return usable;
+        }
+
+        void check(Duration maxLag) {
+            try (Connection connection = dataSource.getConnection();
+                 Statement statement = connection.createStatement()) {
+                statement.setQueryTimeout(CHECK_TIMEOUT_SECONDS);
+                try (ResultSet result = statement.executeQuery(LAG_QUERY)) {
+                    result.next();
+                    lagSeconds = result.getDouble(1);
+                }
+            } catch (SQLException e) {
+                markDown(e);
+                return;
+            }
+            boolean caughtUp = lagSeconds * 1000 <= maxLag.toMillis();
+            if (caughtUp != usable) {
+                log.info("Replica {} {} (lag {}s)", name, caughtUp ? "is serving reads" : "lags too far, reads go elsewhere",
+                        lagSeconds);
+            }
+            usable = caughtUp;
+        }
+
+        void markDown(SQLException e) {
+            if (usable) {
+                log.warn("Replica {} is unreachable, reads go elsewhere: {}", name, e.getMessage());
+            }
+            usable = false;
+        }
+    }
+}
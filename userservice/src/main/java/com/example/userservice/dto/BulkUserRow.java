@@ -0,0 +1,20 @@
+package com.example.userservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * One user in an import file. Either {@code password} (hashed during the import) or
+ * {@code passwordHash} (an existing BCrypt hash, bare or {@code {bcrypt}}-prefixed, stored
+ * as is) must be set. Rows with any other kind of hash are rejected as invalid.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkUserRow implements UserIdentityView {
+    private String username;
+    private String email;
+    private String password;
+    private String passwordHash;
+}
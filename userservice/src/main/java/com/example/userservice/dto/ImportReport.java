@@ -0,0 +1,19 @@
+package com.example.userservice.dto;
+
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+public class ImportReport {
+    private long received;
+    private long imported;
+    private long duplicates;
+    private long invalid;
+    /**
+     * False when the file could not be read to the end; chunks before the failure stay imported.
+     */
+    private boolean completed = true;
+    private List<String> errors = new ArrayList<>();
+}
@@ -11,4 +11,10 @@ public class OtpSendRequest {
     private String email;
     private String otp;
     private String purpose;
+    // lets the notifier drop repeats when the outbox relay redelivers
+    private String idempotencyKey;
+
+    public OtpSendRequest(String email, String otp, String purpose) {
+        this(email, otp, purpose, null);
+    }
 }
@@ -0,0 +1,25 @@
+package com.example.userservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class OtpSendResult {
+    private int index;
+    private Status status;
+    private String message;
+
+    public enum Status {
+        /** Queued for delivery by the notifier. */
+        ACCEPTED,
+        /** Already queued for this idempotency key. */
+        DUPLICATE,
+        /** The request itself is wrong; retrying will not help. */
+        INVALID,
+        /** The notifier's mail queue was full; retry later. */
+        REJECTED
+    }
+}
@@ -0,0 +1,37 @@
+package com.example.userservice.dto;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.UUID;
+
+/**
+ * Position after the last user of a page. Sent to clients as an opaque URL-safe string.
+ */
+public record UserCursor(LocalDateTime createdAt, UUID userid) {
+    private static final String SEPARATOR = "|";
+
+    public static UserCursor after(UserSummary user) {
+        return new UserCursor(user.getCreated_at(), user.getUserid());
+    }
+
+    public String encode() {
+        String raw = createdAt + SEPARATOR + userid;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @throws IllegalArgumentException when {@code token} was not produced by {@link #encode()}
+     */
+    public static UserCursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int separator = raw.indexOf(SEPARATOR);
+            return new UserCursor(LocalDateTime.parse(raw.substring(0, separator)),
+                    UUID.fromString(raw.substring(separator + 1)));
+        } catch (IllegalArgumentException | IndexOutOfBoundsException | DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid page cursor");
+        }
+    }
+}
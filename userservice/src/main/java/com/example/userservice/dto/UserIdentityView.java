@@ -0,0 +1,10 @@
+package com.example.userservice.dto;
+
+/**
+ * Projection with just the unique keys of a user, used to seed lookup indexes
+ * without hydrating full entities.
+ */
+public interface UserIdentityView {
+    String getUsername();
+    String getEmail();
+}
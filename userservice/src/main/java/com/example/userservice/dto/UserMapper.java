@@ -1,12 +1,24 @@
 package com.example.userservice.dto;
 
 import com.example.userservice.entity.User;
+import com.example.userservice.entity.UserRecord;
 import org.springframework.stereotype.Component;
 
 import java.time.LocalDateTime;
+import java.util.Locale;
+import java.util.UUID;
 
 @Component
 public class UserMapper {
+
+    /**
+     * Emails are unique regardless of case (see V2__add_users_lookup_indexes.sql), so every
+     * email entering the service is trimmed and lower-cased before it is checked or stored.
+     */
+    public static String normalizeEmail(String email) {
+        return email == null ? null : email.trim().toLowerCase(Locale.ROOT);
+    }
+
     public User toEntity(UserRequest dto) {
         User user = new User();
         user.setUsername(dto.getUsername());
@@ -16,6 +28,17 @@ public class UserMapper {
         return user;
     }
 
+    public UserRecord toRecord(UserRequest dto) {
+        UserRecord user = new UserRecord();
+        user.setUserid(UUID.randomUUID());
+        user.setUsername(dto.getUsername());
+        user.setEmail(dto.getEmail());
+        user.setPassword(dto.getPassword());
+        user.setCreated_at(LocalDateTime.now());
+        user.setUpdated_at(user.getCreated_at());
+        return user;
+    }
+
     public UserResponse toResponse(User user) {
         UserResponse dto = new UserResponse();
         dto.setUsername(user.getUsername());
@@ -0,0 +1,18 @@
+package com.example.userservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class UserPage {
+    private List<UserSummary> users;
+    /**
+     * Pass as {@code after} to get the next page; null on the last page.
+     */
+    private String nextCursor;
+}
@@ -7,4 +7,8 @@ public class UserRequest {
     private String username;
     private String email;
     private String password;
+
+    public void setEmail(String email) {
+        this.email = UserMapper.normalizeEmail(email);
+    }
 }
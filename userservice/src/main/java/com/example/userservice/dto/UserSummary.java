@@ -0,0 +1,24 @@
+package com.example.userservice.dto;
+
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * A user as listed and exported, without the password hash. Built straight from queries,
+ * so no {@link com.example.userservice.entity.User} entity is loaded.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@JsonPropertyOrder({"userid", "username", "email", "created_at"})
+public class UserSummary {
+    private UUID userid;
+    private String username;
+    private String email;
+    private LocalDateTime created_at;
+}
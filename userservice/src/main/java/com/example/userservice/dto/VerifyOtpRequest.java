@@ -7,4 +7,8 @@ public class VerifyOtpRequest {
     private String email;
     private String otp;
     private UserRequest user;
+
+    public void setEmail(String email) {
+        this.email = UserMapper.normalizeEmail(email);
+    }
 }
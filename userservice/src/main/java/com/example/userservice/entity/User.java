@@ -35,4 +35,4 @@ public class User {
     @UpdateTimestamp
     private LocalDateTime updated_at;
 
-}
\ No newline at end of file
+}
\ No newline at end of file
@@ -0,0 +1,43 @@
+package com.example.userservice.entity;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.domain.Persistable;
+import org.springframework.data.relational.core.mapping.Table;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * R2DBC mapping of the {@code users} table used by the reactive registration path. The
+ * schema is still owned by the JPA {@link User} entity.
+ */
+@Data
+@NoArgsConstructor
+@Table("users")
+public class UserRecord implements Persistable<UUID> {
+    @Id
+    private UUID userid;
+
+    private String username;
+
+    private String email;
+
+    private String password;
+
+    private LocalDateTime created_at;
+
+    private LocalDateTime updated_at;
+
+    @Override
+    public UUID getId() {
+        return userid;
+    }
+
+    // ids are assigned before saving and rows are only ever inserted through this type
+    @Override
+    public boolean isNew() {
+        return true;
+    }
+}
@@ -1,11 +1,14 @@
 package com.example.userservice.external.service;
 
 import com.example.userservice.dto.OtpSendRequest;
+import com.example.userservice.dto.OtpSendResult;
 import org.springframework.cloud.openfeign.FeignClient;
 import org.springframework.stereotype.Service;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 
+import java.util.List;
+
 @Service
 @FeignClient(name = "NOTIFICATION-SERVICE")
 public interface NotificationService {
@@ -13,4 +16,7 @@ public interface NotificationService {
     @PostMapping("/notification/otp")
     void sendOtp(@RequestBody OtpSendRequest request);
 
+    @PostMapping("/notification/otp/batch")
+    List<OtpSendResult> sendOtpBatch(@RequestBody List<OtpSendRequest> requests);
+
 }
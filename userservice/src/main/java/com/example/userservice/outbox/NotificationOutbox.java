@@ -0,0 +1,49 @@
+package com.example.userservice.outbox;
+
+import com.example.userservice.config.OutboxProperties;
+import com.example.userservice.dto.OtpSendRequest;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.redis.connection.RedisStreamCommands.XAddOptions;
+import org.springframework.data.redis.connection.stream.MapRecord;
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * Writes OTP notifications to a Redis stream. Callers append from inside the same
+ * MULTI/EXEC that stores the OTP, so an OTP is never issued without its notification
+ * and {@link OtpOutboxRelay} delivers it whenever the notifier is reachable.
+ */
+@Component
+@RequiredArgsConstructor
+public class NotificationOutbox {
+    static final String EMAIL = "email";
+    static final String OTP = "otp";
+    static final String PURPOSE = "purpose";
+    static final String IDEMPOTENCY_KEY = "idempotencyKey";
+
+    private final OutboxProperties properties;
+
+    public void append(RedisOperations<String, String> operations, OtpSendRequest request) {
+        operations.opsForStream().add(MapRecord.create(properties.getStream(), fields(request)),
+                XAddOptions.maxlen(properties.getMaxLength()).approximateTrimming(true));
+    }
+
+    /**
+     * The stream entry for a notification, for callers that write it themselves.
+     */
+    public static Map<String, String> fields(OtpSendRequest request) {
+        return Map.of(
+                EMAIL, request.getEmail(),
+                OTP, request.getOtp(),
+                PURPOSE, request.getPurpose(),
+                IDEMPOTENCY_KEY, request.getIdempotencyKey());
+    }
+
+    static OtpSendRequest toRequest(MapRecord<String, Object, Object> record) {
+        Map<Object, Object> fields = record.getValue();
+        return new OtpSendRequest((String) fields.get(EMAIL), (String) fields.get(OTP),
+                (String) fields.get(PURPOSE), (String) fields.get(IDEMPOTENCY_KEY));
+    }
+}
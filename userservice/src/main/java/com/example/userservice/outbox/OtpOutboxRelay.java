@@ -0,0 +1,242 @@
+package com.example.userservice.outbox;
+
+import com.example.userservice.config.OutboxProperties;
+import com.example.userservice.dto.OtpSendRequest;
+import com.example.userservice.dto.OtpSendResult;
+import com.example.userservice.service.NotificationCaller;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.Range;
+import org.springframework.data.redis.connection.stream.Consumer;
+import org.springframework.data.redis.connection.stream.MapRecord;
+import org.springframework.data.redis.connection.stream.PendingMessage;
+import org.springframework.data.redis.connection.stream.ReadOffset;
+import org.springframework.data.redis.connection.stream.RecordId;
+import org.springframework.data.redis.connection.stream.StreamInfo.XInfoConsumer;
+import org.springframework.data.redis.connection.stream.StreamInfo.XInfoConsumers;
+import org.springframework.data.redis.connection.stream.StreamOffset;
+import org.springframework.data.redis.connection.stream.StreamReadOptions;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.StreamOperations;
+import org.springframework.stereotype.Component;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Moves OTP notifications from the outbox stream to notificationservice. Every replica
+ * runs one relay in a shared consumer group; an entry is acknowledged and deleted only
+ * after the notifier reports it queued the mail, and entries left pending by a failed
+ * call or a crashed replica are claimed again after {@code claim-idle}. The notifier
+ * drops repeats by idempotency key. Its mail queue is in memory, so where delivery to
+ * the mail server must be confirmed use the STREAM transport instead.
+ */
+@Slf4j
+@Component
+public class OtpOutboxRelay {
+    private static final long ERROR_BACKOFF_MS = 1_000;
+
+    private final RedisTemplate<String, String> redisTemplate;
+    private final NotificationCaller notificationCaller;
+    private final OutboxProperties properties;
+    private final MeterRegistry meterRegistry;
+    private final Consumer consumer;
+    private final Timer lagTimer;
+
+    private volatile boolean running;
+    private boolean groupReady;
+    private long nextClaimAt;
+    private Thread worker;
+
+    public OtpOutboxRelay(RedisTemplate<String, String> redisTemplate,
+                          NotificationCaller notificationCaller,
+                          OutboxProperties properties,
+                          MeterRegistry meterRegistry) {
+        this.redisTemplate = redisTemplate;
+        this.notificationCaller = notificationCaller;
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+        this.consumer = Consumer.from(properties.getGroup(), ManagementFactory.getRuntimeMXBean().getName());
+        this.lagTimer = Timer.builder("notification.outbox.lag")
+                .description("Time from OTP issue to the notifier accepting it")
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!properties.isEnabled() || properties.getTransport() != OutboxProperties.Transport.HTTP) {
+            return;
+        }
+        checkNoNotifierConsumers();
+        running = true;
+        worker = new Thread(this::run, "otp-outbox-relay");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        if (worker != null) {
+            worker.join(properties.getBlock().toMillis() + ERROR_BACKOFF_MS);
+        }
+    }
+
+    private void run() {
+        while (running) {
+            try {
+                relayOnce();
+            } catch (RuntimeException e) {
+                groupReady = false;
+                log.warn("OTP outbox relay failed, retrying in {} ms: {}", ERROR_BACKOFF_MS, e.getMessage());
+                try {
+                    Thread.sleep(ERROR_BACKOFF_MS);
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * One relay round: retries stale entries when due, then blocks for new ones.
+     *
+     * @return number of entries acknowledged
+     */
+    int relayOnce() {
+        ensureGroup();
+        int relayed = 0;
+        long now = System.currentTimeMillis();
+        if (now >= nextClaimAt) {
+            nextClaimAt = now + properties.getClaimIdle().toMillis();
+            relayed += publish(claimStale());
+        }
+        return relayed + publish(readNew());
+    }
+
+    // the varargs array holds a single StreamOffset<String> and is only read by the driver
+    @SuppressWarnings("unchecked")
+    private List<MapRecord<String, Object, Object>> readNew() {
+        return stream().read(consumer,
+                StreamReadOptions.empty().count(properties.getBatchSize()).block(properties.getBlock()),
+                StreamOffset.create(properties.getStream(), ReadOffset.lastConsumed()));
+    }
+
+    /**
+     * Fails startup while notificationservice's consumer group has a consumer active
+     * within {@code claim-idle}: both would read and delete the same entries.
+     */
+    void checkNoNotifierConsumers() {
+        XInfoConsumers consumers;
+        try {
+            consumers = stream().consumers(properties.getStream(), properties.getNotifierGroup());
+        } catch (DataAccessException e) {
+            // no stream or consumer group yet, or Redis is down and the relay loop will retry
+            return;
+        }
+        for (XInfoConsumer notifier : consumers) {
+            if (notifier.idleTimeMs() < properties.getClaimIdle().toMillis()) {
+                throw new IllegalStateException("notificationservice consumer " + notifier.consumerName()
+                        + " is still reading " + properties.getStream()
+                        + "; set notification.outbox.transport=http on notificationservice too");
+            }
+        }
+    }
+
+    private void ensureGroup() {
+        if (groupReady) {
+            return;
+        }
+        try {
+            stream().createGroup(properties.getStream(), ReadOffset.from("0"), properties.getGroup());
+        } catch (DataAccessException e) {
+            // BUSYGROUP: another replica created it first
+            log.debug("Outbox consumer group not created: {}", e.getMessage());
+        }
+        groupReady = true;
+    }
+
+    private List<MapRecord<String, Object, Object>> claimStale() {
+        List<RecordId> stale = new ArrayList<>();
+        for (PendingMessage pending : stream().pending(properties.getStream(), properties.getGroup(),
+                Range.unbounded(), properties.getBatchSize())) {
+            if (pending.getElapsedTimeSinceLastDelivery().compareTo(properties.getClaimIdle()) >= 0) {
+                stale.add(pending.getId());
+            }
+        }
+        if (stale.isEmpty()) {
+            return List.of();
+        }
+        return stream().claim(properties.getStream(), properties.getGroup(), consumer.getName(),
+                properties.getClaimIdle(), stale.toArray(new RecordId[0]));
+    }
+
+    private int publish(List<MapRecord<String, Object, Object>> records) {
+        if (records == null || records.isEmpty()) {
+            return 0;
+        }
+        List<RecordId> done = new ArrayList<>(records.size());
+        List<MapRecord<String, Object, Object>> live = new ArrayList<>(records.size());
+        for (MapRecord<String, Object, Object> record : records) {
+            if (System.currentTimeMillis() - record.getId().getTimestamp() > properties.getMaxAge().toMillis()) {
+                // the OTP has expired, sending it now would only confuse the user
+                count("expired");
+                done.add(record.getId());
+            } else {
+                live.add(record);
+            }
+        }
+
+        if (!live.isEmpty()) {
+            try {
+                List<OtpSendRequest> requests = live.stream().map(NotificationOutbox::toRequest).toList();
+                List<OtpSendResult> results = notificationCaller.deliverBatch(requests);
+                for (int i = 0; i < live.size(); i++) {
+                    MapRecord<String, Object, Object> record = live.get(i);
+                    OtpSendResult result = results != null && i < results.size() ? results.get(i) : null;
+                    OtpSendResult.Status status = result == null ? null : result.getStatus();
+                    if (status == OtpSendResult.Status.ACCEPTED || status == OtpSendResult.Status.DUPLICATE) {
+                        count("relayed");
+                        lagTimer.record(System.currentTimeMillis() - record.getId().getTimestamp(), TimeUnit.MILLISECONDS);
+                    } else if (status == OtpSendResult.Status.INVALID) {
+                        count("invalid");
+                        log.error("Dropping OTP notification {}: {}", record.getId(), result.getMessage());
+                    } else {
+                        // not queued: stays pending and is claimed again after claim-idle
+                        count("failed");
+                        continue;
+                    }
+                    done.add(record.getId());
+                }
+            } catch (RuntimeException e) {
+                // the whole batch stays pending and is claimed again after claim-idle
+                meterRegistry.counter("notification.outbox.records", "result", "failed").increment(live.size());
+                log.warn("OTP notification batch of {} failed, left for retry: {}", live.size(), e.getMessage());
+            }
+        }
+        if (!done.isEmpty()) {
+            RecordId[] ids = done.toArray(new RecordId[0]);
+            stream().acknowledge(properties.getStream(), properties.getGroup(), ids);
+            // delivered entries hold OTPs, do not keep them around
+            stream().delete(properties.getStream(), ids);
+        }
+        return done.size();
+    }
+
+    private void count(String result) {
+        meterRegistry.counter("notification.outbox.records", "result", result).increment();
+    }
+
+    private StreamOperations<String, Object, Object> stream() {
+        return redisTemplate.opsForStream();
+    }
+}
@@ -0,0 +1,40 @@
+package com.example.userservice.redis;
+
+import io.lettuce.core.TimeoutOptions;
+import io.lettuce.core.protocol.CommandType;
+import io.lettuce.core.protocol.ProtocolKeyword;
+import io.lettuce.core.protocol.RedisCommand;
+
+import java.time.Duration;
+import java.util.EnumSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Gives every Redis command a short timeout except those that block on purpose. Those
+ * get none here and are only bounded by the caller's wait, which is spring.data.redis.timeout
+ * for the templates.
+ */
+public class CommandTimeoutSource extends TimeoutOptions.TimeoutSource {
+    static final Set<CommandType> BLOCKING = EnumSet.of(CommandType.BLPOP, CommandType.BRPOP,
+            CommandType.BRPOPLPUSH, CommandType.BLMOVE, CommandType.BLMPOP, CommandType.BZPOPMIN,
+            CommandType.BZPOPMAX, CommandType.BZMPOP, CommandType.XREAD, CommandType.XREADGROUP, CommandType.WAIT);
+
+    private final long timeoutNanos;
+
+    public CommandTimeoutSource(Duration timeout) {
+        this.timeoutNanos = timeout.toNanos();
+    }
+
+    @Override
+    public long getTimeout(RedisCommand<?, ?, ?> command) {
+        ProtocolKeyword type = command.getType();
+        // 0 leaves the command without a timer
+        return type instanceof CommandType commandType && BLOCKING.contains(commandType) ? 0 : timeoutNanos;
+    }
+
+    @Override
+    public TimeUnit getTimeUnit() {
+        return TimeUnit.NANOSECONDS;
+    }
+}
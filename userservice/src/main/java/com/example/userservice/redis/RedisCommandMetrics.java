@@ -0,0 +1,124 @@
+package com.example.userservice.redis;
+
+import com.example.userservice.service.OtpService;
+import io.lettuce.core.RedisCommandTimeoutException;
+import io.lettuce.core.event.command.CommandBaseEvent;
+import io.lettuce.core.event.command.CommandFailedEvent;
+import io.lettuce.core.event.command.CommandListener;
+import io.lettuce.core.event.command.CommandStartedEvent;
+import io.lettuce.core.event.command.CommandSucceededEvent;
+import io.lettuce.core.protocol.CommandArgs;
+import io.lettuce.core.protocol.CommandType;
+import io.lettuce.core.protocol.ProtocolKeyword;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Times every command the Redis client sends as {@code user.redis.command}, tagged with the
+ * command, the keyspace of its first key and the outcome. That separates OTP and
+ * pending-registration traffic from the rest, and timed-out commands show up next to
+ * the successful ones.
+ */
+public class RedisCommandMetrics implements CommandListener {
+    static final String METRIC = "user.redis.command";
+    private static final String STARTED = RedisCommandMetrics.class.getName() + ".started";
+
+    enum Keyspace {
+        OTP(OtpService.OTP_KEY_PREFIX),
+        PENDING(OtpService.PENDING_USER_KEY_PREFIX),
+        THROTTLE("otp:"), // OtpThrottle's cooldown, send-window and failure counters
+        OTHER("");
+
+        private final byte[] prefix;
+        private final String tag;
+
+        Keyspace(String prefix) {
+            this.prefix = prefix.getBytes(StandardCharsets.US_ASCII);
+            this.tag = name().toLowerCase();
+        }
+
+        static Keyspace of(ByteBuffer key) {
+            if (key == null) {
+                return OTHER;
+            }
+            for (Keyspace keyspace : values()) {
+                if (keyspace != OTHER && keyspace.matches(key)) {
+                    return keyspace;
+                }
+            }
+            return OTHER;
+        }
+
+        private boolean matches(ByteBuffer key) {
+            if (key.remaining() < prefix.length) {
+                return false;
+            }
+            for (int i = 0; i < prefix.length; i++) {
+                if (key.get(key.position() + i) != prefix[i]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    private record TimerKey(String command, Keyspace keyspace, String outcome) {
+    }
+
+    private final MeterRegistry meterRegistry;
+    private final boolean histogram;
+    private final Map<TimerKey, Timer> timers = new ConcurrentHashMap<>();
+
+    public RedisCommandMetrics(MeterRegistry meterRegistry, boolean histogram) {
+        this.meterRegistry = meterRegistry;
+        this.histogram = histogram;
+    }
+
+    @Override
+    public void commandStarted(CommandStartedEvent event) {
+        // Lettuce's own event timestamps only have millisecond resolution
+        event.getContext().put(STARTED, System.nanoTime());
+    }
+
+    @Override
+    public void commandSucceeded(CommandSucceededEvent event) {
+        record(event, "success");
+    }
+
+    @Override
+    public void commandFailed(CommandFailedEvent event) {
+        record(event, event.getCause() instanceof RedisCommandTimeoutException ? "timeout" : "error");
+    }
+
+    private void record(CommandBaseEvent event, String outcome) {
+        if (event.getContext().get(STARTED) instanceof Long started) {
+            timer(event, outcome).record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private Timer timer(CommandBaseEvent event, String outcome) {
+        CommandArgs<Object, Object> args = event.getCommand().getArgs();
+        TimerKey key = new TimerKey(commandName(event.getCommand().getType()),
+                Keyspace.of(args != null ? args.getFirstEncodedKey() : null), outcome);
+        return timers.computeIfAbsent(key, k -> Timer.builder(METRIC)
+                .description("Redis command latency as seen by the client, including timeouts and errors")
+                .tag("command", k.command())
+                .tag("keyspace", k.keyspace().tag)
+                .tag("outcome", k.outcome())
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .publishPercentileHistogram(histogram)
+                .register(meterRegistry));
+    }
+
+    private static String commandName(ProtocolKeyword type) {
+        return type instanceof CommandType commandType
+                ? commandType.name()
+                : new String(type.getBytes(), StandardCharsets.US_ASCII);
+    }
+}
@@ -0,0 +1,75 @@
+package com.example.userservice.redis;
+
+import io.lettuce.core.cluster.event.ClusterTopologyChangedEvent;
+import io.lettuce.core.event.Event;
+import io.lettuce.core.event.connection.ConnectionActivatedEvent;
+import io.lettuce.core.event.connection.ConnectionDeactivatedEvent;
+import io.lettuce.core.event.connection.ReconnectFailedEvent;
+import io.lettuce.core.resource.ClientResources;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.Disposable;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Turns the Redis client's connection events into metrics and log lines: lost and
+ * re-established connections, failed reconnect attempts and cluster topology changes.
+ * The client reconnects by itself; this only makes the hiccups visible.
+ */
+@Slf4j
+public class RedisConnectionEvents {
+    static final String EVENTS_METRIC = "user.redis.connection.events";
+    static final String ACTIVE_METRIC = "user.redis.connections.active";
+
+    private final AtomicInteger active = new AtomicInteger();
+    private final Counter activated;
+    private final Counter deactivated;
+    private final Counter reconnectFailed;
+    private final Counter topologyChanged;
+    private final Disposable subscription;
+
+    public RedisConnectionEvents(ClientResources clientResources, MeterRegistry meterRegistry) {
+        this.activated = counter(meterRegistry, "activated");
+        this.deactivated = counter(meterRegistry, "deactivated");
+        this.reconnectFailed = counter(meterRegistry, "reconnect-failed");
+        this.topologyChanged = counter(meterRegistry, "topology-changed");
+        Gauge.builder(ACTIVE_METRIC, active, AtomicInteger::get)
+                .description("Open Redis connections that are ready for commands")
+                .register(meterRegistry);
+        this.subscription = clientResources.eventBus().get().subscribe(this::onEvent);
+    }
+
+    void onEvent(Event event) {
+        if (event instanceof ConnectionActivatedEvent) {
+            active.incrementAndGet();
+            activated.increment();
+        } else if (event instanceof ConnectionDeactivatedEvent deactivation) {
+            active.updateAndGet(count -> Math.max(count - 1, 0));
+            deactivated.increment();
+            log.warn("Redis connection to {} lost, reconnecting", deactivation.remoteAddress());
+        } else if (event instanceof ReconnectFailedEvent failure) {
+            reconnectFailed.increment();
+            log.warn("Reconnect attempt {} to Redis at {} failed: {}", failure.getAttempt(), failure.remoteAddress(),
+                    failure.getCause().getMessage());
+        } else if (event instanceof ClusterTopologyChangedEvent change) {
+            topologyChanged.increment();
+            log.info("Redis cluster topology changed from {} to {} nodes", change.before().size(), change.after().size());
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        subscription.dispose();
+    }
+
+    private static Counter counter(MeterRegistry meterRegistry, String event) {
+        return Counter.builder(EVENTS_METRIC)
+                .description("Redis client connection events")
+                .tag("event", event)
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,17 @@
+package com.example.userservice.repository;
+
+import com.example.userservice.entity.UserRecord;
+import org.springframework.data.r2dbc.repository.Query;
+import org.springframework.data.r2dbc.repository.R2dbcRepository;
+import reactor.core.publisher.Mono;
+
+import java.util.UUID;
+
+public interface ReactiveUserRepository extends R2dbcRepository<UserRecord, UUID> {
+
+    // case-insensitive like the unique index, which this lookup is served by
+    @Query("select exists (select 1 from users where lower(email) = lower(:email))")
+    Mono<Boolean> existsByEmail(String email);
+
+    Mono<Boolean> existsByUsername(String username);
+}
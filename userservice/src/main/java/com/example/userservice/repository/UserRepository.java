@@ -1,16 +1,73 @@
 package com.example.userservice.repository;
 
+import com.example.userservice.dto.UserIdentityView;
+import com.example.userservice.dto.UserSummary;
 import com.example.userservice.entity.User;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
+import java.util.List;
+import java.time.LocalDateTime;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.stream.Stream;
 
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+
+// the queries declared here run read-only, on a replica when enabled; inherited writes such
+// as save and deleteById keep their read-write transactions, and so does anything called
+// from a read-write service transaction
+@Transactional(readOnly = true)
 public interface UserRepository extends JpaRepository<User, UUID> {
 
-    boolean existsByEmail(String email);
+    // case-insensitive like the unique index, which this lookup is served by
+    @Query("select count(u) > 0 from User u where lower(u.email) = lower(:email)")
+    boolean existsByEmail(@Param("email") String email);
 
     boolean existsByUsername(String username);
 
     Optional<User> findByUsername(String username);
+
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "1000"))
+    @Query("select u.username as username, u.email as email from User u")
+    Stream<UserIdentityView> streamAllIdentities();
+
+    @Query("select u.username as username, u.email as email from User u "
+            + "where u.username in :usernames or lower(u.email) in :emails")
+    List<UserIdentityView> findIdentities(@Param("usernames") Collection<String> usernames,
+                                          @Param("emails") Collection<String> emails);
+
+    // DTOs are not managed, so the persistence context stays empty however many rows stream by
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "1000"))
+    @Query("select new com.example.userservice.dto.UserSummary(u.userid, u.username, u.email, u.created_at) "
+            + "from User u")
+    Stream<UserSummary> streamAllForExport();
+
+    // keyset pages, newest first: each page seeks past the last (created_at, userid) of the
+    // previous one, so deep pages cost the same as the first
+    String SUMMARY = "select new com.example.userservice.dto.UserSummary(u.userid, u.username, u.email, u.created_at) "
+            + "from User u ";
+    String AFTER = "(u.created_at < :createdAt or (u.created_at = :createdAt and u.userid < :userid)) ";
+    String PREFIX = "(lower(u.username) like :prefix escape '\\' or lower(u.email) like :prefix escape '\\') ";
+    String NEWEST_FIRST = "order by u.created_at desc, u.userid desc";
+
+    @Query(SUMMARY + NEWEST_FIRST)
+    List<UserSummary> findPage(Limit limit);
+
+    @Query(SUMMARY + "where " + AFTER + NEWEST_FIRST)
+    List<UserSummary> findPageAfter(@Param("createdAt") LocalDateTime createdAt, @Param("userid") UUID userid,
+                                    Limit limit);
+
+    @Query(SUMMARY + "where " + PREFIX + NEWEST_FIRST)
+    List<UserSummary> searchPage(@Param("prefix") String prefix, Limit limit);
+
+    @Query(SUMMARY + "where " + PREFIX + "and " + AFTER + NEWEST_FIRST)
+    List<UserSummary> searchPageAfter(@Param("prefix") String prefix, @Param("createdAt") LocalDateTime createdAt,
+                                      @Param("userid") UUID userid, Limit limit);
 }
@@ -0,0 +1,365 @@
+package com.example.userservice.service;
+
+import com.example.userservice.cache.UserExistenceIndex;
+import com.example.userservice.config.BulkUserProperties;
+import com.example.userservice.dto.BulkUserRow;
+import com.example.userservice.dto.ImportReport;
+import com.example.userservice.dto.UserIdentityView;
+import com.example.userservice.dto.UserMapper;
+import com.example.userservice.dto.UserSummary;
+import com.example.userservice.repository.UserRepository;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.RuntimeJsonMappingException;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.csv.CsvMapper;
+import com.fasterxml.jackson.dataformat.csv.CsvSchema;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Admin bulk import and export of users. Imports are read as a stream and handled in
+ * chunks: passwords are hashed on a pool of their own, rows clashing with existing users
+ * are found with one query per chunk, and the rest go in as one multi-row insert. Exports are
+ * written straight from a database cursor, so memory use does not grow with the table.
+ */
+@Slf4j
+@Service
+public class BulkUserService {
+    // ids are generated here like Hibernate's UUID generator would, so no row needs a round
+    // trip; the conflict clause covers users that sign up while the import runs, and the ids
+    // it returns are the rows that actually went in
+    static final String INSERT_SQL = "insert into users (userid, username, email, password, created_at, updated_at) "
+            + "values %s on conflict do nothing returning userid";
+    private static final String INSERT_ROW = "(?, ?, ?, ?, ?, ?)";
+    // keeps one statement under the driver's limit of 32767 bind parameters
+    static final int MAX_ROWS_PER_INSERT = 5000;
+    // a BCrypt hash, bare as older rows store it or with the {bcrypt} prefix the encoder writes now
+    private static final Pattern BCRYPT_HASH = Pattern.compile("(\\{bcrypt})?\\$2[aby]\\$\\d{2}\\$[./A-Za-z0-9]{53}");
+
+    public enum Format {
+        CSV, NDJSON;
+
+        public static Format fromMediaType(String contentType) {
+            return contentType != null && contentType.toLowerCase(Locale.ROOT).startsWith("text/csv") ? CSV : NDJSON;
+        }
+    }
+
+    private record Candidate(long row, BulkUserRow user) {
+    }
+
+    private record Prepared(UUID id, Candidate candidate, String passwordHash) {
+    }
+
+    private final UserRepository userRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final PasswordEncoder passwordEncoder;
+    private final UserExistenceIndex existenceIndex;
+    private final BulkUserProperties properties;
+    private final MeterRegistry meterRegistry;
+    private final TransactionTemplate tx;
+    private final TransactionTemplate readOnlyTx;
+    private final ObjectMapper objectMapper;
+    private final CsvMapper csvMapper;
+    private final ExecutorService hashPool;
+
+    public BulkUserService(UserRepository userRepository,
+                           JdbcTemplate jdbcTemplate,
+                           PasswordEncoder passwordEncoder,
+                           UserExistenceIndex existenceIndex,
+                           ObjectMapper objectMapper,
+                           PlatformTransactionManager transactionManager,
+                           BulkUserProperties properties,
+                           MeterRegistry meterRegistry) {
+        this.userRepository = userRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.passwordEncoder = passwordEncoder;
+        this.existenceIndex = existenceIndex;
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+        this.tx = new TransactionTemplate(transactionManager);
+        this.readOnlyTx = new TransactionTemplate(transactionManager);
+        this.readOnlyTx.setReadOnly(true);
+        this.objectMapper = objectMapper;
+        this.csvMapper = CsvMapper.builder()
+                .addModule(new JavaTimeModule())
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES)
+                .build();
+
+        // half the CPUs by default, so signups still get their hashes done during an import
+        int threads = properties.getHashThreads() > 0
+                ? properties.getHashThreads()
+                : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        AtomicInteger counter = new AtomicInteger();
+        this.hashPool = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "bulk-hash-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Imports every user in {@code in}. Each chunk is committed on its own; a file that
+     * stops being readable halfway leaves the chunks before that point imported and is
+     * reported as not completed.
+     */
+    public ImportReport importUsers(InputStream in, Format format) {
+        ImportReport report = new ImportReport();
+        List<Candidate> chunk = new ArrayList<>(properties.getChunkSize());
+        try (MappingIterator<BulkUserRow> rows = reader(format).readValues(in)) {
+            while (rows.hasNextValue()) {
+                chunk.add(new Candidate(report.getReceived() + 1, rows.nextValue()));
+                report.setReceived(report.getReceived() + 1);
+                if (chunk.size() >= properties.getChunkSize() && !importChunk(chunk, report)) {
+                    return report;
+                }
+            }
+        } catch (IOException | RuntimeJsonMappingException e) {
+            report.setCompleted(false);
+            error(report, "row " + (report.getReceived() + 1) + ": unreadable, import stopped (" + e.getMessage() + ")");
+        }
+        if (!chunk.isEmpty()) {
+            importChunk(chunk, report);
+        }
+        log.info("Bulk import finished: {} received, {} imported, {} duplicates, {} invalid",
+                report.getReceived(), report.getImported(), report.getDuplicates(), report.getInvalid());
+        return report;
+    }
+
+    /**
+     * Writes every user to {@code out}, without password hashes.
+     */
+    public void exportUsers(OutputStream out, Format format) {
+        readOnlyTx.executeWithoutResult(status -> {
+            try (Stream<UserSummary> users = userRepository.streamAllForExport();
+                 SequenceWriter writer = writer(format).writeValues(out)) {
+                Iterator<UserSummary> iterator = users.iterator();
+                while (iterator.hasNext()) {
+                    writer.write(iterator.next());
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException("Export aborted, the client may have disconnected", e);
+            }
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        hashPool.shutdownNow();
+    }
+
+    /**
+     * Imports and clears the chunk. Returns false, with the report marked as not completed,
+     * when the database failed and the import should stop.
+     */
+    private boolean importChunk(List<Candidate> chunk, ImportReport report) {
+        try {
+            insertChunk(chunk, report);
+            return true;
+        } catch (DataAccessException | IllegalStateException e) {
+            log.warn("Bulk import stopped at row {}: {}", chunk.get(0).row(), e.getMessage());
+            report.setCompleted(false);
+            error(report, "rows " + chunk.get(0).row() + "-" + chunk.get(chunk.size() - 1).row()
+                    + ": not imported, import stopped (" + e.getMessage() + ")");
+            return false;
+        } finally {
+            chunk.clear();
+        }
+    }
+
+    private void insertChunk(List<Candidate> chunk, ImportReport report) {
+        List<Candidate> valid = new ArrayList<>(chunk.size());
+        Set<String> usernames = new HashSet<>();
+        Set<String> emails = new HashSet<>();
+        for (Candidate candidate : chunk) {
+            String problem = validate(candidate.user());
+            if (problem != null) {
+                report.setInvalid(report.getInvalid() + 1);
+                meterRegistry.counter("user.bulk.import.rows", "result", "invalid").increment();
+                error(report, "row " + candidate.row() + ": " + problem);
+            } else if (usernames.contains(candidate.user().getUsername())
+                    || emails.contains(candidate.user().getEmail())) {
+                duplicate(report, candidate, "repeats an earlier row");
+            } else {
+                usernames.add(candidate.user().getUsername());
+                emails.add(candidate.user().getEmail());
+                valid.add(candidate);
+            }
+        }
+        if (valid.isEmpty()) {
+            return;
+        }
+
+        Set<String> takenUsernames = new HashSet<>();
+        Set<String> takenEmails = new HashSet<>();
+        for (UserIdentityView existing : userRepository.findIdentities(usernames, emails)) {
+            takenUsernames.add(existing.getUsername());
+            takenEmails.add(UserMapper.normalizeEmail(existing.getEmail()));
+        }
+        List<Candidate> fresh = new ArrayList<>(valid.size());
+        for (Candidate candidate : valid) {
+            if (takenUsernames.contains(candidate.user().getUsername())
+                    || takenEmails.contains(candidate.user().getEmail())) {
+                duplicate(report, candidate, "username or email already registered");
+            } else {
+                fresh.add(candidate);
+            }
+        }
+        if (fresh.isEmpty()) {
+            return;
+        }
+
+        List<BulkUserRow> inserted = insert(hash(fresh), report);
+        report.setImported(report.getImported() + inserted.size());
+        meterRegistry.counter("user.bulk.import.rows", "result", "imported").increment(inserted.size());
+        existenceIndex.recordUsers(inserted);
+    }
+
+    private List<BulkUserRow> insert(List<Prepared> fresh, ImportReport report) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        Set<UUID> ids = tx.execute(status -> {
+            Set<UUID> returned = new HashSet<>();
+            for (int from = 0; from < fresh.size(); from += MAX_ROWS_PER_INSERT) {
+                List<Prepared> rows = fresh.subList(from, Math.min(from + MAX_ROWS_PER_INSERT, fresh.size()));
+                List<Object> args = new ArrayList<>(rows.size() * 6);
+                for (Prepared prepared : rows) {
+                    args.add(prepared.id());
+                    args.add(prepared.candidate().user().getUsername());
+                    args.add(prepared.candidate().user().getEmail());
+                    args.add(prepared.passwordHash());
+                    args.add(now);
+                    args.add(now);
+                }
+                returned.addAll(jdbcTemplate.queryForList(insertSql(rows.size()), UUID.class, args.toArray()));
+            }
+            return returned;
+        });
+
+        List<BulkUserRow> inserted = new ArrayList<>(fresh.size());
+        for (Prepared prepared : fresh) {
+            if (ids.contains(prepared.id())) {
+                inserted.add(prepared.candidate().user());
+            } else {
+                duplicate(report, prepared.candidate(), "username or email already registered");
+            }
+        }
+        return inserted;
+    }
+
+    static String insertSql(int rows) {
+        return INSERT_SQL.formatted(String.join(", ", Collections.nCopies(rows, INSERT_ROW)));
+    }
+
+    private List<Prepared> hash(List<Candidate> fresh) {
+        List<Callable<String>> tasks = fresh.stream()
+                .map(Candidate::user)
+                .<Callable<String>>map(user -> () -> hasText(user.getPasswordHash())
+                        ? user.getPasswordHash()
+                        : passwordEncoder.encode(user.getPassword()))
+                .toList();
+        try {
+            List<Future<String>> hashes = hashPool.invokeAll(tasks);
+            List<Prepared> prepared = new ArrayList<>(fresh.size());
+            for (int i = 0; i < fresh.size(); i++) {
+                prepared.add(new Prepared(UUID.randomUUID(), fresh.get(i), hashes.get(i).get()));
+            }
+            return prepared;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while hashing imported passwords", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Hashing an imported password failed", e.getCause());
+        }
+    }
+
+    // trims (and lower-cases the email) in place, so the checks and the insert see the same values
+    private static String validate(BulkUserRow user) {
+        user.setUsername(trim(user.getUsername()));
+        user.setEmail(UserMapper.normalizeEmail(user.getEmail()));
+        if (!hasText(user.getUsername())) {
+            return "username is missing";
+        }
+        if (!hasText(user.getEmail()) || !user.getEmail().contains("@")) {
+            return "email is missing or malformed";
+        }
+        if (!hasText(user.getPassword()) && !hasText(user.getPasswordHash())) {
+            return "password or passwordHash is required";
+        }
+        if (user.getUsername().contains("\n") || user.getEmail().contains("\n")) {
+            return "username and email must be on one line";
+        }
+        // anything else would be stored and then fail every login
+        if (hasText(user.getPasswordHash()) && !BCRYPT_HASH.matcher(user.getPasswordHash()).matches()) {
+            return "passwordHash is not a BCrypt hash";
+        }
+        return null;
+    }
+
+    private void duplicate(ImportReport report, Candidate candidate, String reason) {
+        report.setDuplicates(report.getDuplicates() + 1);
+        meterRegistry.counter("user.bulk.import.rows", "result", "duplicate").increment();
+        error(report, "row " + candidate.row() + ": " + reason);
+    }
+
+    private void error(ImportReport report, String message) {
+        if (report.getErrors().size() < properties.getMaxReportedErrors()) {
+            report.getErrors().add(message);
+        }
+    }
+
+    private ObjectReader reader(Format format) {
+        return format == Format.CSV
+                ? csvMapper.readerFor(BulkUserRow.class).with(CsvSchema.emptySchema().withHeader())
+                : objectMapper.readerFor(BulkUserRow.class).without(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+    }
+
+    private ObjectWriter writer(Format format) {
+        return format == Format.CSV
+                ? csvMapper.writerFor(UserSummary.class).with(csvMapper.schemaFor(UserSummary.class).withHeader())
+                : objectMapper.writerFor(UserSummary.class).withRootValueSeparator("\n");
+    }
+
+    private static String trim(String value) {
+        return value == null ? null : value.trim();
+    }
+
+    private static boolean hasText(String value) {
+        return value != null && !value.isBlank();
+    }
+}
@@ -0,0 +1,126 @@
+package com.example.userservice.service;
+
+import com.example.userservice.config.NotificationBatchProperties;
+import com.example.userservice.dto.OtpSendRequest;
+import com.example.userservice.dto.OtpSendResult;
+import com.example.userservice.external.service.NotificationService;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Coalesces single OTP sends made within a short window into one
+ * {@code POST /notification/otp/batch}, so a burst of sends costs one HTTP round trip
+ * instead of one per message. Callers still see their own item's result.
+ */
+@Slf4j
+@Component
+public class NotificationBatcher {
+    private final NotificationService notificationService;
+    private final NotificationBatchProperties properties;
+    private final BlockingQueue<Pending> queue;
+    private Thread flusher;
+    private volatile boolean running;
+
+    private record Pending(OtpSendRequest request, CompletableFuture<OtpSendResult> result) {
+    }
+
+    public NotificationBatcher(NotificationService notificationService, NotificationBatchProperties properties) {
+        this.notificationService = notificationService;
+        this.properties = properties;
+        this.queue = new ArrayBlockingQueue<>(properties.getQueueCapacity());
+    }
+
+    @PostConstruct
+    public void start() {
+        running = true;
+        flusher = new Thread(this::run, "notification-batcher");
+        flusher.setDaemon(true);
+        flusher.start();
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        flusher.interrupt();
+        flusher.join(1_000);
+    }
+
+    /**
+     * Sends one OTP as part of the next batch and waits for its result. Transport errors
+     * are rethrown as-is so Resilience4j on the caller can classify them.
+     */
+    public OtpSendResult send(OtpSendRequest request) {
+        if (!running) {
+            throw new IllegalStateException("Notification batcher is stopped");
+        }
+        CompletableFuture<OtpSendResult> result = new CompletableFuture<>();
+        if (!queue.offer(new Pending(request, result))) {
+            throw new IllegalStateException("Notification batch queue is full");
+        }
+        try {
+            return result.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    int queueDepth() {
+        return queue.size();
+    }
+
+    private void run() {
+        while (running) {
+            List<Pending> batch = new ArrayList<>(properties.getMaxSize());
+            try {
+                batch.add(queue.take());
+                long deadline = System.nanoTime() + properties.getWindow().toNanos();
+                while (batch.size() < properties.getMaxSize()) {
+                    Pending next = queue.poll(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                batch.addAll(queue);
+                batch.forEach(pending -> pending.result.completeExceptionally(
+                        new IllegalStateException("Notification batcher is stopped")));
+                return;
+            }
+            flush(batch);
+        }
+    }
+
+    private void flush(List<Pending> batch) {
+        try {
+            List<OtpSendResult> results = notificationService.sendOtpBatch(
+                    batch.stream().map(Pending::request).toList());
+            for (int i = 0; i < batch.size(); i++) {
+                OtpSendResult result = results != null && i < results.size() ? results.get(i) : null;
+                if (result != null) {
+                    batch.get(i).result.complete(result);
+                } else {
+                    batch.get(i).result.completeExceptionally(
+                            new IllegalStateException("No result for OTP notification " + i + " in batch"));
+                }
+            }
+        } catch (RuntimeException e) {
+            log.warn("OTP batch of {} failed: {}", batch.size(), e.getMessage());
+            batch.forEach(pending -> pending.result.completeExceptionally(e));
+        }
+    }
+}
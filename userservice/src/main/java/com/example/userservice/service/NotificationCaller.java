@@ -1,6 +1,7 @@
 package com.example.userservice.service;
 
 import com.example.userservice.dto.OtpSendRequest;
+import com.example.userservice.dto.OtpSendResult;
 import com.example.userservice.external.service.NotificationService;
 import io.github.resilience4j.circuitbreaker.annotation.CircuitBreaker;
 import io.github.resilience4j.ratelimiter.annotation.RateLimiter;
@@ -8,19 +9,40 @@ import io.github.resilience4j.retry.annotation.Retry;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 
+import java.util.List;
+
 @Service
 @RequiredArgsConstructor
 public class NotificationCaller {
     private final NotificationService notificationService;
+    private final NotificationBatcher notificationBatcher;
 
+    /**
+     * Sends one OTP. Calls made within {@code notification.batch.window} of each other
+     * share a single batch request.
+     */
     @RateLimiter(name = "notificationRateLimiter", fallbackMethod = "rateLimitFallback")
     @Retry(name = "notificationRetry",fallbackMethod = "fallback")
     @CircuitBreaker(name = "notificationBreaker", fallbackMethod = "fallback")
     public String sendOtp(OtpSendRequest req) {
-        notificationService.sendOtp(req);  // exception caught HERE
+        OtpSendResult result = notificationBatcher.send(req);  // exception caught HERE
+        if (result.getStatus() != OtpSendResult.Status.ACCEPTED && result.getStatus() != OtpSendResult.Status.DUPLICATE) {
+            throw new IllegalStateException("OTP not accepted: " + result.getMessage());
+        }
         return "Secure and Safe OTP sent successfully.";
     }
 
+    /**
+     * Posts an already assembled batch as is, returning one result per request in order.
+     * There is no fallback, so the outbox relay sees a failure and retries later. The
+     * rate limiter caps this instance's batches whatever the gateway lets through.
+     */
+    @RateLimiter(name = "notificationRateLimiter")
+    @CircuitBreaker(name = "notificationBreaker")
+    public List<OtpSendResult> deliverBatch(List<OtpSendRequest> requests) {
+        return notificationService.sendOtpBatch(requests);
+    }
+
     public String fallback(OtpSendRequest req, Throwable ex) {
         return "Notification service is down. OTP sending failed.";
     }
@@ -29,4 +51,3 @@ public class NotificationCaller {
         return "Too many requests. Please try again later.";
     }
 }
-
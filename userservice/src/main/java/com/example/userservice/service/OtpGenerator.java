@@ -0,0 +1,88 @@
+package com.example.userservice.service;
+
+import com.example.userservice.config.OtpProperties;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Draws fixed-width numeric OTPs from a small array of {@link SecureRandom} instances. Each
+ * call picks one at random, so concurrent signups rarely meet on the same instance's lock,
+ * and the array stays the same size however many (virtual) threads there are, which a
+ * per-thread instance would not.
+ */
+@Component
+public class OtpGenerator {
+    static final int MIN_LENGTH = 4;
+    static final int MAX_LENGTH = 9; // 10^9 still fits an int
+
+    private final SecureRandom[] stripes;
+    private final int mask;
+    private final int length;
+    private final int bound;
+
+    @Autowired
+    public OtpGenerator(OtpProperties properties) {
+        this(properties.getLength(), properties.getStripes());
+    }
+
+    OtpGenerator(int length, int stripes) {
+        if (length < MIN_LENGTH || length > MAX_LENGTH) {
+            throw new IllegalArgumentException("OTP length must be between " + MIN_LENGTH + " and " + MAX_LENGTH
+                    + ", was " + length);
+        }
+        int requested = stripes > 0 ? stripes : 2 * Runtime.getRuntime().availableProcessors();
+        int count = requested <= 1 ? 1 : Integer.highestOneBit(requested - 1) << 1;
+        this.stripes = new SecureRandom[count];
+        for (int i = 0; i < count; i++) {
+            this.stripes[i] = newSecureRandom();
+        }
+        this.mask = count - 1;
+        this.length = length;
+        int bound = 1;
+        for (int i = 0; i < length; i++) {
+            bound *= 10;
+        }
+        this.bound = bound;
+    }
+
+    public String next() {
+        SecureRandom random = stripes[ThreadLocalRandom.current().nextInt() & mask];
+        return format(random.nextInt(bound), length);
+    }
+
+    int stripeCount() {
+        return stripes.length;
+    }
+
+    /**
+     * Zero-padded decimal, written straight into the string's bytes.
+     */
+    static String format(int code, int length) {
+        byte[] digits = new byte[length];
+        for (int i = length - 1; i >= 0; i--) {
+            digits[i] = (byte) ('0' + code % 10);
+            code /= 10;
+        }
+        return new String(digits, StandardCharsets.ISO_8859_1);
+    }
+
+    private static SecureRandom newSecureRandom() {
+        SecureRandom random;
+        try {
+            // the default NativePRNG funnels every instance through one shared lock, while a
+            // SHA1PRNG instance, seeded from the OS, only locks itself and is several times
+            // cheaper per call than DRBG
+            random = SecureRandom.getInstance("SHA1PRNG");
+        } catch (NoSuchAlgorithmException e) {
+            random = new SecureRandom();
+        }
+        // seed now rather than on the first signup
+        random.nextInt();
+        return random;
+    }
+}
@@ -1,33 +1,134 @@
 package com.example.userservice.service;
 
+import com.example.userservice.dto.OtpSendRequest;
+import com.example.userservice.dto.UserMapper;
+import com.example.userservice.exception.TooManyRequestsException;
+import com.example.userservice.outbox.NotificationOutbox;
 import lombok.RequiredArgsConstructor;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.RedisOperations;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.data.redis.core.script.RedisScript;
 import org.springframework.stereotype.Service;
 
-import java.util.concurrent.TimeUnit;
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
 
 @Service
 @RequiredArgsConstructor
 public class OtpService {
+    public static final String OTP_KEY_PREFIX = "OTP_";
+    public static final String PENDING_USER_KEY_PREFIX = "tmp:user:"; // tmp:user:{email}
+    static final Duration OTP_TTL = Duration.ofMinutes(5);
+
+    static final RedisScript<Long> ISSUE_SCRIPT = script("scripts/issue_otp.lua", Long.class);
+    @SuppressWarnings("rawtypes")
+    static final RedisScript<List> CONSUME_SCRIPT = script("scripts/consume_otp.lua", List.class);
+
     private final RedisTemplate<String, String> redisTemplate;
+    private final NotificationOutbox outbox;
+    private final OtpThrottle throttle;
+    private final OtpGenerator otpGenerator;
+
+    public enum Status { OK, INVALID, MISSING, LOCKED }
+
+    /**
+     * Outcome of redeeming an OTP: the pending registration payload is only present when
+     * the status is {@link Status#OK}.
+     */
+    public record Verification(Status status, String pendingUser) {
+    }
 
-    public String generateOtp(String email) {
-        String otp = String.valueOf((int)(Math.random() * 900000) + 100000);
+    /**
+     * Stores the pending registration, a fresh OTP for it and the outbox entry that will
+     * email it in one MULTI/EXEC, sent as a single pipelined round trip. On a Redis Cluster
+     * the outbox entry follows the script that stores the other two.
+     */
+    public String issueOtp(String email, String pendingUser, String purpose) {
+        String otp = otpGenerator.next();
+        String pendingKey = pendingUserKey(email);
+        String otpKey = otpKey(email);
+        OtpSendRequest notification = new OtpSendRequest(email, otp, purpose, UUID.randomUUID().toString());
 
-        // store OTP for 5 minutes
-        redisTemplate.opsForValue().set("OTP_" + email, otp, 5, TimeUnit.MINUTES);
+        if (isCluster(redisTemplate.getConnectionFactory())) {
+            // MULTI cannot span cluster nodes, and the outbox stream is not in the email's slot
+            redisTemplate.execute(ISSUE_SCRIPT, List.of(pendingKey, otpKey),
+                    pendingUser, otp, String.valueOf(OTP_TTL.toSeconds()), "0");
+            outbox.append(redisTemplate, notification);
+            return otp;
+        }
+        redisTemplate.executePipelined(new SessionCallback<Object>() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public <K, V> Object execute(RedisOperations<K, V> operations) {
+                RedisOperations<String, String> ops = (RedisOperations<String, String>) operations;
+                ops.multi();
+                ops.opsForValue().set(pendingKey, pendingUser, OTP_TTL);
+                ops.opsForValue().set(otpKey, otp, OTP_TTL);
+                outbox.append(ops, notification);
+                ops.exec();
+                return null;
+            }
+        });
 
         return otp;
     }
 
-    public boolean verifyOtp(String email, String otp) {
-        String storedOtp = redisTemplate.opsForValue().get("OTP_" + email);
+    /**
+     * Atomically checks the OTP and pops the pending registration stored with it, so two
+     * concurrent verifications can never both succeed. Throws {@link TooManyRequestsException}
+     * while the email is locked out after too many wrong OTPs.
+     */
+    public Verification consumePendingRegistration(String email, String otp) {
+        if (otp == null) {
+            return new Verification(Status.INVALID, null);
+        }
+        List<?> result = redisTemplate.execute(CONSUME_SCRIPT, consumeKeys(email), throttle.verifyArgs(otp).toArray());
+        return toVerification(result);
+    }
+
+    static List<String> consumeKeys(String email) {
+        return List.of(otpKey(email), pendingUserKey(email), OtpThrottle.FAILURES_KEY_PREFIX + emailTag(email));
+    }
+
+    /**
+     * All keys of one email carry it as their hash tag, so a Redis Cluster keeps them in
+     * one slot and the OTP scripts can touch them together. The email is normalized, so
+     * the throttle and the OTP keys of an address are the same however it was typed.
+     */
+    static String emailTag(String email) {
+        return "{" + UserMapper.normalizeEmail(email) + "}";
+    }
+
+    static String otpKey(String email) {
+        return OTP_KEY_PREFIX + emailTag(email);
+    }
+
+    static String pendingUserKey(String email) {
+        return PENDING_USER_KEY_PREFIX + emailTag(email);
+    }
+
+    static boolean isCluster(Object connectionFactory) {
+        return connectionFactory instanceof LettuceConnectionFactory lettuce && lettuce.isClusterAware();
+    }
 
-        if(storedOtp != null && storedOtp.equals(otp)) {
-            redisTemplate.delete("OTP_" + email);
-            return true;
+    static Verification toVerification(List<?> result) {
+        if (result == null || result.isEmpty()) {
+            return new Verification(Status.INVALID, null);
         }
-        return false;
+        Status status = Status.valueOf((String) result.get(0));
+        if (status == Status.LOCKED) {
+            throw new TooManyRequestsException("Too many wrong OTPs. Please request a new one later.",
+                    Duration.ofMillis(Math.max(((Number) result.get(1)).longValue(), 0)));
+        }
+        String pendingUser = status == Status.OK && result.size() > 1 ? (String) result.get(1) : null;
+        return new Verification(status, pendingUser);
     }
 
+    static <T> RedisScript<T> script(String location, Class<T> resultType) {
+        return RedisScript.of(new ClassPathResource(location), resultType);
+    }
 }
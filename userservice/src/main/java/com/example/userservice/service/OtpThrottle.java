@@ -0,0 +1,86 @@
+package com.example.userservice.service;
+
+import com.example.userservice.config.OtpThrottleProperties;
+import com.example.userservice.exception.TooManyRequestsException;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Per-email limits on OTP sends, kept in Redis so they hold across replicas: a cooldown
+ * between two sends, a sliding-window quota, and the lockout that {@link OtpService}
+ * starts after too many wrong OTPs. Checked before any hashing or database work.
+ */
+@Service
+@RequiredArgsConstructor
+public class OtpThrottle {
+    static final String COOLDOWN_KEY_PREFIX = "otp:cooldown:";
+    static final String SENDS_KEY_PREFIX = "otp:sends:";
+    static final String FAILURES_KEY_PREFIX = "otp:failures:";
+
+    @SuppressWarnings("rawtypes")
+    static final RedisScript<List> SEND_SCRIPT = OtpService.script("scripts/otp_send_throttle.lua", List.class);
+
+    private final RedisTemplate<String, String> redisTemplate;
+    private final OtpThrottleProperties properties;
+    private final MeterRegistry meterRegistry;
+
+    /**
+     * Records an OTP send for {@code email}, or throws {@link TooManyRequestsException}
+     * telling the caller how long to wait.
+     */
+    public void acquireSend(String email) {
+        if (!isEnabled()) {
+            return;
+        }
+        List<?> result = redisTemplate.execute(SEND_SCRIPT, sendKeys(email), sendArgs().toArray());
+        checkSend(result);
+    }
+
+    public boolean isEnabled() {
+        return properties.isEnabled();
+    }
+
+    List<String> sendKeys(String email) {
+        String tag = OtpService.emailTag(email);
+        return List.of(COOLDOWN_KEY_PREFIX + tag, SENDS_KEY_PREFIX + tag, FAILURES_KEY_PREFIX + tag);
+    }
+
+    List<String> sendArgs() {
+        return List.of(
+                String.valueOf(System.currentTimeMillis()),
+                String.valueOf(properties.getCooldown().toMillis()),
+                String.valueOf(properties.getWindow().toMillis()),
+                String.valueOf(properties.getMaxSendsPerWindow()),
+                String.valueOf(properties.getMaxVerifyFailures()),
+                UUID.randomUUID().toString());
+    }
+
+    void checkSend(List<?> result) {
+        if (result == null || result.isEmpty() || "OK".equals(result.get(0))) {
+            return;
+        }
+        String reason = (String) result.get(0);
+        Duration retryAfter = Duration.ofMillis(Math.max(((Number) result.get(1)).longValue(), 0));
+        meterRegistry.counter("user.otp.throttled", "reason", reason.toLowerCase()).increment();
+        throw new TooManyRequestsException(switch (reason) {
+            case "LOCKOUT" -> "Too many wrong OTPs for this email. Please try again later.";
+            case "COOLDOWN" -> "An OTP was sent to this email just now. Please wait before requesting another.";
+            default -> "Too many OTP requests for this email. Please try again later.";
+        }, retryAfter);
+    }
+
+    /**
+     * Arguments for the OTP checking scripts: failures allowed before lockout, and the lockout in ms.
+     */
+    List<String> verifyArgs(String otp) {
+        int failures = properties.isEnabled() ? properties.getMaxVerifyFailures() : 0;
+        return List.of(otp, String.valueOf(failures), String.valueOf(properties.getLockout().toMillis()));
+    }
+}
@@ -0,0 +1,77 @@
+package com.example.userservice.service;
+
+import com.example.userservice.config.PendingRegistrationProperties;
+import com.example.userservice.dto.UserRequest;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+/**
+ * Encodes the registration kept in Redis between send-otp and verify-otp. The compact
+ * format is {@code 1<password hash>\n<username>}: the first character is the format
+ * version, and the email is left out because the key already holds it. Values that
+ * start with a curly brace are the JSON written before, so registrations in flight during
+ * a rollout still verify.
+ */
+@Component
+@RequiredArgsConstructor
+public class PendingRegistrationCodec {
+    static final char COMPACT_V1 = '1';
+    private static final char JSON = '{';
+    // BCrypt and the {id} prefix never produce it, so the username after it may contain anything
+    private static final char SEPARATOR = '\n';
+
+    private final ObjectMapper objectMapper;
+    private final PendingRegistrationProperties properties;
+
+    public String encode(UserRequest request) {
+        if (properties.getFormat() == PendingRegistrationProperties.Format.JSON) {
+            try {
+                return objectMapper.writeValueAsString(request);
+            } catch (JsonProcessingException e) {
+                throw new RuntimeException("Internal error storing temp user", e);
+            }
+        }
+        String password = request.getPassword();
+        if (password.indexOf(SEPARATOR) >= 0) {
+            throw new IllegalArgumentException("Password hash must not contain a line break");
+        }
+        return COMPACT_V1 + password + SEPARATOR + request.getUsername();
+    }
+
+    /**
+     * Reads a value written by {@link #encode} in either format; {@code email} is the one
+     * its key was built from. Throws {@link IllegalArgumentException} for anything else.
+     */
+    public UserRequest decode(String email, String value) {
+        if (value == null || value.isEmpty()) {
+            throw new IllegalArgumentException("Empty pending registration");
+        }
+        return switch (value.charAt(0)) {
+            case COMPACT_V1 -> decodeCompact(email, value);
+            case JSON -> decodeJson(value);
+            default -> throw new IllegalArgumentException("Unknown pending registration version " + value.charAt(0));
+        };
+    }
+
+    private static UserRequest decodeCompact(String email, String value) {
+        int separator = value.indexOf(SEPARATOR, 1);
+        if (separator < 0) {
+            throw new IllegalArgumentException("Malformed pending registration");
+        }
+        UserRequest request = new UserRequest();
+        request.setEmail(email);
+        request.setPassword(value.substring(1, separator));
+        request.setUsername(value.substring(separator + 1));
+        return request;
+    }
+
+    private UserRequest decodeJson(String value) {
+        try {
+            return objectMapper.readValue(value, UserRequest.class);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Malformed pending registration", e);
+        }
+    }
+}
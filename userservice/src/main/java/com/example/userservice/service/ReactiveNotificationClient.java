@@ -0,0 +1,51 @@
+package com.example.userservice.service;
+
+import com.example.userservice.config.ReactiveRegistrationProperties;
+import com.example.userservice.dto.OtpSendRequest;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.reactor.circuitbreaker.operator.CircuitBreakerOperator;
+import io.github.resilience4j.reactor.retry.RetryOperator;
+import io.github.resilience4j.retry.Retry;
+import io.github.resilience4j.retry.RetryRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.cloud.client.loadbalancer.LoadBalanced;
+import org.springframework.stereotype.Service;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+
+/**
+ * Calls notificationservice without holding a thread while the request is in flight. Uses
+ * the same breaker and retry instances as the Feign client, so both paths see one health state.
+ */
+@Service
+@ConditionalOnProperty(prefix = "user.reactive", name = "enabled", havingValue = "true")
+public class ReactiveNotificationClient {
+    private final WebClient webClient;
+    private final ReactiveRegistrationProperties properties;
+    private final CircuitBreaker circuitBreaker;
+    private final Retry retry;
+
+    public ReactiveNotificationClient(@LoadBalanced WebClient.Builder webClientBuilder,
+                                      ReactiveRegistrationProperties properties,
+                                      CircuitBreakerRegistry circuitBreakerRegistry,
+                                      RetryRegistry retryRegistry) {
+        this.webClient = webClientBuilder.baseUrl(properties.getNotificationUrl()).build();
+        this.properties = properties;
+        this.circuitBreaker = circuitBreakerRegistry.circuitBreaker("notificationBreaker");
+        this.retry = retryRegistry.retry("notificationRetry");
+    }
+
+    public Mono<Void> sendOtp(OtpSendRequest request) {
+        return webClient.post()
+                .uri("/notification/otp")
+                .bodyValue(request)
+                .retrieve()
+                .toBodilessEntity()
+                .timeout(properties.getNotificationTimeout())
+                // retry outside the breaker, as the annotations order them on the Feign path
+                .transformDeferred(CircuitBreakerOperator.of(circuitBreaker))
+                .transformDeferred(RetryOperator.of(retry))
+                .then();
+    }
+}
@@ -0,0 +1,91 @@
+package com.example.userservice.service;
+
+import com.example.userservice.config.OutboxProperties;
+import com.example.userservice.dto.OtpSendRequest;
+import com.example.userservice.outbox.NotificationOutbox;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.redis.connection.RedisStreamCommands.XAddOptions;
+import org.springframework.data.redis.connection.stream.MapRecord;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static com.example.userservice.service.OtpService.ISSUE_SCRIPT;
+
+/**
+ * Non-blocking counterpart of {@link OtpService}, sharing its keys, lifetimes and
+ * outbox stream, so either path can verify an OTP the other one issued.
+ */
+@Service
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "user.reactive", name = "enabled", havingValue = "true")
+public class ReactiveOtpService {
+    private final ReactiveStringRedisTemplate redisTemplate;
+    private final OutboxProperties outboxProperties;
+    private final OtpThrottle throttle;
+    private final OtpGenerator otpGenerator;
+
+    /**
+     * Stores the pending registration with a fresh OTP and, when {@code viaOutbox} is set,
+     * the outbox entry that will email it, in one script call. On a Redis Cluster the outbox
+     * entry is added right after the script. Emits the notification to send.
+     */
+    public Mono<OtpSendRequest> issueOtp(String email, String pendingUser, String purpose, boolean viaOutbox) {
+        return Mono.defer(() -> {
+            OtpSendRequest notification = new OtpSendRequest(email, otpGenerator.next(), purpose,
+                    UUID.randomUUID().toString());
+            List<String> args = new ArrayList<>(List.of(pendingUser, notification.getOtp(),
+                    String.valueOf(OtpService.OTP_TTL.toSeconds()), String.valueOf(outboxProperties.getMaxLength())));
+            if (OtpService.isCluster(redisTemplate.getConnectionFactory())) {
+                // the outbox stream is not in the email's slot, so one script cannot write both
+                List<String> keys = List.of(OtpService.pendingUserKey(email), OtpService.otpKey(email));
+                Mono<?> outboxEntry = viaOutbox
+                        ? redisTemplate.opsForStream().add(
+                                MapRecord.create(outboxProperties.getStream(), NotificationOutbox.fields(notification)),
+                                XAddOptions.maxlen(outboxProperties.getMaxLength()).approximateTrimming(true))
+                        : Mono.empty();
+                return redisTemplate.execute(ISSUE_SCRIPT, keys, args).then(outboxEntry).thenReturn(notification);
+            }
+            List<String> keys = List.of(OtpService.pendingUserKey(email), OtpService.otpKey(email),
+                    outboxProperties.getStream());
+            if (viaOutbox) {
+                NotificationOutbox.fields(notification).forEach((field, value) -> {
+                    args.add(field);
+                    args.add(value);
+                });
+            }
+            return redisTemplate.execute(ISSUE_SCRIPT, keys, args).then(Mono.just(notification));
+        });
+    }
+
+    /**
+     * Atomically checks the OTP and pops the pending registration stored with it.
+     */
+    public Mono<OtpService.Verification> consumePendingRegistration(String email, String otp) {
+        if (otp == null) {
+            return Mono.just(new OtpService.Verification(OtpService.Status.INVALID, null));
+        }
+        return redisTemplate.execute(OtpService.CONSUME_SCRIPT, OtpService.consumeKeys(email), throttle.verifyArgs(otp))
+                .next()
+                .map(OtpService::toVerification);
+    }
+
+    /**
+     * Reactive form of {@link OtpThrottle#acquireSend}; errors with
+     * {@link com.example.userservice.exception.TooManyRequestsException} when throttled.
+     */
+    public Mono<Void> acquireSend(String email) {
+        if (!throttle.isEnabled()) {
+            return Mono.empty();
+        }
+        return Mono.defer(() -> redisTemplate.execute(OtpThrottle.SEND_SCRIPT, throttle.sendKeys(email), throttle.sendArgs())
+                .next()
+                .doOnNext(throttle::checkSend)
+                .then());
+    }
+}
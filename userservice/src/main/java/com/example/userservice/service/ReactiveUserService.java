@@ -0,0 +1,147 @@
+package com.example.userservice.service;
+
+import com.example.userservice.cache.UserExistenceIndex;
+import com.example.userservice.config.ReactiveRegistrationProperties;
+import com.example.userservice.dto.OtpSendRequest;
+import com.example.userservice.dto.UserMapper;
+import com.example.userservice.dto.UserRequest;
+import com.example.userservice.dto.VerifyOtpRequest;
+import com.example.userservice.entity.UserRecord;
+import com.example.userservice.repository.ReactiveUserRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * The registration flow of {@link UserService} without blocking calls: R2DBC for the users
+ * table, reactive Redis for OTP and pending-user state and WebClient for direct delivery.
+ * Responses match the blocking endpoints, so clients can switch between them freely.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "user.reactive", name = "enabled", havingValue = "true")
+public class ReactiveUserService {
+    private static final String PURPOSE = "Registration";
+
+    private final ReactiveUserRepository userRepository;
+    private final ReactiveOtpService otpService;
+    private final ReactiveNotificationClient notificationClient;
+    private final PasswordHashingService passwordHasher;
+    private final UserMapper userMapper;
+    private final PendingRegistrationCodec pendingCodec;
+    private final UserExistenceIndex existenceIndex;
+    private final ReactiveRegistrationProperties properties;
+
+    public Mono<String> sendOtp(UserRequest request) {
+        return Mono.fromRunnable(() -> validate(request))
+                .then(Mono.defer(() -> otpService.acquireSend(request.getEmail())))
+                .then(rejectIfTrue(() -> existenceIndex.emailExists(request.getEmail(), userRepository::existsByEmail),
+                        "Email already exists"))
+                .then(rejectIfTrue(() -> existenceIndex.usernameExists(request.getUsername(), userRepository::existsByUsername),
+                        "Username already taken"))
+                .then(Mono.defer(() -> hash(request.getPassword())))
+                .map(hashed -> pendingUser(request, hashed))
+                .flatMap(pending -> otpService.issueOtp(request.getEmail(), pending, PURPOSE, viaOutbox()))
+                .flatMap(this::deliver);
+    }
+
+    public Mono<String> verifyOtpAndRegister(VerifyOtpRequest request) {
+        return otpService.consumePendingRegistration(request.getEmail(), request.getOtp())
+                .flatMap(verification -> switch (verification.status()) {
+                    case INVALID, LOCKED -> Mono.just("Invalid or expired OTP");
+                    case MISSING -> Mono.just("No pending registration found for this email. Please start again.");
+                    case OK -> register(request.getEmail(), verification.pendingUser());
+                });
+    }
+
+    public Mono<Boolean> isUsernameAvailable(String username) {
+        return existenceIndex.usernameExists(username, userRepository::existsByUsername).map(exists -> !exists);
+    }
+
+    private Mono<String> register(String email, String pendingUser) {
+        UserRequest temp;
+        try {
+            temp = pendingCodec.decode(email, pendingUser);
+        } catch (IllegalArgumentException e) {
+            return Mono.just("Internal error reading registration data");
+        }
+
+        // Double-check uniqueness right before write (DB unique constraints are final guard)
+        return existenceIndex.usernameExists(temp.getUsername(), userRepository::existsByUsername)
+                .flatMap(usernameTaken -> usernameTaken
+                        ? Mono.just("Username taken")
+                        : existenceIndex.emailExists(temp.getEmail(), userRepository::existsByEmail)
+                        .flatMap(emailTaken -> emailTaken ? Mono.just("Email already registered") : insert(temp)));
+    }
+
+    private Mono<String> insert(UserRequest temp) {
+        return userRepository.save(userMapper.toRecord(temp))
+                .flatMap(this::recordUser)
+                .thenReturn("User registered successfully")
+                .onErrorReturn(DataIntegrityViolationException.class,
+                        "Registration failed: username or email already in use");
+    }
+
+    // the index broadcasts over the blocking Redis template, so keep it off the event loop
+    private Mono<UserRecord> recordUser(UserRecord user) {
+        return Mono.fromRunnable(() -> existenceIndex.recordUser(user.getUsername(), user.getEmail()))
+                .subscribeOn(Schedulers.boundedElastic())
+                .thenReturn(user);
+    }
+
+    private Mono<String> deliver(OtpSendRequest notification) {
+        if (viaOutbox()) {
+            return Mono.just("OTP will be sent to your email shortly.");
+        }
+        return notificationClient.sendOtp(notification)
+                .thenReturn("Secure and Safe OTP sent successfully.")
+                .onErrorResume(e -> {
+                    log.warn("Direct OTP delivery to {} failed: {}", notification.getEmail(), e.getMessage());
+                    return Mono.just("Notification service is down. OTP sending failed.");
+                });
+    }
+
+    private Mono<String> hash(String rawPassword) {
+        return Mono.fromFuture(() -> passwordHasher.encodeAsync(rawPassword))
+                .onErrorMap(TimeoutException.class,
+                        e -> new RejectedExecutionException("Password hashing timed out, please retry"));
+    }
+
+    private String pendingUser(UserRequest request, String hashedPassword) {
+        UserRequest safe = new UserRequest();
+        safe.setEmail(request.getEmail());
+        safe.setUsername(request.getUsername());
+        safe.setPassword(hashedPassword);
+        return pendingCodec.encode(safe);
+    }
+
+    private boolean viaOutbox() {
+        return properties.getDelivery() == ReactiveRegistrationProperties.Delivery.OUTBOX;
+    }
+
+    private static Mono<Void> rejectIfTrue(Supplier<Mono<Boolean>> check, String message) {
+        return Mono.defer(check)
+                .flatMap(exists -> exists ? Mono.error(new IllegalArgumentException(message)) : Mono.empty());
+    }
+
+    private static void validate(UserRequest request) {
+        if (request.getEmail() == null || request.getEmail().isBlank()) {
+            throw new IllegalArgumentException("Email must not be empty");
+        }
+        if (request.getUsername() == null || request.getUsername().isBlank()) {
+            throw new IllegalArgumentException("Username must not be empty");
+        }
+        if (request.getPassword() == null || request.getPassword().isBlank()) {
+            throw new IllegalArgumentException("Password must not be empty");
+        }
+    }
+}
@@ -1,40 +1,40 @@
 package com.example.userservice.service;
 
+import com.example.userservice.cache.UserExistenceIndex;
+import com.example.userservice.cache.UserProfileCache;
 import com.example.userservice.dto.*;
 import com.example.userservice.entity.User;
 import com.example.userservice.external.service.NotificationService;
 import com.example.userservice.repository.UserRepository;
-import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import io.github.resilience4j.circuitbreaker.annotation.CircuitBreaker;
 import io.github.resilience4j.retry.annotation.Retry;
 import lombok.RequiredArgsConstructor;
 import org.springframework.dao.DataIntegrityViolationException;
-import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.domain.Limit;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Locale;
 import java.util.UUID;
 
 @Service
 @RequiredArgsConstructor
 public class UserService {
-    private static final String TEMP_USER_KEY_PREFIX = "tmp:user:"; // tmp:user:{email}
-    private static final Duration TEMP_USER_TTL = Duration.ofMinutes(5);
+    static final int MAX_PAGE_SIZE = 200;
 
     private final UserRepository userRepository;
     private final UserMapper userMapper;
     private final OtpService otpService;
+    private final OtpThrottle otpThrottle;
     private final NotificationService notificationClient;
-    private final PasswordEncoder passwordEncoder;
-    private final RedisTemplate<String,String> redisTemplate;
-    private final ObjectMapper objectMapper;
-    private final NotificationCaller notificationCaller;
+    private final PasswordHashingService passwordHasher;
+    private final PendingRegistrationCodec pendingCodec;
+    private final UserExistenceIndex existenceIndex;
+    private final UserProfileCache profileCache;
 
 
     public String sendOtp(UserRequest request) {
@@ -48,10 +48,13 @@ public class UserService {
         if (request.getPassword() == null || request.getPassword().isBlank()) {
             throw new IllegalArgumentException("Username must not be empty");
         }
-        if (userRepository.existsByEmail(request.getEmail())) {
+        // only well-formed requests count against the quota; repeat sends are still
+        // turned away before any hashing or lookups
+        otpThrottle.acquireSend(request.getEmail());
+        if (existenceIndex.emailExists(request.getEmail())) {
             throw new IllegalArgumentException("Email already exists");
         }
-        if (userRepository.existsByUsername(request.getUsername())) {
+        if (existenceIndex.usernameExists(request.getUsername())) {
             throw new IllegalArgumentException("Username already taken");
         }
 
@@ -60,20 +63,12 @@ public class UserService {
         safe.setEmail(request.getEmail());
         safe.setUsername(request.getUsername());
         if (request.getPassword() != null) {
-            safe.setPassword(passwordEncoder.encode(request.getPassword()));
+            safe.setPassword(passwordHasher.encode(request.getPassword()));
         }
-        String key = TEMP_USER_KEY_PREFIX + request.getEmail();
-        try {
-            String json = objectMapper.writeValueAsString(safe);
-            redisTemplate.opsForValue().set(key, json, TEMP_USER_TTL);
-        } catch (JsonProcessingException e) {
-            throw new RuntimeException("Internal error storing temp user", e);
-        }
-
-        String otp = otpService.generateOtp(request.getEmail());
-        OtpSendRequest otpReq = new OtpSendRequest(request.getEmail(), otp, "Registration");
 
-        return notificationCaller.sendOtp(otpReq);
+        // the email itself goes out through the outbox relay, off the request path
+        otpService.issueOtp(request.getEmail(), pendingCodec.encode(safe), "Registration");
+        return "OTP will be sent to your email shortly.";
     }
     //
 
@@ -82,33 +77,29 @@ public class UserService {
      */
     @Transactional
     public String verifyOtpAndRegister(VerifyOtpRequest request) {
-        boolean valid = otpService.verifyOtp(request.getEmail(), request.getOtp());
-        if (!valid) {
+        // OTP check and pending-user pop happen atomically, so the OTP cannot be replayed
+        OtpService.Verification verification =
+                otpService.consumePendingRegistration(request.getEmail(), request.getOtp());
+        if (verification.status() == OtpService.Status.INVALID) {
             return "Invalid or expired OTP";
         }
-
-
-        String key = TEMP_USER_KEY_PREFIX + request.getEmail();
-        String json = redisTemplate.opsForValue().get(key);
-        if (json == null) {
+        if (verification.status() == OtpService.Status.MISSING) {
         // temp data missing — could be expired or user tampered
             return "No pending registration found for this email. Please start again.";
         }
-
-
         UserRequest temp;
         try {
-            temp = objectMapper.readValue(json, UserRequest.class);
-        } catch (JsonProcessingException e) {
+            temp = pendingCodec.decode(request.getEmail(), verification.pendingUser());
+        } catch (IllegalArgumentException e) {
             return "Internal error reading registration data";
         }
 
 
         // Double-check uniqueness right before write (DB unique constraints are final guard)
-        if (userRepository.existsByUsername(temp.getUsername())){
+        if (existenceIndex.usernameExists(temp.getUsername())){
             return "Username taken";
         }
-        if (userRepository.existsByEmail(temp.getEmail())){
+        if (existenceIndex.emailExists(temp.getEmail())){
             return "Email already registered";
         }
 
@@ -123,14 +114,16 @@ public class UserService {
             // This handles race conditions where another transaction created the same username/email
             return "Registration failed: username or email already in use";
         }
-        // temp data to avoid replay
-        redisTemplate.delete(key);
-
+        existenceIndex.recordUser(user.getUsername(), user.getEmail());
 
         return "User registered successfully";
     }
 
     public UserResponse getByUsername(String username) {
+        return profileCache.get(username, this::loadByUsername);
+    }
+
+    private UserResponse loadByUsername(String username) {
         User user = userRepository.findByUsername(username)
                 .orElseThrow(() -> new RuntimeException("User not found"));
         return userMapper.toResponse(user);
@@ -140,6 +133,7 @@ public class UserService {
     public UserResponse updateUser(UUID id, UserRequest request) {
         User existing = userRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("User not found"));
+        String previousUsername = existing.getUsername();
         if (request.getUsername() != null) {
             existing.setUsername(request.getUsername());
         }
@@ -148,23 +142,65 @@ public class UserService {
         }
         if (request.getPassword() != null) {
         // Always encode passwords
-            existing.setPassword(passwordEncoder.encode(request.getPassword()));
+            existing.setPassword(passwordHasher.encode(request.getPassword()));
         }
         existing.setUpdated_at(LocalDateTime.now());
         User saved = userRepository.save(existing);
+        existenceIndex.recordUser(saved.getUsername(), saved.getEmail());
+        profileCache.evict(previousUsername, saved.getUsername());
         return userMapper.toResponse(saved);
     }
 
     public String deleteUser(UUID id) {
-        if (!userRepository.existsById(id)) {
-            throw new RuntimeException("User not found");
-        }
+        User existing = userRepository.findById(id)
+                .orElseThrow(() -> new RuntimeException("User not found"));
         userRepository.deleteById(id);
+        profileCache.evict(existing.getUsername());
 
         return "User is deleted";
     }
 
     public boolean isUsernameAvailable(String username){
-        return !userRepository.existsByUsername(username);
+        return !existenceIndex.usernameExists(username);
+    }
+
+    /**
+     * Newest users first, optionally only those whose username or email starts with
+     * {@code query} (case-insensitive). {@code after} is the cursor of the previous page.
+     */
+    @Transactional(readOnly = true)
+    public UserPage listUsers(String after, int size, String query) {
+        if (size < 1) {
+            throw new IllegalArgumentException("Page size must be positive");
+        }
+        // one extra row tells whether another page follows
+        Limit limit = Limit.of(Math.min(size, MAX_PAGE_SIZE) + 1);
+        UserCursor cursor = after == null || after.isBlank() ? null : UserCursor.decode(after);
+        String prefix = query == null || query.isBlank() ? null : likePrefix(query);
+
+        List<UserSummary> users;
+        if (prefix == null) {
+            users = cursor == null
+                    ? userRepository.findPage(limit)
+                    : userRepository.findPageAfter(cursor.createdAt(), cursor.userid(), limit);
+        } else {
+            users = cursor == null
+                    ? userRepository.searchPage(prefix, limit)
+                    : userRepository.searchPageAfter(prefix, cursor.createdAt(), cursor.userid(), limit);
+        }
+
+        if (users.size() < limit.max()) {
+            return new UserPage(users, null);
+        }
+        List<UserSummary> page = users.subList(0, limit.max() - 1);
+        return new UserPage(page, UserCursor.after(page.get(page.size() - 1)).encode());
+    }
+
+    private static String likePrefix(String query) {
+        String escaped = query.trim().toLowerCase(Locale.ROOT)
+                .replace("\\", "\\\\")
+                .replace("%", "\\%")
+                .replace("_", "\\_");
+        return escaped + "%";
     }
 }
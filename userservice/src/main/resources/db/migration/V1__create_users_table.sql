@@ -0,0 +1,13 @@
+-- Baseline: the users table as Hibernate's ddl-auto used to create it.
+-- Databases created that way are baselined at this version and skip it.
+create table if not exists users (
+    userid     uuid         not null,
+    username   varchar(255) not null,
+    email      varchar(255) not null,
+    password   varchar(255) not null,
+    created_at timestamp(6),
+    updated_at timestamp(6),
+    constraint users_pkey primary key (userid),
+    constraint uk_users_username unique (username),
+    constraint uk_users_email unique (email)
+);
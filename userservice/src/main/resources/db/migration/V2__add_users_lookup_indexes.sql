@@ -0,0 +1,10 @@
+-- Emails are unique regardless of case. This fails on a database that already holds two
+-- emails differing only in case; merge those accounts first.
+-- text_pattern_ops lets the same index serve the prefix search of GET /user/list, which
+-- compares with LIKE 'abc%' and cannot use a default-collation index.
+create unique index if not exists uk_users_email_lower on users (lower(email) text_pattern_ops);
+
+create index if not exists idx_users_username_lower on users (lower(username) text_pattern_ops);
+
+-- keyset pagination of GET /user/list, newest first
+create index if not exists idx_users_created_at_userid on users (created_at, userid);
@@ -0,0 +1,29 @@
+-- KEYS[1] = OTP key, KEYS[2] = pending registration key, KEYS[3] = failed-attempts key
+-- ARGV[1] = submitted OTP, ARGV[2] = failures before lockout (0 = never), ARGV[3] = lockout in ms
+-- Checks the OTP and pops the pending registration in one step, so an OTP can only
+-- ever be redeemed once. Reaching the failure limit burns the OTP and the registration.
+local lockoutAfter = tonumber(ARGV[2])
+if lockoutAfter > 0 and tonumber(redis.call('GET', KEYS[3]) or '0') >= lockoutAfter then
+    return {'LOCKED', redis.call('PTTL', KEYS[3])}
+end
+local stored = redis.call('GET', KEYS[1])
+if not stored or stored ~= ARGV[1] then
+    if stored and lockoutAfter > 0 then
+        local failures = redis.call('INCR', KEYS[3])
+        if failures >= lockoutAfter then
+            redis.call('PEXPIRE', KEYS[3], ARGV[3])
+            redis.call('DEL', KEYS[1], KEYS[2])
+            return {'LOCKED', tonumber(ARGV[3])}
+        end
+        if failures == 1 then
+            redis.call('PEXPIRE', KEYS[3], ARGV[3])
+        end
+    end
+    return {'INVALID'}
+end
+local pending = redis.call('GET', KEYS[2])
+redis.call('DEL', KEYS[1], KEYS[2], KEYS[3])
+if not pending then
+    return {'MISSING'}
+end
+return {'OK', pending}
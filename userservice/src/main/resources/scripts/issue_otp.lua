@@ -0,0 +1,11 @@
+-- KEYS[1] = pending registration key, KEYS[2] = OTP key, KEYS[3] = outbox stream
+-- ARGV[1] = pending registration, ARGV[2] = OTP, ARGV[3] = TTL in seconds,
+-- ARGV[4] = approximate stream length cap, ARGV[5..] = outbox entry as field, value pairs
+-- Stores the pending registration and its OTP together with the outbox entry, so an OTP
+-- is never issued without its notification. Without entry fields the outbox is skipped.
+redis.call('SET', KEYS[1], ARGV[1], 'EX', ARGV[3])
+redis.call('SET', KEYS[2], ARGV[2], 'EX', ARGV[3])
+if #ARGV > 4 then
+    redis.call('XADD', KEYS[3], 'MAXLEN', '~', ARGV[4], '*', unpack(ARGV, 5))
+end
+return 1
@@ -0,0 +1,25 @@
+-- KEYS[1] = cooldown key, KEYS[2] = sorted set of recent send times, KEYS[3] = failed-attempts key
+-- ARGV[1] = now in ms, ARGV[2] = cooldown in ms, ARGV[3] = window in ms,
+-- ARGV[4] = sends allowed per window, ARGV[5] = failures before lockout (0 = never),
+-- ARGV[6] = unique member for this send
+-- Records the send unless the email is locked out, cooling down or out of quota for the
+-- window. Returns {reason, retry after in ms}; reason is 'OK' when the send may go ahead.
+local now = tonumber(ARGV[1])
+local window = tonumber(ARGV[3])
+local lockoutAfter = tonumber(ARGV[5])
+if lockoutAfter > 0 and tonumber(redis.call('GET', KEYS[3]) or '0') >= lockoutAfter then
+    return {'LOCKOUT', redis.call('PTTL', KEYS[3])}
+end
+local cooldown = redis.call('PTTL', KEYS[1])
+if cooldown > 0 then
+    return {'COOLDOWN', cooldown}
+end
+redis.call('ZREMRANGEBYSCORE', KEYS[2], '-inf', now - window)
+if redis.call('ZCARD', KEYS[2]) >= tonumber(ARGV[4]) then
+    local oldest = redis.call('ZRANGE', KEYS[2], 0, 0, 'WITHSCORES')
+    return {'WINDOW', tonumber(oldest[2]) + window - now}
+end
+redis.call('ZADD', KEYS[2], now, ARGV[6])
+redis.call('PEXPIRE', KEYS[2], window)
+redis.call('SET', KEYS[1], '1', 'PX', ARGV[2])
+return {'OK', 0}
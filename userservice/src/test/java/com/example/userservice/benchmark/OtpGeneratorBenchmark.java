@@ -0,0 +1,64 @@
+package com.example.userservice.benchmark;
+
+import com.example.userservice.config.OtpProperties;
+import com.example.userservice.service.OtpGenerator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.security.SecureRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * OTP throughput with many signups generating at once. {@code stripes=1} is one shared
+ * generator; compare it with the default ({@code 0}) to see whether generation serializes
+ * concurrent requests. The shared-SecureRandom and Math.random variants are the code this
+ * replaced, for reference. Run with {@code -t} to try other thread counts.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Threads(16)
+@Fork(1)
+public class OtpGeneratorBenchmark {
+
+    @Param({"0", "1"})
+    private int stripes;
+
+    private OtpGenerator generator;
+    private SecureRandom sharedSecureRandom;
+
+    @Setup
+    public void setUp() {
+        OtpProperties properties = new OtpProperties();
+        properties.setStripes(stripes);
+        generator = new OtpGenerator(properties);
+        sharedSecureRandom = new SecureRandom();
+    }
+
+    @Benchmark
+    public String striped() {
+        return generator.next();
+    }
+
+    @Benchmark
+    public String sharedSecureRandom() {
+        return String.valueOf(sharedSecureRandom.nextInt(900000) + 100000);
+    }
+
+    @Benchmark
+    public String mathRandom() {
+        return String.valueOf((int) (Math.random() * 900000) + 100000);
+    }
+}
@@ -0,0 +1,115 @@
+package com.example.userservice.benchmark;
+
+import com.example.userservice.config.PendingRegistrationProperties;
+import com.example.userservice.config.PendingRegistrationProperties.Format;
+import com.example.userservice.dto.UserRequest;
+import com.example.userservice.service.OtpService;
+import com.example.userservice.service.PendingRegistrationCodec;
+import io.lettuce.core.RedisClient;
+import io.lettuce.core.RedisFuture;
+import io.lettuce.core.SetArgs;
+import io.lettuce.core.api.StatefulRedisConnection;
+import io.lettuce.core.api.async.RedisAsyncCommands;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Redis memory taken by pending signups (registration plus OTP key) in each
+ * {@link PendingRegistrationCodec} format. Writes {@code count} signups per format,
+ * reads {@code used_memory} before and after and deletes them again, so point it at a
+ * Redis nothing else is writing to:
+ * <pre>
+ * mvn test-compile exec:java -Dexec.classpathScope=test \
+ *     -Dexec.mainClass=com.example.userservice.benchmark.PendingRegistrationMemory \
+ *     -Dexec.args="redis://localhost:6379 1000000"
+ * </pre>
+ */
+public class PendingRegistrationMemory {
+    private static final int BATCH = 1_000;
+    private static final String BCRYPT_ALPHABET = "./ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789";
+
+    public static void main(String[] args) throws Exception {
+        String uri = args.length > 0 ? args[0] : "redis://localhost:6379";
+        int count = args.length > 1 ? Integer.parseInt(args[1]) : 1_000_000;
+
+        RedisClient client = RedisClient.create(uri);
+        try (StatefulRedisConnection<String, String> connection = client.connect()) {
+            connection.setAutoFlushCommands(false);
+            for (Format format : Format.values()) {
+                PendingRegistrationProperties properties = new PendingRegistrationProperties();
+                properties.setFormat(format);
+                PendingRegistrationCodec codec = new PendingRegistrationCodec(
+                        Jackson2ObjectMapperBuilder.json().build(), properties);
+
+                long before = usedMemory(connection);
+                run(connection, count, (commands, i) -> {
+                    String email = email(i);
+                    return List.of(
+                            commands.set(OtpService.PENDING_USER_KEY_PREFIX + "{" + email + "}",
+                                    codec.encode(pending(i)), SetArgs.Builder.ex(300)),
+                            commands.set(OtpService.OTP_KEY_PREFIX + "{" + email + "}",
+                                    String.format("%06d", i % 1_000_000), SetArgs.Builder.ex(300)));
+                });
+                long bytes = usedMemory(connection) - before;
+                run(connection, count, (commands, i) -> List.of(commands.del(
+                        OtpService.PENDING_USER_KEY_PREFIX + "{" + email(i) + "}",
+                        OtpService.OTP_KEY_PREFIX + "{" + email(i) + "}")));
+
+                System.out.printf("%-8s %5d bytes per signup, %6.0f MiB per 1M pending signups%n",
+                        format, bytes / count, bytes * (1_000_000.0 / count) / (1 << 20));
+            }
+        } finally {
+            client.shutdown();
+        }
+    }
+
+    private interface Writer {
+        List<RedisFuture<?>> write(RedisAsyncCommands<String, String> commands, int i);
+    }
+
+    private static void run(StatefulRedisConnection<String, String> connection, int count, Writer writer)
+            throws Exception {
+        RedisAsyncCommands<String, String> commands = connection.async();
+        List<RedisFuture<?>> pending = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            pending.addAll(writer.write(commands, i));
+            if (pending.size() >= BATCH || i == count - 1) {
+                connection.flushCommands();
+                for (RedisFuture<?> future : pending) {
+                    future.get(10, TimeUnit.SECONDS);
+                }
+                pending.clear();
+            }
+        }
+    }
+
+    private static long usedMemory(StatefulRedisConnection<String, String> connection) throws Exception {
+        RedisFuture<String> info = connection.async().info("memory");
+        connection.flushCommands();
+        return info.get(10, TimeUnit.SECONDS).lines()
+                .filter(line -> line.startsWith("used_memory:"))
+                .mapToLong(line -> Long.parseLong(line.substring("used_memory:".length()).trim()))
+                .findFirst()
+                .orElseThrow();
+    }
+
+    private static String email(int i) {
+        return "user" + i + "@example.com";
+    }
+
+    private static UserRequest pending(int i) {
+        StringBuilder hash = new StringBuilder("{bcrypt}$2a$10$");
+        for (int c = 0; c < 53; c++) {
+            hash.append(BCRYPT_ALPHABET.charAt(ThreadLocalRandom.current().nextInt(BCRYPT_ALPHABET.length())));
+        }
+        UserRequest request = new UserRequest();
+        request.setEmail(email(i));
+        request.setUsername("user" + i);
+        request.setPassword(hash.toString());
+        return request;
+    }
+}
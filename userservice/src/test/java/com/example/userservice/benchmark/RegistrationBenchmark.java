@@ -0,0 +1,138 @@
+package com.example.userservice.benchmark;
+
+import com.example.userservice.config.OtpProperties;
+import com.example.userservice.config.PendingRegistrationProperties;
+import com.example.userservice.dto.UserMapper;
+import com.example.userservice.dto.UserRequest;
+import com.example.userservice.dto.UserResponse;
+import com.example.userservice.entity.User;
+import com.example.userservice.service.OtpGenerator;
+import com.example.userservice.service.OtpService;
+import com.example.userservice.service.PendingRegistrationCodec;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.lang.reflect.Proxy;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * CPU and allocation cost of the in-process steps of send-otp and verify-otp, with Redis
+ * replaced by a map so only our own code is measured. BCrypt, the dominant step, is in
+ * {@link PasswordEncoderBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RegistrationBenchmark {
+    private static final Duration OTP_TTL = Duration.ofMinutes(5);
+
+    private OtpGenerator otpGenerator;
+    private RedisTemplate<String, String> redis;
+    private ObjectMapper objectMapper;
+    private UserMapper userMapper;
+    private UserRequest pendingUser;
+    private String pendingUserJson;
+    private PendingRegistrationCodec pendingCodec;
+    private String pendingUserCompact;
+    private User user;
+
+    @Setup
+    public void setUp() throws JsonProcessingException {
+        otpGenerator = new OtpGenerator(new OtpProperties());
+        redis = inMemoryRedis(new ConcurrentHashMap<>());
+        // Boot's defaults, as used by UserService
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        userMapper = new UserMapper();
+
+        pendingUser = new UserRequest();
+        pendingUser.setUsername("veer");
+        pendingUser.setEmail("veer@gmail.com");
+        pendingUser.setPassword("{bcrypt}$2a$10$N9qo8uLOickgx2ZMRZoMyeIjZAgcfl7p92ldGxad68LJZdL17lhWy");
+        pendingUserJson = objectMapper.writeValueAsString(pendingUser);
+        pendingCodec = new PendingRegistrationCodec(objectMapper, new PendingRegistrationProperties());
+        pendingUserCompact = pendingCodec.encode(pendingUser);
+
+        user = userMapper.toEntity(pendingUser);
+        user.setUpdated_at(LocalDateTime.now());
+    }
+
+    /**
+     * Draws an OTP and stores it under its key, the in-process part of issuing one.
+     */
+    @Benchmark
+    public String generateOtp() {
+        String otp = otpGenerator.next();
+        redis.opsForValue().set(OtpService.OTP_KEY_PREFIX + "{veer@gmail.com}", otp, OTP_TTL);
+        return otp;
+    }
+
+    @Benchmark
+    public String writePendingUser() throws JsonProcessingException {
+        return objectMapper.writeValueAsString(pendingUser);
+    }
+
+    @Benchmark
+    public UserRequest readPendingUser() throws JsonProcessingException {
+        return objectMapper.readValue(pendingUserJson, UserRequest.class);
+    }
+
+    @Benchmark
+    public String encodePendingUser() {
+        return pendingCodec.encode(pendingUser);
+    }
+
+    @Benchmark
+    public UserRequest decodePendingUser() {
+        return pendingCodec.decode(pendingUser.getEmail(), pendingUserCompact);
+    }
+
+    @Benchmark
+    public User toEntity() {
+        return userMapper.toEntity(pendingUser);
+    }
+
+    @Benchmark
+    public UserResponse toResponse() {
+        return userMapper.toResponse(user);
+    }
+
+    /**
+     * A template whose value operations write to {@code store}; nothing else is supported.
+     */
+    @SuppressWarnings("unchecked")
+    static RedisTemplate<String, String> inMemoryRedis(Map<String, String> store) {
+        ValueOperations<String, String> values = (ValueOperations<String, String>) Proxy.newProxyInstance(
+                RegistrationBenchmark.class.getClassLoader(), new Class<?>[]{ValueOperations.class},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "set" -> store.put((String) args[0], (String) args[1]);
+                    case "get" -> store.get(args[0]);
+                    default -> throw new UnsupportedOperationException(method.getName());
+                });
+        return new RedisTemplate<>() {
+            @Override
+            public ValueOperations<String, String> opsForValue() {
+                return values;
+            }
+        };
+    }
+}
@@ -0,0 +1,145 @@
+package com.example.userservice.cache;
+
+import com.example.userservice.config.SingleFlightProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SingleFlightTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final ExecutorService pool = Executors.newFixedThreadPool(8);
+    private final AtomicInteger loads = new AtomicInteger();
+
+    @AfterEach
+    void shutdown() {
+        pool.shutdownNow();
+    }
+
+    private SingleFlight<String, String> singleFlight(Duration resultTtl) {
+        SingleFlightProperties properties = new SingleFlightProperties();
+        properties.setResultTtl(resultTtl);
+        return new SingleFlight<>("test", properties, meterRegistry);
+    }
+
+    private Function<String, String> counting() {
+        return key -> key + "#" + loads.incrementAndGet();
+    }
+
+    private double calls(String result) {
+        return meterRegistry.get("user.singleflight.calls").tag("result", result).functionCounter().count();
+    }
+
+    private void awaitShared(int expected) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (calls("shared") < expected && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+    }
+
+    @Test
+    void concurrentCallers_shouldShareOneLoad() throws Exception {
+        SingleFlight<String, String> singleFlight = singleFlight(Duration.ZERO);
+        CountDownLatch release = new CountDownLatch(1);
+        Function<String, String> blocking = key -> {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return counting().apply(key);
+        };
+
+        List<Future<String>> results = new ArrayList<>();
+        results.add(pool.submit(() -> singleFlight.load("veer", blocking)));
+        while (calls("leader") < 1) {
+            Thread.sleep(5);
+        }
+        for (int i = 0; i < 7; i++) {
+            results.add(pool.submit(() -> singleFlight.load("veer", blocking)));
+        }
+        awaitShared(7);
+        release.countDown();
+
+        for (Future<String> result : results) {
+            assertEquals("veer#1", result.get(5, TimeUnit.SECONDS));
+        }
+        assertEquals(1, loads.get());
+        assertEquals(7.0 / 8, meterRegistry.get("user.singleflight.coalescing.ratio").gauge().value(), 1e-9);
+    }
+
+    @Test
+    void finishedResult_shouldBeReusedUntilTtlOrInvalidation() {
+        SingleFlight<String, String> singleFlight = singleFlight(Duration.ofMinutes(1));
+
+        assertEquals("veer#1", singleFlight.load("veer", counting()));
+        assertEquals("veer#1", singleFlight.load("veer", counting()));
+        assertEquals("rahul#2", singleFlight.load("rahul", counting()));
+
+        singleFlight.invalidate("veer");
+        assertEquals("veer#3", singleFlight.load("veer", counting()));
+    }
+
+    @Test
+    void zeroTtl_shouldOnlyShareRunningLoads() {
+        SingleFlight<String, String> singleFlight = singleFlight(Duration.ZERO);
+
+        singleFlight.load("veer", counting());
+        singleFlight.load("veer", counting());
+
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void failure_shouldReachWaitingCallersAndNotBeCached() throws Exception {
+        SingleFlight<String, String> singleFlight = singleFlight(Duration.ofMinutes(1));
+        CountDownLatch release = new CountDownLatch(1);
+        Function<String, String> failing = key -> {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            throw new IllegalStateException("database down");
+        };
+
+        Future<String> leader = pool.submit(() -> singleFlight.load("veer", failing));
+        while (calls("leader") < 1) {
+            Thread.sleep(5);
+        }
+        Future<String> follower = pool.submit(() -> singleFlight.load("veer", failing));
+        awaitShared(1);
+        release.countDown();
+
+        for (Future<String> caller : List.of(leader, follower)) {
+            Exception e = assertThrows(Exception.class, () -> caller.get(5, TimeUnit.SECONDS));
+            assertInstanceOf(IllegalStateException.class, e.getCause());
+        }
+        assertEquals("veer#1", singleFlight.load("veer", counting()));
+    }
+
+    @Test
+    void disabled_shouldCallLoaderEveryTime() {
+        SingleFlightProperties properties = new SingleFlightProperties();
+        properties.setEnabled(false);
+        SingleFlight<String, String> singleFlight = new SingleFlight<>("test", properties, meterRegistry);
+
+        singleFlight.load("veer", counting());
+        singleFlight.load("veer", counting());
+
+        assertEquals(2, loads.get());
+    }
+}
@@ -0,0 +1,202 @@
+package com.example.userservice.cache;
+
+import com.example.userservice.config.ExistenceIndexProperties;
+import com.example.userservice.config.SingleFlightProperties;
+import com.example.userservice.dto.BulkUserRow;
+import com.example.userservice.dto.UserIdentityView;
+import com.example.userservice.repository.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.connection.DefaultMessage;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.transaction.PlatformTransactionManager;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class UserExistenceIndexTest {
+
+    @Mock UserRepository userRepository;
+    @Mock RedisTemplate<String, String> redisTemplate;
+    @Mock RedisMessageListenerContainer listenerContainer;
+    @Mock PlatformTransactionManager transactionManager;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private UserExistenceIndex index;
+
+    private static UserIdentityView identity(String username, String email) {
+        return new UserIdentityView() {
+            @Override
+            public String getUsername() {
+                return username;
+            }
+
+            @Override
+            public String getEmail() {
+                return email;
+            }
+        };
+    }
+
+    @BeforeEach
+    void setup() {
+        ExistenceIndexProperties properties = new ExistenceIndexProperties();
+        properties.setExpectedInsertions(1_000);
+        index = new UserExistenceIndex(userRepository, redisTemplate, listenerContainer,
+                properties, meterRegistry, transactionManager, new SingleFlightProperties());
+        index.registerMetrics();
+    }
+
+    @Test
+    void beforeSeeding_shouldAskDatabase() {
+        when(userRepository.existsByUsername("veer")).thenReturn(true);
+
+        assertTrue(index.usernameExists("veer"));
+        verify(userRepository).existsByUsername("veer");
+    }
+
+    @Test
+    void afterSeeding_negativeAnswer_shouldSkipDatabase() {
+        when(userRepository.streamAllIdentities()).thenReturn(Stream.of(identity("veer", "veer@gmail.com")));
+        index.rebuild();
+
+        assertFalse(index.usernameExists("someone-else"));
+        assertFalse(index.emailExists("someone@gmail.com"));
+        verify(userRepository, never()).existsByUsername(anyString());
+        verify(userRepository, never()).existsByEmail(anyString());
+    }
+
+    @Test
+    void afterSeeding_maybeAnswer_shouldFallThroughToDatabase() {
+        when(userRepository.streamAllIdentities()).thenReturn(Stream.of(identity("veer", "veer@gmail.com")));
+        when(userRepository.existsByEmail("veer@gmail.com")).thenReturn(true);
+        index.rebuild();
+
+        assertTrue(index.emailExists("veer@gmail.com"));
+        verify(userRepository).existsByEmail("veer@gmail.com");
+    }
+
+    @Test
+    void emailLookup_shouldIgnoreCase_evenForMixedCaseRows() {
+        when(userRepository.streamAllIdentities()).thenReturn(Stream.of(identity("veer", "Veer@Gmail.com")));
+        when(userRepository.existsByEmail("veer@gmail.com")).thenReturn(true);
+        index.rebuild();
+
+        assertTrue(index.emailExists(" VEER@gmail.com "));
+        verify(userRepository).existsByEmail("veer@gmail.com");
+    }
+
+    @Test
+    void reactiveLookup_shouldOnlySubscribeToDatabaseWhenFilterCannotRuleOut() {
+        when(userRepository.streamAllIdentities()).thenReturn(Stream.of(identity("veer", "veer@gmail.com")));
+        index.rebuild();
+        int[] databaseCalls = {0};
+
+        StepVerifier.create(index.usernameExists("someone-else", name -> {
+                    databaseCalls[0]++;
+                    return Mono.just(false);
+                }))
+                .expectNext(false)
+                .verifyComplete();
+        StepVerifier.create(index.usernameExists("veer", name -> {
+                    databaseCalls[0]++;
+                    return Mono.just(true);
+                }))
+                .expectNext(true)
+                .verifyComplete();
+
+        assertEquals(1, databaseCalls[0]);
+    }
+
+    @Test
+    void recordUser_shouldUpdateFilterAndPublish() {
+        when(userRepository.streamAllIdentities()).thenReturn(Stream.empty());
+        when(userRepository.existsByUsername("rahul")).thenReturn(true);
+        index.rebuild();
+
+        index.recordUser("rahul", "rahul@gmail.com");
+
+        assertTrue(index.usernameExists("rahul"));
+        verify(redisTemplate).convertAndSend(UserExistenceIndex.CHANNEL, "u:rahul");
+        verify(redisTemplate).convertAndSend(UserExistenceIndex.CHANNEL, "e:rahul@gmail.com");
+    }
+
+    @Test
+    void repeatedDatabaseChecks_shouldShareAnswerUntilUserIsRecorded() {
+        when(userRepository.existsByUsername("rahul")).thenReturn(false, true);
+
+        assertFalse(index.usernameExists("rahul"));
+        assertFalse(index.usernameExists("rahul"));
+        verify(userRepository, times(1)).existsByUsername("rahul");
+
+        index.recordUser("rahul", "rahul@gmail.com");
+
+        assertTrue(index.usernameExists("rahul"));
+        verify(userRepository, times(2)).existsByUsername("rahul");
+    }
+
+    @Test
+    void recordUsers_shouldPublishWholeBatchInOneMessage() {
+        when(userRepository.streamAllIdentities()).thenReturn(Stream.empty());
+        when(userRepository.existsByEmail("b@gmail.com")).thenReturn(true);
+        index.rebuild();
+
+        index.recordUsers(List.of(new BulkUserRow("a", "a@gmail.com", null, null),
+                new BulkUserRow("b", "b@gmail.com", null, null)));
+
+        assertTrue(index.emailExists("b@gmail.com"));
+        verify(redisTemplate).convertAndSend(UserExistenceIndex.CHANNEL, "u:a\ne:a@gmail.com\nu:b\ne:b@gmail.com");
+        verifyNoMoreInteractions(redisTemplate);
+    }
+
+    @Test
+    void onMessage_withSeveralEntries_shouldAddEveryUser() {
+        when(userRepository.streamAllIdentities()).thenReturn(Stream.empty());
+        when(userRepository.existsByUsername(anyString())).thenReturn(true);
+        index.rebuild();
+
+        index.onMessage(new DefaultMessage(UserExistenceIndex.CHANNEL.getBytes(StandardCharsets.UTF_8),
+                "u:a\ne:a@gmail.com\nu:b".getBytes(StandardCharsets.UTF_8)), null);
+
+        assertTrue(index.usernameExists("a"));
+        assertTrue(index.usernameExists("b"));
+    }
+
+    @Test
+    void onMessage_shouldAddUserFromOtherReplica() {
+        when(userRepository.streamAllIdentities()).thenReturn(Stream.empty());
+        when(userRepository.existsByUsername("rahul")).thenReturn(true);
+        index.rebuild();
+
+        index.onMessage(new DefaultMessage(UserExistenceIndex.CHANNEL.getBytes(StandardCharsets.UTF_8),
+                "u:rahul".getBytes(StandardCharsets.UTF_8)), null);
+
+        assertTrue(index.usernameExists("rahul"));
+    }
+
+    @Test
+    void metrics_shouldReportRebuildsAndFalsePositiveRate() {
+        when(userRepository.streamAllIdentities()).thenReturn(Stream.of(identity("veer", "veer@gmail.com")));
+        when(userRepository.existsByUsername("veer")).thenReturn(false); // deleted since the rebuild
+        index.rebuild();
+
+        index.usernameExists("veer");
+        index.usernameExists("nobody");
+
+        assertEquals(1, meterRegistry.get("user.existence.index.rebuild").timer().count());
+        assertEquals(0.5, meterRegistry.get("user.existence.index.observed.fpp").gauge().value());
+        assertEquals(1, meterRegistry.get("user.existence.index.size").gauge().value());
+    }
+}
@@ -0,0 +1,182 @@
+package com.example.userservice.cache;
+
+import com.example.userservice.config.ProfileCacheProperties;
+import com.example.userservice.config.SingleFlightProperties;
+import com.example.userservice.dto.UserResponse;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.connection.DefaultMessage;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class UserProfileCacheTest {
+
+    @Mock RedisTemplate<String, String> redisTemplate;
+    @Mock ValueOperations<String, String> valueOperations;
+    @Mock RedisMessageListenerContainer listenerContainer;
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private UserProfileCache cache;
+
+    @BeforeEach
+    void setup() {
+        cache = new UserProfileCache(redisTemplate, listenerContainer, objectMapper,
+                new ProfileCacheProperties(), new SingleFlightProperties(), meterRegistry);
+        cache.init();
+    }
+
+    private static UserResponse profile(String username) {
+        UserResponse response = new UserResponse();
+        response.setUsername(username);
+        response.setEmail(username + "@gmail.com");
+        return response;
+    }
+
+    private static Function<String, UserResponse> countingLoader(AtomicInteger calls) {
+        return username -> {
+            calls.incrementAndGet();
+            return profile(username);
+        };
+    }
+
+    @Test
+    void get_shouldLoadOnceAndServeFromLocalTier() {
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        AtomicInteger loads = new AtomicInteger();
+
+        cache.get("veer", countingLoader(loads));
+        UserResponse second = cache.get("veer", countingLoader(loads));
+
+        assertEquals("veer", second.getUsername());
+        assertEquals(1, loads.get());
+        verify(valueOperations, times(1)).get("cache:user:veer");
+        verify(valueOperations).setIfAbsent(eq("cache:user:veer"), anyString(), eq(Duration.ofMinutes(10)));
+    }
+
+    @Test
+    void get_shouldUseRedisTierBeforeLoader() throws Exception {
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(valueOperations.get("cache:user:veer")).thenReturn(objectMapper.writeValueAsString(profile("veer")));
+        AtomicInteger loads = new AtomicInteger();
+
+        UserResponse result = cache.get("veer", countingLoader(loads));
+
+        assertEquals("veer@gmail.com", result.getEmail());
+        assertEquals(0, loads.get());
+        assertEquals(1, meterRegistry.get("user.profile.cache.redis").tag("result", "hit").counter().count());
+    }
+
+    @Test
+    void get_shouldFallBackToLoaderWhenRedisIsDown() {
+        when(redisTemplate.opsForValue()).thenThrow(new RuntimeException("Redis down"));
+        AtomicInteger loads = new AtomicInteger();
+
+        UserResponse result = cache.get("veer", countingLoader(loads));
+
+        assertEquals("veer", result.getUsername());
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void evict_shouldClearBothTiersAndNotifyReplicas() {
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        AtomicInteger loads = new AtomicInteger();
+        cache.get("veer", countingLoader(loads));
+
+        cache.evict("veer");
+        cache.get("veer", countingLoader(loads));
+
+        assertEquals(2, loads.get());
+        verify(valueOperations).set("cache:user:veer", UserProfileCache.TOMBSTONE, Duration.ofSeconds(30));
+        verify(redisTemplate).convertAndSend(UserProfileCache.EVICT_CHANNEL, "veer");
+        assertEquals(1, meterRegistry.get("user.profile.cache.evictions").counter().count());
+    }
+
+    @Test
+    void onMessage_shouldDropLocalCopy() {
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        AtomicInteger loads = new AtomicInteger();
+        cache.get("veer", countingLoader(loads));
+
+        cache.onMessage(new DefaultMessage(UserProfileCache.EVICT_CHANNEL.getBytes(StandardCharsets.UTF_8),
+                "veer".getBytes(StandardCharsets.UTF_8)), null);
+        cache.get("veer", countingLoader(loads));
+
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void get_shouldNotCacheLoadThatRacedAnEviction() throws Exception {
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch evicted = new CountDownLatch(1);
+        UserResponse stale = profile("veer");
+
+        CompletableFuture<UserResponse> slowLoad = CompletableFuture.supplyAsync(() -> cache.get("veer", username -> {
+            loading.countDown();
+            try {
+                evicted.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return stale;
+        }));
+        assertTrue(loading.await(5, TimeUnit.SECONDS));
+        cache.evict("veer");
+        evicted.countDown();
+
+        assertSame(stale, slowLoad.get(5, TimeUnit.SECONDS));
+        verify(valueOperations, never()).setIfAbsent(anyString(), anyString(), any(Duration.class));
+        AtomicInteger loads = new AtomicInteger();
+        assertNotSame(stale, cache.get("veer", countingLoader(loads)));
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void get_shouldNotCacheLoadThatRacedAnotherReplicasEviction() {
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        AtomicInteger loads = new AtomicInteger();
+
+        cache.get("veer", username -> {
+            cache.onMessage(new DefaultMessage(UserProfileCache.EVICT_CHANNEL.getBytes(StandardCharsets.UTF_8),
+                    "veer".getBytes(StandardCharsets.UTF_8)), null);
+            return profile(username);
+        });
+        cache.get("veer", countingLoader(loads));
+
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void get_shouldTreatTombstoneAsMiss() {
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(valueOperations.get("cache:user:veer")).thenReturn(UserProfileCache.TOMBSTONE);
+        AtomicInteger loads = new AtomicInteger();
+
+        UserResponse result = cache.get("veer", countingLoader(loads));
+
+        assertEquals("veer", result.getUsername());
+        assertEquals(1, loads.get());
+        assertEquals(1, meterRegistry.get("user.profile.cache.redis").tag("result", "miss").counter().count());
+    }
+}
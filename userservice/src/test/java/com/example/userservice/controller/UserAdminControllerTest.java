@@ -0,0 +1,101 @@
+package com.example.userservice.controller;
+
+import com.example.userservice.config.BulkUserProperties;
+import com.example.userservice.dto.ImportReport;
+import com.example.userservice.dto.UserPage;
+import com.example.userservice.dto.UserSummary;
+import com.example.userservice.service.BulkUserService;
+import com.example.userservice.service.UserService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+class UserAdminControllerTest {
+
+    private MockMvc mockMvc;
+
+    @Mock
+    private BulkUserService bulkUserService;
+
+    @Mock
+    private UserService userService;
+
+    private final BulkUserProperties properties = new BulkUserProperties();
+
+    @BeforeEach
+    void setup() {
+        MockitoAnnotations.openMocks(this);
+        properties.setAdminToken("s3cret");
+        mockMvc = MockMvcBuilders.standaloneSetup(new UserAdminController(bulkUserService, userService, properties)).build();
+    }
+
+    @Test
+    void import_shouldPassCsvBodyToServiceAndReturnReport() throws Exception {
+        ImportReport report = new ImportReport();
+        report.setImported(1);
+        when(bulkUserService.importUsers(any(InputStream.class), eq(BulkUserService.Format.CSV))).thenReturn(report);
+
+        mockMvc.perform(post("/user/admin/import")
+                        .header("X-Admin-Token", "s3cret")
+                        .contentType("text/csv")
+                        .content("username,email,password\nveer,veer@gmail.com,x\n"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.imported").value(1));
+    }
+
+    @Test
+    void wrongOrMissingToken_shouldBeForbidden() throws Exception {
+        mockMvc.perform(post("/user/admin/import").contentType("application/x-ndjson").content("{}"))
+                .andExpect(status().isForbidden());
+        mockMvc.perform(get("/user/admin/export").header("X-Admin-Token", "guess"))
+                .andExpect(status().isForbidden());
+
+        properties.setAdminToken("");
+        mockMvc.perform(get("/user/admin/export").header("X-Admin-Token", ""))
+                .andExpect(status().isForbidden());
+        mockMvc.perform(get("/user/list"))
+                .andExpect(status().isForbidden());
+        verifyNoInteractions(bulkUserService, userService);
+    }
+
+    @Test
+    void export_shouldStreamAsAttachment() throws Exception {
+        mockMvc.perform(get("/user/admin/export").param("format", "csv").header("X-Admin-Token", "s3cret"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Type", "text/csv;charset=UTF-8"))
+                .andExpect(header().string("Content-Disposition", "attachment; filename=\"users.csv\""));
+
+        verify(bulkUserService).exportUsers(any(OutputStream.class), eq(BulkUserService.Format.CSV));
+    }
+
+    @Test
+    void list_shouldReturnPageWithNextCursor() throws Exception {
+        UserSummary user = new UserSummary(UUID.randomUUID(), "veer", "veer@gmail.com",
+                LocalDateTime.of(2025, 3, 1, 10, 0));
+        when(userService.listUsers("abc", 1, "ve")).thenReturn(new UserPage(List.of(user), "def"));
+
+        mockMvc.perform(get("/user/list")
+                        .header("X-Admin-Token", "s3cret")
+                        .param("after", "abc")
+                        .param("size", "1")
+                        .param("q", "ve"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.users[0].username").value("veer"))
+                .andExpect(jsonPath("$.nextCursor").value("def"));
+    }
+}
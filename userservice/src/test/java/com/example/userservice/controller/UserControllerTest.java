@@ -18,6 +18,7 @@ import org.springframework.test.web.servlet.MockMvc;
 import java.util.UUID;
 
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.Mockito.when;
 
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -66,6 +67,17 @@ class UserControllerTest {
                 .andExpect(content().string("OTP Sent"));
     }
 
+    @Test
+    void sendOtp_shouldNormalizeEmailBeforeTheService() throws Exception {
+        when(userService.sendOtp(argThat(req -> "veer@gmail.com".equals(req.getEmail())))).thenReturn("OTP Sent");
+
+        mockMvc.perform(post("/user/send-otp")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"username\":\"veer\",\"email\":\" Veer@Gmail.COM \",\"password\":\"123\"}"))
+                .andExpect(status().isOk())
+                .andExpect(content().string("OTP Sent"));
+    }
+
     @Test
     void verifyOtp_shouldReturnStatus() throws Exception {
         VerifyOtpRequest req = new VerifyOtpRequest();
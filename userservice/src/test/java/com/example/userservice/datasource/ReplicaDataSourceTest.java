@@ -0,0 +1,122 @@
+package com.example.userservice.datasource;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class ReplicaDataSourceTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final DataSource primary = mock(DataSource.class);
+    private final Connection primaryConnection = mock(Connection.class);
+
+    @BeforeEach
+    void setup() throws SQLException {
+        when(primary.getConnection()).thenReturn(primaryConnection);
+    }
+
+    @Test
+    void beforeFirstCheck_readsShouldStayOnPrimary() throws Exception {
+        ReplicaDataSource dataSource = replicas(replicaWithLag(0));
+
+        assertSame(primaryConnection, dataSource.getConnection());
+        assertEquals(1.0, meterRegistry.get("user.db.read.connections").tag("target", "primary").counter().count());
+    }
+
+    @Test
+    void healthyReplicas_shouldTakeReadsInTurn() throws Exception {
+        DataSource first = replicaWithLag(0.2);
+        DataSource second = replicaWithLag(0);
+        ReplicaDataSource dataSource = replicas(first, second);
+        dataSource.checkReplicas();
+
+        dataSource.getConnection();
+        dataSource.getConnection();
+        dataSource.getConnection();
+
+        // one connection each for the check, plus the reads
+        verify(first, times(3)).getConnection();
+        verify(second, times(2)).getConnection();
+        verify(primary, never()).getConnection();
+    }
+
+    @Test
+    void laggingReplica_shouldBeSkippedUntilItCatchesUp() throws Exception {
+        DataSource lagging = replicaWithLag(30);
+        DataSource healthy = replicaWithLag(0);
+        ReplicaDataSource dataSource = replicas(lagging, healthy);
+        dataSource.checkReplicas();
+
+        for (int i = 0; i < 4; i++) {
+            dataSource.getConnection();
+        }
+
+        verify(lagging, times(1)).getConnection();
+        verify(healthy, times(5)).getConnection();
+        assertEquals(30.0, meterRegistry.get("user.db.replica.lag").tag("replica", "r0").gauge().value());
+        assertEquals(0.0, meterRegistry.get("user.db.replica.usable").tag("replica", "r0").gauge().value());
+    }
+
+    @Test
+    void unreachableReplica_shouldFallBackToPrimary() throws Exception {
+        DataSource replica = replicaWithLag(0);
+        ReplicaDataSource dataSource = replicas(replica);
+        dataSource.checkReplicas();
+        when(replica.getConnection()).thenThrow(new SQLTransientConnectionException("timeout", "08001",
+                new SQLException("Connection refused", "08001")));
+
+        assertSame(primaryConnection, dataSource.getConnection());
+        // marked down, so the next read does not wait for it again
+        assertSame(primaryConnection, dataSource.getConnection());
+        verify(replica, times(2)).getConnection();
+    }
+
+    @Test
+    void busyReplicaPool_shouldNotTakeReplicaOutOfRotation() throws Exception {
+        DataSource replica = replicaWithLag(0);
+        Connection replicaConnection = replica.getConnection();
+        ReplicaDataSource dataSource = replicas(replica);
+        dataSource.checkReplicas();
+        when(replica.getConnection())
+                .thenThrow(new SQLTransientConnectionException("Connection is not available, request timed out"))
+                .thenReturn(replicaConnection);
+
+        assertSame(primaryConnection, dataSource.getConnection());
+        assertSame(replicaConnection, dataSource.getConnection());
+        assertEquals(1.0, meterRegistry.get("user.db.replica.usable").tag("replica", "r0").gauge().value());
+    }
+
+    private ReplicaDataSource replicas(DataSource... dataSources) {
+        List<ReplicaDataSource.Replica> replicas = new ArrayList<>();
+        for (int i = 0; i < dataSources.length; i++) {
+            replicas.add(new ReplicaDataSource.Replica("r" + i, dataSources[i]));
+        }
+        return new ReplicaDataSource(replicas, primary, Duration.ofSeconds(5), meterRegistry);
+    }
+
+    private static DataSource replicaWithLag(double lagSeconds) throws SQLException {
+        DataSource dataSource = mock(DataSource.class);
+        Connection connection = mock(Connection.class);
+        Statement statement = mock(Statement.class);
+        ResultSet result = mock(ResultSet.class);
+        when(dataSource.getConnection()).thenReturn(connection);
+        when(connection.createStatement()).thenReturn(statement);
+        when(statement.executeQuery(ReplicaDataSource.LAG_QUERY)).thenReturn(result);
+        when(result.next()).thenReturn(true);
+        when(result.getDouble(1)).thenReturn(lagSeconds);
+        return dataSource;
+    }
+}
@@ -0,0 +1,191 @@
+package com.example.userservice.outbox;
+
+import com.example.userservice.config.OutboxProperties;
+import com.example.userservice.dto.OtpSendRequest;
+import com.example.userservice.dto.OtpSendResult;
+import com.example.userservice.dto.OtpSendResult.Status;
+import com.example.userservice.service.NotificationCaller;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.InvalidDataAccessApiUsageException;
+import org.springframework.data.domain.Range;
+import org.springframework.data.redis.connection.stream.Consumer;
+import org.springframework.data.redis.connection.stream.MapRecord;
+import org.springframework.data.redis.connection.stream.PendingMessage;
+import org.springframework.data.redis.connection.stream.PendingMessages;
+import org.springframework.data.redis.connection.stream.RecordId;
+import org.springframework.data.redis.connection.stream.StreamInfo.XInfoConsumers;
+import org.springframework.data.redis.connection.stream.StreamOffset;
+import org.springframework.data.redis.connection.stream.StreamReadOptions;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.StreamOperations;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class OtpOutboxRelayTest {
+
+    private static final String STREAM = "outbox:notification:otp";
+    private static final String GROUP = "otp-relay";
+
+    @Mock
+    private RedisTemplate<String, String> redisTemplate;
+    @Mock
+    private StreamOperations<String, Object, Object> streamOps;
+    @Mock
+    private NotificationCaller notificationCaller;
+
+    private final OutboxProperties properties = new OutboxProperties();
+    private OtpOutboxRelay relay;
+
+    @BeforeEach
+    void setUp() {
+        lenient().when(redisTemplate.<Object, Object>opsForStream()).thenReturn(streamOps);
+        lenient().when(streamOps.pending(eq(STREAM), eq(GROUP), any(Range.class), anyLong()))
+                .thenReturn(new PendingMessages(GROUP, List.of()));
+        relay = new OtpOutboxRelay(redisTemplate, notificationCaller, properties, new SimpleMeterRegistry());
+    }
+
+    private static MapRecord<String, Object, Object> record(long timestamp, String email) {
+        Map<Object, Object> fields = Map.of("email", email, "otp", "123456",
+                "purpose", "Registration", "idempotencyKey", "key-" + email);
+        return MapRecord.<String, Object, Object>create(STREAM, fields)
+                .withId(RecordId.of(timestamp, 0));
+    }
+
+    private static List<OtpSendResult> results(Status... statuses) {
+        List<OtpSendResult> results = new java.util.ArrayList<>();
+        for (int i = 0; i < statuses.length; i++) {
+            results.add(new OtpSendResult(i, statuses[i], statuses[i].name()));
+        }
+        return results;
+    }
+
+    @SuppressWarnings("unchecked")
+    private void readReturns(List<MapRecord<String, Object, Object>> records) {
+        when(streamOps.read(any(Consumer.class), any(StreamReadOptions.class), any(StreamOffset[].class)))
+                .thenReturn(records);
+    }
+
+    private static XInfoConsumers consumers(long idleMs) {
+        return XInfoConsumers.fromList("notification-workers",
+                List.of(List.of("name", "notifier-1", "pending", 0L, "idle", idleMs)));
+    }
+
+    @Test
+    void start_refusesWhileNotificationserviceConsumesTheStream() {
+        when(streamOps.consumers(STREAM, "notification-workers")).thenReturn(consumers(500));
+
+        IllegalStateException e = assertThrows(IllegalStateException.class, () -> relay.start());
+        assertEquals("notificationservice consumer notifier-1 is still reading " + STREAM
+                + "; set notification.outbox.transport=http on notificationservice too", e.getMessage());
+    }
+
+    @Test
+    void checkNoNotifierConsumers_ignoresIdleOrMissingGroup() {
+        when(streamOps.consumers(STREAM, "notification-workers"))
+                .thenReturn(consumers(Duration.ofMinutes(5).toMillis()))
+                .thenThrow(new InvalidDataAccessApiUsageException("NOGROUP No such consumer group"));
+
+        assertDoesNotThrow(() -> relay.checkNoNotifierConsumers());
+        assertDoesNotThrow(() -> relay.checkNoNotifierConsumers());
+    }
+
+    @Test
+    void relayOnce_deliversBatch_thenAcksAndDeletes() {
+        long now = System.currentTimeMillis();
+        MapRecord<String, Object, Object> first = record(now, "a@x.com");
+        MapRecord<String, Object, Object> second = record(now + 1, "b@x.com");
+        readReturns(List.of(first, second));
+        when(notificationCaller.deliverBatch(any())).thenReturn(results(Status.ACCEPTED, Status.DUPLICATE));
+
+        assertEquals(2, relay.relayOnce());
+
+        verify(streamOps).createGroup(eq(STREAM), any(), eq(GROUP));
+        verify(notificationCaller).deliverBatch(List.of(
+                new OtpSendRequest("a@x.com", "123456", "Registration", "key-a@x.com"),
+                new OtpSendRequest("b@x.com", "123456", "Registration", "key-b@x.com")));
+        verify(streamOps).acknowledge(STREAM, GROUP, first.getId(), second.getId());
+        verify(streamOps).delete(STREAM, first.getId(), second.getId());
+    }
+
+    @Test
+    void relayOnce_leavesRejectedEntriesPending_andDropsInvalidOnes() {
+        long now = System.currentTimeMillis();
+        MapRecord<String, Object, Object> first = record(now, "a@x.com");
+        MapRecord<String, Object, Object> second = record(now + 1, "b@x.com");
+        MapRecord<String, Object, Object> third = record(now + 2, "c@x.com");
+        readReturns(List.of(first, second, third));
+        when(notificationCaller.deliverBatch(any())).thenReturn(results(Status.ACCEPTED, Status.REJECTED, Status.INVALID));
+
+        assertEquals(2, relay.relayOnce());
+
+        verify(streamOps).acknowledge(STREAM, GROUP, first.getId(), third.getId());
+        verify(streamOps).delete(STREAM, first.getId(), third.getId());
+    }
+
+    @Test
+    void relayOnce_leavesWholeBatchPending_whenNotifierIsDown() {
+        readReturns(List.of(record(System.currentTimeMillis(), "a@x.com")));
+        when(notificationCaller.deliverBatch(any())).thenThrow(new RuntimeException("notifier down"));
+
+        assertEquals(0, relay.relayOnce());
+
+        verify(streamOps, never()).acknowledge(anyString(), anyString(), any(RecordId[].class));
+    }
+
+    @Test
+    void relayOnce_dropsEntriesOlderThanOtpLifetime() {
+        MapRecord<String, Object, Object> stale = record(System.currentTimeMillis() - Duration.ofMinutes(10).toMillis(), "a@x.com");
+        readReturns(List.of(stale));
+
+        assertEquals(1, relay.relayOnce());
+
+        verifyNoInteractions(notificationCaller);
+        verify(streamOps).acknowledge(STREAM, GROUP, stale.getId());
+    }
+
+    @Test
+    void relayOnce_claimsEntriesIdleLongerThanClaimIdle() {
+        MapRecord<String, Object, Object> orphan = record(System.currentTimeMillis(), "a@x.com");
+        PendingMessage idle = new PendingMessage(orphan.getId(), Consumer.from(GROUP, "dead-replica"),
+                Duration.ofMinutes(1), 1);
+        PendingMessage fresh = new PendingMessage(RecordId.of(1, 1), Consumer.from(GROUP, "live-replica"),
+                Duration.ofSeconds(1), 1);
+        when(streamOps.pending(eq(STREAM), eq(GROUP), any(Range.class), anyLong()))
+                .thenReturn(new PendingMessages(GROUP, List.of(idle, fresh)));
+        when(streamOps.claim(eq(STREAM), eq(GROUP), anyString(), eq(properties.getClaimIdle()), eq(orphan.getId())))
+                .thenReturn(List.of(orphan));
+        readReturns(List.of());
+        when(notificationCaller.deliverBatch(any())).thenReturn(results(Status.ACCEPTED));
+
+        assertEquals(1, relay.relayOnce());
+
+        verify(notificationCaller).deliverBatch(any());
+        verify(streamOps).acknowledge(STREAM, GROUP, orphan.getId());
+    }
+
+    @Test
+    void start_doesNothing_whenNotificationserviceReadsTheStream() {
+        properties.setTransport(OutboxProperties.Transport.STREAM);
+
+        relay.start();
+
+        verify(redisTemplate, never()).opsForStream();
+    }
+}
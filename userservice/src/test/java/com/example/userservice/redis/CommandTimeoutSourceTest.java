@@ -0,0 +1,43 @@
+package com.example.userservice.redis;
+
+import io.lettuce.core.codec.StringCodec;
+import io.lettuce.core.output.StatusOutput;
+import io.lettuce.core.protocol.Command;
+import io.lettuce.core.protocol.CommandType;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CommandTimeoutSourceTest {
+
+    private final CommandTimeoutSource source = new CommandTimeoutSource(Duration.ofMillis(500));
+
+    private static Command<String, String, String> command(CommandType type) {
+        return new Command<>(type, new StatusOutput<>(StringCodec.UTF8));
+    }
+
+    // -----------------------------------------------------
+    // TEST 1: ordinary commands get the configured timeout
+    // -----------------------------------------------------
+    @Test
+    void getTimeout_shouldApplyToOrdinaryCommands() {
+        long expected = TimeUnit.MILLISECONDS.toNanos(500);
+
+        assertEquals(TimeUnit.NANOSECONDS, source.getTimeUnit());
+        assertEquals(expected, source.getTimeout(command(CommandType.GET)));
+        assertEquals(expected, source.getTimeout(command(CommandType.EVALSHA)));
+        assertEquals(expected, source.getTimeout(command(CommandType.XADD)));
+    }
+
+    // -----------------------------------------------------
+    // TEST 2: blocking reads such as the outbox relay's XREADGROUP get no timer
+    // -----------------------------------------------------
+    @Test
+    void getTimeout_shouldSkipBlockingCommands() {
+        assertEquals(0, source.getTimeout(command(CommandType.XREADGROUP)));
+        assertEquals(0, source.getTimeout(command(CommandType.BLPOP)));
+    }
+}
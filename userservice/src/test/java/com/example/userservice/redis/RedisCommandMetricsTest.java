@@ -0,0 +1,112 @@
+package com.example.userservice.redis;
+
+import io.lettuce.core.RedisCommandTimeoutException;
+import io.lettuce.core.codec.ByteArrayCodec;
+import io.lettuce.core.event.command.CommandFailedEvent;
+import io.lettuce.core.event.command.CommandStartedEvent;
+import io.lettuce.core.event.command.CommandSucceededEvent;
+import io.lettuce.core.output.StatusOutput;
+import io.lettuce.core.protocol.Command;
+import io.lettuce.core.protocol.CommandArgs;
+import io.lettuce.core.protocol.CommandType;
+import io.lettuce.core.protocol.RedisCommand;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RedisCommandMetricsTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final RedisCommandMetrics metrics = new RedisCommandMetrics(meterRegistry, false);
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static RedisCommand<Object, Object, Object> command(CommandType type, String... keys) {
+        CommandArgs<byte[], byte[]> args = new CommandArgs<>(ByteArrayCodec.INSTANCE);
+        for (String key : keys) {
+            args.addKey(key.getBytes(StandardCharsets.UTF_8));
+        }
+        return (RedisCommand) new Command<>(type, new StatusOutput<>(ByteArrayCodec.INSTANCE), args);
+    }
+
+    private Map<String, Object> start(RedisCommand<Object, Object, Object> command) {
+        CommandStartedEvent started = new CommandStartedEvent(command, System.currentTimeMillis());
+        metrics.commandStarted(started);
+        return started.getContext();
+    }
+
+    private Timer timer(String command, String keyspace, String outcome) {
+        return meterRegistry.find(RedisCommandMetrics.METRIC)
+                .tags("command", command, "keyspace", keyspace, "outcome", outcome)
+                .timer();
+    }
+
+    // -----------------------------------------------------
+    // TEST 1: first key decides the keyspace tag
+    // -----------------------------------------------------
+    @Test
+    void keyspace_shouldFollowKeyPrefix() {
+        assertEquals(RedisCommandMetrics.Keyspace.OTP, keyspace("OTP_{veer@gmail.com}"));
+        assertEquals(RedisCommandMetrics.Keyspace.PENDING, keyspace("tmp:user:{veer@gmail.com}"));
+        assertEquals(RedisCommandMetrics.Keyspace.THROTTLE, keyspace("otp:cooldown:{veer@gmail.com}"));
+        assertEquals(RedisCommandMetrics.Keyspace.OTHER, keyspace("user:profile:veer"));
+        assertEquals(RedisCommandMetrics.Keyspace.OTHER, keyspace("OTP"));
+        assertEquals(RedisCommandMetrics.Keyspace.OTHER, RedisCommandMetrics.Keyspace.of(null));
+    }
+
+    private static RedisCommandMetrics.Keyspace keyspace(String key) {
+        return RedisCommandMetrics.Keyspace.of(ByteBuffer.wrap(key.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    // -----------------------------------------------------
+    // TEST 2: a successful command is timed under its command and keyspace
+    // -----------------------------------------------------
+    @Test
+    void commandSucceeded_shouldRecordLatency() {
+        RedisCommand<Object, Object, Object> set = command(CommandType.SET, "tmp:user:{veer@gmail.com}");
+        Map<String, Object> context = start(set);
+
+        metrics.commandSucceeded(new CommandSucceededEvent(set, context, 0, 0));
+
+        Timer timer = timer("SET", "pending", "success");
+        assertNotNull(timer);
+        assertEquals(1, timer.count());
+    }
+
+    // -----------------------------------------------------
+    // TEST 3: timeouts and other failures are told apart
+    // -----------------------------------------------------
+    @Test
+    void commandFailed_shouldRecordTimeoutsSeparately() {
+        RedisCommand<Object, Object, Object> get = command(CommandType.GET, "OTP_{veer@gmail.com}");
+        metrics.commandFailed(new CommandFailedEvent(get, start(get), new RedisCommandTimeoutException("slow")));
+        RedisCommand<Object, Object, Object> del = command(CommandType.DEL, "OTP_{veer@gmail.com}");
+        metrics.commandFailed(new CommandFailedEvent(del, start(del), new IllegalStateException("boom")));
+
+        assertEquals(1, timer("GET", "otp", "timeout").count());
+        assertEquals(1, timer("DEL", "otp", "error").count());
+    }
+
+    // -----------------------------------------------------
+    // TEST 4: scripts are attributed to their first key, keyless commands to "other"
+    // -----------------------------------------------------
+    @Test
+    void commands_withScriptsOrNoKeys_shouldStillBeTagged() {
+        RedisCommand<Object, Object, Object> evalsha = command(CommandType.EVALSHA,
+                "OTP_{veer@gmail.com}", "tmp:user:{veer@gmail.com}");
+        metrics.commandSucceeded(new CommandSucceededEvent(evalsha, start(evalsha), 0, 0));
+        RedisCommand<Object, Object, Object> ping = command(CommandType.PING);
+        metrics.commandSucceeded(new CommandSucceededEvent(ping, start(ping), 0, 0));
+        // never seen starting, e.g. issued before the listener was registered
+        metrics.commandSucceeded(new CommandSucceededEvent(ping, new HashMap<>(), 0, 0));
+
+        assertEquals(1, timer("EVALSHA", "otp", "success").count());
+        assertEquals(1, timer("PING", "other", "success").count());
+    }
+}
@@ -0,0 +1,88 @@
+package com.example.userservice.redis;
+
+import io.lettuce.core.event.Event;
+import io.lettuce.core.event.EventBus;
+import io.lettuce.core.event.connection.ConnectionActivatedEvent;
+import io.lettuce.core.event.connection.ConnectionDeactivatedEvent;
+import io.lettuce.core.event.connection.ReconnectFailedEvent;
+import io.lettuce.core.resource.ClientResources;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import reactor.core.publisher.Sinks;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class RedisConnectionEventsTest {
+
+    private static final SocketAddress LOCAL = new InetSocketAddress("127.0.0.1", 50000);
+    private static final SocketAddress REDIS = new InetSocketAddress("127.0.0.1", 6379);
+
+    @Mock
+    private ClientResources clientResources;
+
+    @Mock
+    private EventBus eventBus;
+
+    private final Sinks.Many<Event> events = Sinks.many().multicast().directBestEffort();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private RedisConnectionEvents connectionEvents;
+
+    @BeforeEach
+    void setUp() {
+        when(clientResources.eventBus()).thenReturn(eventBus);
+        when(eventBus.get()).thenReturn(events.asFlux());
+        connectionEvents = new RedisConnectionEvents(clientResources, meterRegistry);
+    }
+
+    private double count(String event) {
+        return meterRegistry.get(RedisConnectionEvents.EVENTS_METRIC).tag("event", event).counter().count();
+    }
+
+    private double active() {
+        return meterRegistry.get(RedisConnectionEvents.ACTIVE_METRIC).gauge().value();
+    }
+
+    // -----------------------------------------------------
+    // TEST 1: a dropped and re-established connection shows in counters and the gauge
+    // -----------------------------------------------------
+    @Test
+    void events_shouldTrackDisconnectAndReconnect() {
+        events.tryEmitNext(new ConnectionActivatedEvent(LOCAL, REDIS));
+        assertEquals(1, active());
+
+        events.tryEmitNext(new ConnectionDeactivatedEvent(LOCAL, REDIS));
+        events.tryEmitNext(new ReconnectFailedEvent(LOCAL, REDIS, new IOException("Connection refused"), 1));
+        assertEquals(0, active());
+
+        events.tryEmitNext(new ConnectionActivatedEvent(LOCAL, REDIS));
+
+        assertEquals(1, active());
+        assertEquals(2, count("activated"));
+        assertEquals(1, count("deactivated"));
+        assertEquals(1, count("reconnect-failed"));
+        assertEquals(0, count("topology-changed"));
+    }
+
+    // -----------------------------------------------------
+    // TEST 2: stop() unsubscribes from the client's event bus
+    // -----------------------------------------------------
+    @Test
+    void stop_shouldUnsubscribe() {
+        connectionEvents.stop();
+
+        events.tryEmitNext(new ConnectionActivatedEvent(LOCAL, REDIS));
+
+        assertEquals(0, active());
+        assertEquals(0, events.currentSubscriberCount());
+    }
+}
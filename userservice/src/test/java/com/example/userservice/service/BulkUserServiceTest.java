@@ -0,0 +1,264 @@
+package com.example.userservice.service;
+
+import com.example.userservice.cache.UserExistenceIndex;
+import com.example.userservice.config.BulkUserProperties;
+import com.example.userservice.dto.BulkUserRow;
+import com.example.userservice.dto.ImportReport;
+import com.example.userservice.dto.UserIdentityView;
+import com.example.userservice.dto.UserSummary;
+import com.example.userservice.repository.UserRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class BulkUserServiceTest {
+
+    @Mock UserRepository userRepository;
+    @Mock JdbcTemplate jdbcTemplate;
+    @Mock PasswordEncoder passwordEncoder;
+    @Mock UserExistenceIndex existenceIndex;
+    @Mock PlatformTransactionManager transactionManager;
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final BulkUserProperties properties = new BulkUserProperties();
+    private final List<List<String>> insertedUsernames = new ArrayList<>();
+    private final List<Object> insertedValues = new ArrayList<>();
+    private BulkUserService service;
+
+    @BeforeEach
+    void setup() {
+        properties.setHashThreads(2);
+        service = new BulkUserService(userRepository, jdbcTemplate, passwordEncoder, existenceIndex,
+                objectMapper, transactionManager, properties, meterRegistry);
+        lenient().when(passwordEncoder.encode(anyString())).thenAnswer(invocation -> "{bcrypt}" + invocation.getArgument(0));
+        lenient().when(userRepository.findIdentities(anyCollection(), anyCollection())).thenReturn(List.of());
+        // every row inserts, unless a test stubs a clash
+        lenient().when(jdbcTemplate.queryForList(anyString(), eq(UUID.class), any(Object[].class)))
+                .thenAnswer(invocation -> insert(invocation.getArgument(0), invocation.getRawArguments()[2], Set.of()));
+    }
+
+    @AfterEach
+    void shutdown() {
+        service.shutdown();
+    }
+
+    // returns the ids of the rows whose username is not in clashing, as "returning userid" would
+    private List<UUID> insert(String sql, Object args, Set<String> clashing) {
+        Object[] values = (Object[]) args;
+        assertEquals(BulkUserService.insertSql(values.length / 6), sql);
+        List<String> usernames = new ArrayList<>();
+        List<UUID> ids = new ArrayList<>();
+        for (int i = 0; i < values.length; i += 6) {
+            usernames.add((String) values[i + 1]);
+            if (!clashing.contains((String) values[i + 1])) {
+                ids.add((UUID) values[i]);
+            }
+        }
+        insertedUsernames.add(usernames);
+        insertedValues.addAll(Arrays.asList(values));
+        return ids;
+    }
+
+    private static ByteArrayInputStream body(String text) {
+        return new ByteArrayInputStream(text.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static UserIdentityView identity(String username, String email) {
+        return new BulkUserRow(username, email, null, null);
+    }
+
+    @Test
+    void csvImport_shouldHashPasswordsInsertAndIndexUsers() {
+        String csv = """
+                username,email,password,passwordHash
+                veer,veer@gmail.com,secret,
+                rahul, rahul@gmail.com ,,$2a$10$N9qo8uLOickgx2ZMRZoMyeIjZAgcfl7p92ldGxad68LJZdL17lhWy
+                """;
+
+        ImportReport report = service.importUsers(body(csv), BulkUserService.Format.CSV);
+
+        assertEquals(2, report.getReceived());
+        assertEquals(2, report.getImported());
+        assertTrue(report.isCompleted());
+        assertEquals(List.of(List.of("veer", "rahul")), insertedUsernames);
+        assertTrue(insertedValues.contains("{bcrypt}secret"));
+        assertTrue(insertedValues.contains("$2a$10$N9qo8uLOickgx2ZMRZoMyeIjZAgcfl7p92ldGxad68LJZdL17lhWy"));
+        assertTrue(insertedValues.contains("rahul@gmail.com"));
+        verify(passwordEncoder, times(1)).encode(anyString());
+        verify(existenceIndex).recordUsers(argThat(users -> users.size() == 2));
+    }
+
+    @Test
+    void invalidRepeatedAndExistingRows_shouldBeReportedAndSkipped() {
+        when(userRepository.findIdentities(anyCollection(), anyCollection()))
+                .thenReturn(List.of(identity("taken", "other@gmail.com")));
+        String ndjson = """
+                {"username":"veer","email":"veer@gmail.com","password":"a"}
+                {"username":"","email":"x@gmail.com","password":"a"}
+                {"username":"veer2","email":"veer@gmail.com","password":"a"}
+                {"username":"taken","email":"new@gmail.com","password":"a"}
+                {"username":"nopass","email":"nopass@gmail.com"}
+                """;
+
+        ImportReport report = service.importUsers(body(ndjson), BulkUserService.Format.NDJSON);
+
+        assertEquals(5, report.getReceived());
+        assertEquals(1, report.getImported());
+        assertEquals(2, report.getDuplicates());
+        assertEquals(2, report.getInvalid());
+        assertEquals(List.of(List.of("veer")), insertedUsernames);
+        assertTrue(report.getErrors().contains("row 2: username is missing"));
+        assertTrue(report.getErrors().contains("row 3: repeats an earlier row"));
+        assertTrue(report.getErrors().contains("row 4: username or email already registered"));
+        assertEquals(2, meterRegistry.get("user.bulk.import.rows").tag("result", "invalid").counter().count());
+    }
+
+    @Test
+    void rowRejectedAsRepeat_shouldNotBlockLaterRowsWithItsOtherValue() {
+        String ndjson = """
+                {"username":"veer","email":"veer@gmail.com","password":"a"}
+                {"username":"veer2","email":"veer@gmail.com","password":"a"}
+                {"username":"veer2","email":"veer2@gmail.com","password":"a"}
+                """;
+
+        ImportReport report = service.importUsers(body(ndjson), BulkUserService.Format.NDJSON);
+
+        assertEquals(2, report.getImported());
+        assertEquals(1, report.getDuplicates());
+        assertEquals(List.of(List.of("veer", "veer2")), insertedUsernames);
+        assertTrue(insertedValues.contains("veer2@gmail.com"));
+    }
+
+    @Test
+    void passwordHashThatIsNotBcrypt_shouldBeInvalid() {
+        String ndjson = """
+                {"username":"plain","email":"plain@gmail.com","passwordHash":"secret"}
+                {"username":"short","email":"short@gmail.com","passwordHash":"$2a$10$existinghash"}
+                {"username":"sha","email":"sha@gmail.com","passwordHash":"{sha256}abcdef"}
+                {"username":"prefixed","email":"prefixed@gmail.com","passwordHash":"{bcrypt}HASH"}
+                """.replace("HASH", "$2a$10$N9qo8uLOickgx2ZMRZoMyeIjZAgcfl7p92ldGxad68LJZdL17lhWy");
+
+        ImportReport report = service.importUsers(body(ndjson), BulkUserService.Format.NDJSON);
+
+        assertEquals(1, report.getImported());
+        assertEquals(3, report.getInvalid());
+        assertEquals(List.of(List.of("prefixed")), insertedUsernames);
+        assertTrue(report.getErrors().contains("row 1: passwordHash is not a BCrypt hash"));
+        verify(passwordEncoder, never()).encode(anyString());
+    }
+
+    @Test
+    void rows_shouldBeInsertedOneChunkAtATime() {
+        properties.setChunkSize(2);
+        StringBuilder ndjson = new StringBuilder();
+        for (int i = 1; i <= 5; i++) {
+            ndjson.append("{\"username\":\"u").append(i).append("\",\"email\":\"u").append(i)
+                    .append("@gmail.com\",\"password\":\"p\"}\n");
+        }
+
+        ImportReport report = service.importUsers(body(ndjson.toString()), BulkUserService.Format.NDJSON);
+
+        assertEquals(5, report.getImported());
+        assertEquals(List.of(List.of("u1", "u2"), List.of("u3", "u4"), List.of("u5")), insertedUsernames);
+        verify(userRepository, times(3)).findIdentities(anyCollection(), anyCollection());
+    }
+
+    @Test
+    void conflictOnInsert_shouldCountOnlyReturnedRowsAsImported() {
+        when(jdbcTemplate.queryForList(anyString(), eq(UUID.class), any(Object[].class)))
+                .thenAnswer(invocation -> insert(invocation.getArgument(0), invocation.getRawArguments()[2], Set.of("veer")));
+        String ndjson = """
+                {"username":"veer","email":"veer@gmail.com","password":"a"}
+                {"username":"rahul","email":"rahul@gmail.com","password":"a"}
+                """;
+
+        ImportReport report = service.importUsers(body(ndjson), BulkUserService.Format.NDJSON);
+
+        assertEquals(1, report.getImported());
+        assertEquals(1, report.getDuplicates());
+        assertTrue(report.getErrors().contains("row 1: username or email already registered"));
+        verify(existenceIndex).recordUsers(argThat(users -> users.size() == 1
+                && users.iterator().next().getUsername().equals("rahul")));
+    }
+
+    @Test
+    void existingUsernameAndEmail_shouldOnlyMatchTheirOwnField() {
+        when(userRepository.findIdentities(anyCollection(), anyCollection()))
+                .thenReturn(List.of(identity("veer@gmail.com", "rahul@gmail.com")));
+        String ndjson = """
+                {"username":"veer","email":"veer@gmail.com","password":"a"}
+                """;
+
+        ImportReport report = service.importUsers(body(ndjson), BulkUserService.Format.NDJSON);
+
+        assertEquals(1, report.getImported());
+        assertEquals(0, report.getDuplicates());
+    }
+
+    @Test
+    void unreadableOrFailingInput_shouldStopAndKeepEarlierChunks() {
+        properties.setChunkSize(1);
+        String ndjson = """
+                {"username":"veer","email":"veer@gmail.com","password":"a"}
+                {"username": broken
+                """;
+
+        ImportReport unreadable = service.importUsers(body(ndjson), BulkUserService.Format.NDJSON);
+
+        assertFalse(unreadable.isCompleted());
+        assertEquals(1, unreadable.getImported());
+        assertTrue(unreadable.getErrors().get(0).startsWith("row 2: unreadable"));
+
+        when(userRepository.findIdentities(anyCollection(), anyCollection()))
+                .thenThrow(new DataAccessResourceFailureException("connection lost"));
+        ImportReport failing = service.importUsers(body(ndjson), BulkUserService.Format.NDJSON);
+
+        assertFalse(failing.isCompleted());
+        assertEquals(0, failing.getImported());
+        assertTrue(failing.getErrors().get(0).startsWith("rows 1-1: not imported"));
+    }
+
+    @Test
+    void export_shouldStreamRowsWithoutPasswords() {
+        UUID id = UUID.fromString("00000000-0000-0000-0000-000000000001");
+        LocalDateTime created = LocalDateTime.of(2025, 1, 2, 3, 4, 5);
+        when(userRepository.streamAllForExport()).thenAnswer(invocation ->
+                Stream.of(new UserSummary(id, "veer", "veer@gmail.com", created)));
+        ByteArrayOutputStream csv = new ByteArrayOutputStream();
+        ByteArrayOutputStream ndjson = new ByteArrayOutputStream();
+
+        service.exportUsers(csv, BulkUserService.Format.CSV);
+        service.exportUsers(ndjson, BulkUserService.Format.NDJSON);
+
+        assertEquals("userid,username,email,created_at\n"
+                + "\"" + id + "\",veer,veer@gmail.com,2025-01-02T03:04:05\n", csv.toString(StandardCharsets.UTF_8));
+        assertTrue(ndjson.toString(StandardCharsets.UTF_8).startsWith("{\"userid\":\"" + id + "\",\"username\":\"veer\""));
+        assertFalse(ndjson.toString(StandardCharsets.UTF_8).contains("password"));
+    }
+}
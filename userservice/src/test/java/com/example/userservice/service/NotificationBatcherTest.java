@@ -0,0 +1,133 @@
+package com.example.userservice.service;
+
+import com.example.userservice.config.NotificationBatchProperties;
+import com.example.userservice.dto.OtpSendRequest;
+import com.example.userservice.dto.OtpSendResult;
+import com.example.userservice.external.service.NotificationService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+class NotificationBatcherTest {
+
+    private final NotificationService notificationService = mock(NotificationService.class);
+    private final NotificationBatchProperties properties = new NotificationBatchProperties();
+    private NotificationBatcher batcher;
+
+    @BeforeEach
+    void setUp() {
+        properties.setWindow(Duration.ofMillis(200));
+        properties.setMaxSize(3);
+        batcher = new NotificationBatcher(notificationService, properties);
+        batcher.start();
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        batcher.stop();
+    }
+
+    private static OtpSendRequest request(int i) {
+        return new OtpSendRequest("user" + i + "@x.com", "12345" + i, "Registration");
+    }
+
+    @Test
+    void send_coalescesConcurrentCallsIntoOneBatch() throws Exception {
+        when(notificationService.sendOtpBatch(anyList())).thenAnswer(invocation -> {
+            List<OtpSendRequest> batch = invocation.getArgument(0);
+            List<OtpSendResult> results = new ArrayList<>();
+            for (int i = 0; i < batch.size(); i++) {
+                results.add(new OtpSendResult(i, OtpSendResult.Status.ACCEPTED, batch.get(i).getEmail()));
+            }
+            return results;
+        });
+        ExecutorService callers = Executors.newFixedThreadPool(3);
+        CountDownLatch go = new CountDownLatch(1);
+        List<Future<OtpSendResult>> results = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            OtpSendRequest request = request(i);
+            results.add(callers.submit(() -> {
+                go.await();
+                return batcher.send(request);
+            }));
+        }
+
+        go.countDown();
+
+        for (int i = 0; i < 3; i++) {
+            // every caller gets the result for its own request
+            assertEquals("user" + i + "@x.com", results.get(i).get().getMessage());
+        }
+        verify(notificationService, times(1)).sendOtpBatch(anyList());
+        verify(notificationService, never()).sendOtp(any());
+        callers.shutdown();
+    }
+
+    @Test
+    void send_rethrowsTransportFailureToEveryCaller() {
+        when(notificationService.sendOtpBatch(anyList())).thenThrow(new IllegalStateException("connection refused"));
+
+        IllegalStateException e = assertThrows(IllegalStateException.class, () -> batcher.send(request(1)));
+        assertEquals("connection refused", e.getMessage());
+    }
+
+    @Test
+    void send_failsItemsMissingFromTheResponse() {
+        when(notificationService.sendOtpBatch(anyList())).thenReturn(List.of());
+
+        assertThrows(IllegalStateException.class, () -> batcher.send(request(1)));
+    }
+
+    @Test
+    void send_refusesWhenTheQueueIsFull() throws Exception {
+        properties.setQueueCapacity(1);
+        properties.setMaxSize(1);
+        NotificationBatcher small = new NotificationBatcher(notificationService, properties);
+        small.start();
+        CountDownLatch flushing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(notificationService.sendOtpBatch(anyList())).thenAnswer(invocation -> {
+            flushing.countDown();
+            release.await();
+            return List.of(new OtpSendResult(0, OtpSendResult.Status.ACCEPTED, null));
+        });
+        ExecutorService callers = Executors.newFixedThreadPool(2);
+        Future<OtpSendResult> first = callers.submit(() -> small.send(request(1)));
+        flushing.await();
+        // the flusher is busy with the first send, so the second one fills the queue
+        Future<OtpSendResult> second = callers.submit(() -> small.send(request(2)));
+        while (small.queueDepth() == 0) {
+            Thread.sleep(5);
+        }
+
+        IllegalStateException e = assertThrows(IllegalStateException.class, () -> small.send(request(3)));
+        assertEquals("Notification batch queue is full", e.getMessage());
+
+        release.countDown();
+        assertEquals(OtpSendResult.Status.ACCEPTED, first.get().getStatus());
+        assertEquals(OtpSendResult.Status.ACCEPTED, second.get().getStatus());
+        callers.shutdown();
+        small.stop();
+    }
+
+    @Test
+    void send_failsOnceStopped() throws InterruptedException {
+        batcher.stop();
+
+        assertThrows(IllegalStateException.class, () -> batcher.send(request(1)));
+    }
+}
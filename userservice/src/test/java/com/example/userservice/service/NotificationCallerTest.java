@@ -1,6 +1,7 @@
 package com.example.userservice.service;
 
 import com.example.userservice.dto.OtpSendRequest;
+import com.example.userservice.dto.OtpSendResult;
 import com.example.userservice.external.service.NotificationService;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -8,8 +9,10 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
-import static com.jayway.jsonpath.internal.path.PathCompiler.fail;
+import java.util.List;
+
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -17,57 +20,48 @@ public class NotificationCallerTest {
 
     @Mock
     private NotificationService notificationService;
+    @Mock
+    private NotificationBatcher notificationBatcher;
     @InjectMocks
     private NotificationCaller notificationCaller;
 
     @Test
-    void sendOtp_success() {
-        // Arrange
-        OtpSendRequest req = new OtpSendRequest();
-        req.setOtp("234543");
-        req.setEmail("example@gmail.com");
-        req.setPurpose("REGISTER");
-
-        // Act
-        String result = notificationCaller.sendOtp(req);
+    void sendOtp_goesOutThroughTheBatcher() {
+        OtpSendRequest req = new OtpSendRequest("example@gmail.com", "234543", "REGISTER");
+        when(notificationBatcher.send(req)).thenReturn(new OtpSendResult(0, OtpSendResult.Status.ACCEPTED, null));
 
-        // Assert
-        assertEquals("OTP sent successfully.", result);
-        verify(notificationService, times(1)).sendOtp(req);
+        assertEquals("Secure and Safe OTP sent successfully.", notificationCaller.sendOtp(req));
+        verify(notificationBatcher, times(1)).send(req);
+        verifyNoInteractions(notificationService);
     }
 
     @Test
-    void sendOtp_failure_shouldUseFallbackManually() {
-        OtpSendRequest req = new OtpSendRequest();
-        req.setOtp("234543");
-        req.setEmail("example@gmail.com");
-        req.setPurpose("REGISTER");
-
-        doThrow(new RuntimeException("SMS API Down"))
-                .when(notificationService)
-                .sendOtp(req);
-
-        // Since annotations won't trigger fallback, we call it ourselves after failure
-        try {
-            notificationCaller.sendOtp(req);
-            fail("Exception expected");
-        } catch (Exception ignored) {}
+    void sendOtp_shouldThrow_whenNotifierRejectsTheOtp() {
+        OtpSendRequest req = new OtpSendRequest("example@gmail.com", "234543", "REGISTER");
+        when(notificationBatcher.send(req))
+                .thenReturn(new OtpSendResult(0, OtpSendResult.Status.REJECTED, "Notification queue is full, please retry"));
+
+        // annotations do not run here, so the exception reaches the test instead of the fallback
+        assertThrows(IllegalStateException.class, () -> notificationCaller.sendOtp(req));
+        assertEquals("Notification service is down. OTP sending failed.",
+                notificationCaller.fallback(req, new RuntimeException()));
+    }
 
-        String fallback = notificationCaller.fallback(req, new RuntimeException());
+    @Test
+    void deliverBatch_returnsPerItemResults() {
+        List<OtpSendRequest> batch = List.of(new OtpSendRequest("example@gmail.com", "234543", "REGISTER"));
+        List<OtpSendResult> results = List.of(new OtpSendResult(0, OtpSendResult.Status.ACCEPTED, "OTP queued for delivery"));
+        when(notificationService.sendOtpBatch(batch)).thenReturn(results);
 
-        assertEquals("Notification service is down. OTP sending failed.", fallback);
+        assertEquals(results, notificationCaller.deliverBatch(batch));
+        verify(notificationService, times(1)).sendOtpBatch(batch);
     }
 
-
     @Test
-    void rateLimitFallback_shouldReturnCorrectMessage() {
-        OtpSendRequest req = new OtpSendRequest();
-        req.setOtp("234543");
-        req.setEmail("example@gmail.com");
-        req.setPurpose("REGISTER");
-
-        String result = notificationCaller.rateLimitFallback(req, new RuntimeException());
+    void deliverBatch_propagatesFailure_soTheRelayRetries() {
+        List<OtpSendRequest> batch = List.of(new OtpSendRequest("example@gmail.com", "234543", "REGISTER"));
+        when(notificationService.sendOtpBatch(batch)).thenThrow(new RuntimeException("SMS API Down"));
 
-        assertEquals("Too many requests. Please try again later.", result);
+        assertThrows(RuntimeException.class, () -> notificationCaller.deliverBatch(batch));
     }
 }
@@ -0,0 +1,77 @@
+package com.example.userservice.service;
+
+import com.example.userservice.config.OtpProperties;
+import org.junit.jupiter.api.Test;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OtpGeneratorTest {
+
+    // -----------------------------------------------------
+    // TEST 1: every OTP has exactly the configured number of digits
+    // -----------------------------------------------------
+    @Test
+    void next_shouldReturnFixedWidthDigits() {
+        OtpGenerator generator = new OtpGenerator(6, 4);
+
+        for (int i = 0; i < 1000; i++) {
+            String otp = generator.next();
+            assertEquals(6, otp.length());
+            assertTrue(otp.chars().allMatch(Character::isDigit), otp);
+        }
+    }
+
+    // -----------------------------------------------------
+    // TEST 2: small codes keep their leading zeros
+    // -----------------------------------------------------
+    @Test
+    void format_shouldZeroPad() {
+        assertEquals("000042", OtpGenerator.format(42, 6));
+        assertEquals("0000", OtpGenerator.format(0, 4));
+        assertEquals("999999999", OtpGenerator.format(999_999_999, 9));
+    }
+
+    // -----------------------------------------------------
+    // TEST 3: length and stripes come from user.otp; stripes round up to a power of two
+    // -----------------------------------------------------
+    @Test
+    void constructor_shouldApplyProperties() {
+        OtpProperties properties = new OtpProperties();
+        properties.setLength(8);
+        properties.setStripes(3);
+
+        OtpGenerator generator = new OtpGenerator(properties);
+
+        assertEquals(8, generator.next().length());
+        assertEquals(4, generator.stripeCount());
+        assertEquals(1, new OtpGenerator(6, 1).stripeCount());
+        assertTrue(new OtpGenerator(6, 0).stripeCount() >= 2);
+    }
+
+    // -----------------------------------------------------
+    // TEST 4: lengths outside 4..9 are rejected at startup
+    // -----------------------------------------------------
+    @Test
+    void constructor_shouldRejectUnsupportedLength() {
+        assertThrows(IllegalArgumentException.class, () -> new OtpGenerator(3, 1));
+        assertThrows(IllegalArgumentException.class, () -> new OtpGenerator(10, 1));
+    }
+
+    // -----------------------------------------------------
+    // TEST 5: concurrent callers get well-spread codes
+    // -----------------------------------------------------
+    @Test
+    void next_shouldBeSafeForConcurrentCallers() {
+        OtpGenerator generator = new OtpGenerator(9, 4);
+        Set<String> otps = ConcurrentHashMap.newKeySet();
+
+        IntStream.range(0, 10_000).parallel().forEach(i -> otps.add(generator.next()));
+
+        // 10k draws from 10^9 codes; more than a handful of collisions would mean shared state is broken
+        assertTrue(otps.size() > 9_990, "distinct OTPs: " + otps.size());
+    }
+}
@@ -1,19 +1,36 @@
 package com.example.userservice.service;
 
+import com.example.userservice.dto.OtpSendRequest;
+import com.example.userservice.exception.TooManyRequestsException;
+import com.example.userservice.outbox.NotificationOutbox;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.RedisOperations;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.SessionCallback;
 import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.data.redis.core.script.RedisScript;
 
-import java.util.concurrent.TimeUnit;
+import java.time.Duration;
+import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 import static org.mockito.Mockito.never;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.ArgumentMatchers.anyString;
 
@@ -26,71 +43,153 @@ class OtpServiceTest {
     @Mock
     private ValueOperations<String, String> valueOperations;
 
+    @Mock
+    private NotificationOutbox outbox;
+
+    @Mock
+    private OtpThrottle throttle;
+
+    @Spy
+    private OtpGenerator otpGenerator = new OtpGenerator(6, 1);
+
     @InjectMocks
     private OtpService otpService;
 
+    @BeforeEach
+    void setUp() {
+        lenient().when(throttle.verifyArgs(anyString()))
+                .thenAnswer(invocation -> List.of(invocation.getArgument(0), "5", "900000"));
+    }
+
     // -----------------------------------------------------
-    // TEST 1: generateOtp() should generate and store OTP
+    // TEST 1: consumePendingRegistration() throws with the remaining lockout once the email is locked
     // -----------------------------------------------------
     @Test
-    void generateOtp_shouldStoreOtpInRedis() {
+    void consumePendingRegistration_shouldThrow_whenEmailIsLockedOut() {
 
         String email = "test@gmail.com";
-        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(redisTemplate.execute(eq(OtpService.CONSUME_SCRIPT), eq(OtpService.consumeKeys(email)),
+                eq("999999"), eq("5"), eq("900000")))
+                .thenReturn(List.of("LOCKED", 42_000L));
 
-        String otp = otpService.generateOtp(email);
+        TooManyRequestsException ex = assertThrows(TooManyRequestsException.class,
+                () -> otpService.consumePendingRegistration(email, "999999"));
 
-        assertNotNull(otp);
-        assertEquals(6, otp.length());
+        assertEquals(Duration.ofSeconds(42), ex.getRetryAfter());
+    }
 
-        verify(valueOperations).set(eq("OTP_" + email), eq(otp), eq(5L), eq(TimeUnit.MINUTES));
+    // -----------------------------------------------------
+    // TEST 2: consumePendingRegistration() reports INVALID without touching Redis when OTP is null
+    // -----------------------------------------------------
+    @Test
+    void consumePendingRegistration_shouldReturnInvalid_whenOtpIsNull() {
+
+        OtpService.Verification result = otpService.consumePendingRegistration("test@gmail.com", null);
+
+        assertEquals(OtpService.Status.INVALID, result.status());
+        verifyNoInteractions(redisTemplate);
     }
+
     // -----------------------------------------------------
-    // TEST 2: verifyOtp() should return TRUE when OTP matches
+    // TEST 3: issueOtp() writes temp user, OTP and outbox entry in one pipelined transaction
     // -----------------------------------------------------
     @Test
-    void verifyOtp_shouldReturnTrue_whenOtpMatches() {
+    @SuppressWarnings("unchecked")
+    void issueOtp_shouldPipelineTempUserOtpAndOutboxEntry() {
 
         String email = "test@gmail.com";
-        String otp = "123456";
-        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
-        when(valueOperations.get("OTP_" + email)).thenReturn("123456");
+        RedisOperations<String, String> operations = mock(RedisOperations.class);
+        when(operations.opsForValue()).thenReturn(valueOperations);
+        when(redisTemplate.executePipelined(any(SessionCallback.class))).thenAnswer(invocation -> {
+            invocation.<SessionCallback<Object>>getArgument(0).execute(operations);
+            return List.of();
+        });
 
-        boolean result = otpService.verifyOtp(email, otp);
+        String otp = otpService.issueOtp(email, "{json}", "Registration");
 
-        assertTrue(result);
-        verify(redisTemplate).delete("OTP_" + email);
+        assertEquals(6, otp.length());
+        InOrder order = inOrder(operations, valueOperations, outbox);
+        order.verify(operations).multi();
+        order.verify(valueOperations).set("tmp:user:{" + email + "}", "{json}", Duration.ofMinutes(5));
+        order.verify(valueOperations).set("OTP_{" + email + "}", otp, Duration.ofMinutes(5));
+        ArgumentCaptor<OtpSendRequest> notification = ArgumentCaptor.forClass(OtpSendRequest.class);
+        order.verify(outbox).append(eq(operations), notification.capture());
+        order.verify(operations).exec();
+        verify(redisTemplate, never()).opsForValue();
+
+        assertEquals(email, notification.getValue().getEmail());
+        assertEquals(otp, notification.getValue().getOtp());
+        assertEquals("Registration", notification.getValue().getPurpose());
+        assertNotNull(notification.getValue().getIdempotencyKey());
+    }
+
+    // -----------------------------------------------------
+    // TEST 4: consumePendingRegistration() returns the popped payload
+    // -----------------------------------------------------
+    @Test
+    void consumePendingRegistration_shouldReturnPayload_whenOtpMatches() {
+
+        String email = "test@gmail.com";
+        when(redisTemplate.execute(any(RedisScript.class),
+                eq(List.of("OTP_{" + email + "}", "tmp:user:{" + email + "}", "otp:failures:{" + email + "}")),
+                eq("123456"), eq("5"), eq("900000")))
+                .thenReturn(List.of("OK", "{json}"));
+
+        OtpService.Verification result = otpService.consumePendingRegistration(email, "123456");
+
+        assertEquals(OtpService.Status.OK, result.status());
+        assertEquals("{json}", result.pendingUser());
     }
 
     // -----------------------------------------------------
-    // TEST 3: verifyOtp() should return FALSE when OTP does NOT match
+    // TEST 5: consumePendingRegistration() reports a wrong OTP
     // -----------------------------------------------------
     @Test
-    void verifyOtp_shouldReturnFalse_whenOtpDoesNotMatch() {
+    void consumePendingRegistration_shouldReturnInvalid_whenOtpDoesNotMatch() {
 
         String email = "test@gmail.com";
-        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
-        when(valueOperations.get("OTP_" + email)).thenReturn("111111");
+        when(redisTemplate.execute(any(RedisScript.class),
+                eq(List.of("OTP_{" + email + "}", "tmp:user:{" + email + "}", "otp:failures:{" + email + "}")),
+                eq("999999"), eq("5"), eq("900000")))
+                .thenReturn(List.of("INVALID"));
 
-        boolean result = otpService.verifyOtp(email, "999999");
+        OtpService.Verification result = otpService.consumePendingRegistration(email, "999999");
 
-        assertFalse(result);
-        verify(redisTemplate, never()).delete(anyString());
+        assertEquals(OtpService.Status.INVALID, result.status());
+        assertNull(result.pendingUser());
     }
 
     // -----------------------------------------------------
-    // TEST 4: verifyOtp() returns FALSE when stored OTP is null
+    // TEST 6: consumePendingRegistration() reports a missing temp user
     // -----------------------------------------------------
     @Test
-    void verifyOtp_shouldReturnFalse_whenStoredOtpIsNull() {
+    void consumePendingRegistration_shouldReturnMissing_whenTempUserExpired() {
 
         String email = "test@gmail.com";
-        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
-        when(valueOperations.get("OTP_" + email)).thenReturn(null);
+        when(redisTemplate.execute(any(RedisScript.class),
+                eq(List.of("OTP_{" + email + "}", "tmp:user:{" + email + "}", "otp:failures:{" + email + "}")),
+                eq("123456"), eq("5"), eq("900000")))
+                .thenReturn(List.of("MISSING"));
 
-        boolean result = otpService.verifyOtp(email, "123456");
+        OtpService.Verification result = otpService.consumePendingRegistration(email, "123456");
 
-        assertFalse(result);
-        verify(redisTemplate, never()).delete(anyString());
+        assertEquals(OtpService.Status.MISSING, result.status());
+    }
+
+    @Test
+    void issueOtp_onCluster_shouldScriptOtpKeysThenAppendOutboxEntry() {
+        String email = "test@gmail.com";
+        LettuceConnectionFactory cluster = mock(LettuceConnectionFactory.class);
+        when(cluster.isClusterAware()).thenReturn(true);
+        when(redisTemplate.getConnectionFactory()).thenReturn(cluster);
+
+        String otp = otpService.issueOtp(email, "{json}", "Registration");
+
+        InOrder order = inOrder(redisTemplate, outbox);
+        // both keys carry the {email} hash tag, so the script stays on one cluster slot
+        order.verify(redisTemplate).execute(OtpService.ISSUE_SCRIPT,
+                List.of("tmp:user:{" + email + "}", "OTP_{" + email + "}"), "{json}", otp, "300", "0");
+        order.verify(outbox).append(eq(redisTemplate), any(OtpSendRequest.class));
+        verify(redisTemplate, never()).executePipelined(any(SessionCallback.class));
     }
 }
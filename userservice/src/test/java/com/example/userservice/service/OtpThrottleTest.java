@@ -0,0 +1,95 @@
+package com.example.userservice.service;
+
+import com.example.userservice.config.OtpThrottleProperties;
+import com.example.userservice.exception.TooManyRequestsException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class OtpThrottleTest {
+
+    @Mock RedisTemplate<String, String> redisTemplate;
+
+    private final OtpThrottleProperties properties = new OtpThrottleProperties();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private OtpThrottle throttle;
+
+    @BeforeEach
+    void setup() {
+        throttle = new OtpThrottle(redisTemplate, properties, meterRegistry);
+    }
+
+    private void scriptReturns(List<?> result) {
+        when(redisTemplate.execute(eq(OtpThrottle.SEND_SCRIPT), eq(List.of("otp:cooldown:{veer@gmail.com}",
+                "otp:sends:{veer@gmail.com}", "otp:failures:{veer@gmail.com}")), any(Object[].class)))
+                .thenReturn(result);
+    }
+
+    @Test
+    void acquireSend_allowed_shouldPassConfiguredLimits() {
+        scriptReturns(List.of("OK", 0L));
+
+        throttle.acquireSend("veer@gmail.com");
+
+        ArgumentCaptor<Object[]> args = ArgumentCaptor.forClass(Object[].class);
+        verify(redisTemplate).execute(any(RedisScript.class), anyList(), args.capture());
+        List<Object> sent = List.of(args.getValue());
+        assertEquals(List.of("60000", "3600000", "5", "5"), sent.subList(1, 5));
+    }
+
+    @Test
+    void acquireSend_shouldKeyOnNormalizedEmail() {
+        scriptReturns(List.of("OK", 0L));
+
+        throttle.acquireSend(" Veer@Gmail.com");
+
+        verify(redisTemplate).execute(eq(OtpThrottle.SEND_SCRIPT), eq(List.of("otp:cooldown:{veer@gmail.com}",
+                "otp:sends:{veer@gmail.com}", "otp:failures:{veer@gmail.com}")), any(Object[].class));
+    }
+
+    @Test
+    void acquireSend_coolingDown_shouldThrowWithRetryAfter() {
+        scriptReturns(List.of("COOLDOWN", 41_500L));
+
+        TooManyRequestsException ex = assertThrows(TooManyRequestsException.class,
+                () -> throttle.acquireSend("veer@gmail.com"));
+
+        assertEquals(Duration.ofMillis(41_500), ex.getRetryAfter());
+        assertEquals(1, meterRegistry.counter("user.otp.throttled", "reason", "cooldown").count());
+    }
+
+    @Test
+    void acquireSend_windowExhausted_shouldThrow() {
+        scriptReturns(List.of("WINDOW", 1_200_000L));
+
+        TooManyRequestsException ex = assertThrows(TooManyRequestsException.class,
+                () -> throttle.acquireSend("veer@gmail.com"));
+
+        assertEquals(Duration.ofMinutes(20), ex.getRetryAfter());
+    }
+
+    @Test
+    void disabled_shouldSkipRedisAndNeverLockOut() {
+        properties.setEnabled(false);
+
+        throttle.acquireSend("veer@gmail.com");
+
+        verifyNoInteractions(redisTemplate);
+        assertEquals("0", throttle.verifyArgs("123456").get(1));
+    }
+}
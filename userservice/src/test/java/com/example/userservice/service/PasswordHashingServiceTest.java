@@ -0,0 +1,110 @@
+package com.example.userservice.service;
+
+import com.example.userservice.config.PasswordHashingProperties;
+import com.example.userservice.config.SecurityConfig;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class PasswordHashingServiceTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private PasswordHashingService service;
+
+    @AfterEach
+    void tearDown() {
+        if (service != null) {
+            service.shutdown();
+        }
+    }
+
+    private PasswordHashingService create(PasswordEncoder encoder, PasswordHashingProperties properties) {
+        service = new PasswordHashingService(encoder, properties, meterRegistry);
+        return service;
+    }
+
+    private static PasswordHashingProperties properties(int strength) {
+        PasswordHashingProperties properties = new PasswordHashingProperties();
+        properties.setBcryptStrength(strength);
+        properties.setHashThreads(1);
+        return properties;
+    }
+
+    @Test
+    void encode_runsOffCallerThread_andRecordsTimer() {
+        PasswordHashingProperties properties = properties(4);
+        PasswordEncoder encoder = new SecurityConfig().passwordEncoder(properties);
+        create(encoder, properties);
+
+        String hash = service.encode("secret");
+
+        assertTrue(hash.startsWith("{bcrypt}$2a$04$"));
+        assertTrue(service.matches("secret", hash));
+        assertFalse(service.matches("wrong", hash));
+        assertEquals(3, meterRegistry.get("user.password.hash").timer().count());
+    }
+
+    @Test
+    void matches_acceptsLegacyUnprefixedHash() {
+        PasswordHashingProperties properties = properties(4);
+        create(new SecurityConfig().passwordEncoder(properties), properties);
+        String legacy = new BCryptPasswordEncoder(4).encode("secret");
+
+        assertTrue(service.matches("secret", legacy));
+        assertFalse(service.matches("wrong", legacy));
+    }
+
+    @Test
+    void encode_rejectsWhenQueueIsFull() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch started = new CountDownLatch(1);
+        PasswordEncoder encoder = mock(PasswordEncoder.class);
+        when(encoder.encode(anyString())).thenAnswer(invocation -> {
+            started.countDown();
+            release.await();
+            return "hash";
+        });
+        PasswordHashingProperties properties = properties(4);
+        properties.setQueueCapacity(1);
+        create(encoder, properties);
+
+        Thread busy = new Thread(() -> service.encode("a"));
+        Thread queued = new Thread(() -> service.encode("b"));
+        busy.start();
+        started.await();
+        queued.start();
+        while (meterRegistry.get("user.password.hash.queue").gauge().value() < 1) {
+            Thread.onSpinWait();
+        }
+
+        assertThrows(RejectedExecutionException.class, () -> service.encode("c"));
+        release.countDown();
+        busy.join();
+        queued.join();
+    }
+
+    @Test
+    void encode_timesOutInsteadOfBlockingForever() {
+        PasswordEncoder encoder = mock(PasswordEncoder.class);
+        when(encoder.encode(anyString())).thenAnswer(invocation -> {
+            Thread.sleep(5_000);
+            return "hash";
+        });
+        PasswordHashingProperties properties = properties(4);
+        properties.setTimeout(Duration.ofMillis(50));
+        create(encoder, properties);
+
+        assertThrows(RejectedExecutionException.class, () -> service.encode("slow"));
+    }
+}
@@ -0,0 +1,81 @@
+package com.example.userservice.service;
+
+import com.example.userservice.config.PendingRegistrationProperties;
+import com.example.userservice.dto.UserRequest;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PendingRegistrationCodecTest {
+
+    private static final String EMAIL = "veer@gmail.com";
+    private static final String HASH = "{bcrypt}$2a$10$N9qo8uLOickgx2ZMRZoMyeIjZAgcfl7p92ldGxad68LJZdL17lhWy";
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final PendingRegistrationProperties properties = new PendingRegistrationProperties();
+    private final PendingRegistrationCodec codec = new PendingRegistrationCodec(objectMapper, properties);
+
+    private static UserRequest pending(String username) {
+        UserRequest request = new UserRequest();
+        request.setEmail(EMAIL);
+        request.setUsername(username);
+        request.setPassword(HASH);
+        return request;
+    }
+
+    // -----------------------------------------------------
+    // TEST 1: compact values leave the email to the key and round-trip
+    // -----------------------------------------------------
+    @Test
+    void compact_shouldRoundTripWithoutEmail() {
+        String encoded = codec.encode(pending("veer"));
+
+        assertEquals("1" + HASH + "\nveer", encoded);
+        assertFalse(encoded.contains(EMAIL));
+        assertEquals(pending("veer"), codec.decode(EMAIL, encoded));
+    }
+
+    // -----------------------------------------------------
+    // TEST 2: everything after the separator is the username
+    // -----------------------------------------------------
+    @Test
+    void compact_shouldKeepUnusualUsernames() {
+        UserRequest odd = pending("ve\ner 1");
+
+        assertEquals(odd, codec.decode(EMAIL, codec.encode(odd)));
+    }
+
+    // -----------------------------------------------------
+    // TEST 3: JSON written before the compact format still decodes
+    // -----------------------------------------------------
+    @Test
+    void decode_shouldReadLegacyJson() throws Exception {
+        String legacy = objectMapper.writeValueAsString(pending("veer"));
+
+        assertEquals(pending("veer"), codec.decode(EMAIL, legacy));
+    }
+
+    // -----------------------------------------------------
+    // TEST 4: format json writes JSON, readable by older instances
+    // -----------------------------------------------------
+    @Test
+    void jsonFormat_shouldWriteFullRequest() throws Exception {
+        properties.setFormat(PendingRegistrationProperties.Format.JSON);
+
+        String encoded = codec.encode(pending("veer"));
+
+        assertEquals(pending("veer"), objectMapper.readValue(encoded, UserRequest.class));
+    }
+
+    // -----------------------------------------------------
+    // TEST 5: unknown versions and broken values are rejected
+    // -----------------------------------------------------
+    @Test
+    void decode_shouldRejectUnknownOrMalformedValues() {
+        assertThrows(IllegalArgumentException.class, () -> codec.decode(EMAIL, "9whatever"));
+        assertThrows(IllegalArgumentException.class, () -> codec.decode(EMAIL, "1no-separator"));
+        assertThrows(IllegalArgumentException.class, () -> codec.decode(EMAIL, "{not json"));
+        assertThrows(IllegalArgumentException.class, () -> codec.decode(EMAIL, ""));
+    }
+}
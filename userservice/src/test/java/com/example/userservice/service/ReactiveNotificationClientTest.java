@@ -0,0 +1,75 @@
+package com.example.userservice.service;
+
+import com.example.userservice.config.ReactiveRegistrationProperties;
+import com.example.userservice.dto.OtpSendRequest;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.retry.RetryConfig;
+import io.github.resilience4j.retry.RetryRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReactiveNotificationClientTest {
+
+    private final CircuitBreakerRegistry circuitBreakers = CircuitBreakerRegistry.ofDefaults();
+    private final RetryRegistry retries = RetryRegistry.of(RetryConfig.custom()
+            .maxAttempts(3)
+            .waitDuration(Duration.ofMillis(1))
+            .build());
+    private final AtomicInteger calls = new AtomicInteger();
+
+    private ReactiveNotificationClient client(HttpStatus... statuses) {
+        WebClient.Builder builder = WebClient.builder().exchangeFunction(request -> {
+            assertEquals("http://NOTIFICATION-SERVICE/notification/otp", request.url().toString());
+            HttpStatus status = statuses[Math.min(calls.getAndIncrement(), statuses.length - 1)];
+            return Mono.just(ClientResponse.create(status).build());
+        });
+        return new ReactiveNotificationClient(builder, new ReactiveRegistrationProperties(), circuitBreakers, retries);
+    }
+
+    private static OtpSendRequest request() {
+        return new OtpSendRequest("veer@gmail.com", "123456", "Registration", "key");
+    }
+
+    @Test
+    void sendOtp_shouldRetryTransientFailures() {
+        ReactiveNotificationClient client = client(HttpStatus.SERVICE_UNAVAILABLE, HttpStatus.OK);
+
+        StepVerifier.create(client.sendOtp(request())).verifyComplete();
+
+        assertEquals(2, calls.get());
+    }
+
+    @Test
+    void sendOtp_shouldFailAfterLastAttempt() {
+        ReactiveNotificationClient client = client(HttpStatus.SERVICE_UNAVAILABLE);
+
+        StepVerifier.create(client.sendOtp(request()))
+                .expectError(WebClientResponseException.ServiceUnavailable.class)
+                .verify();
+
+        assertEquals(3, calls.get());
+    }
+
+    @Test
+    void sendOtp_whenBreakerOpen_shouldNotCallNotifier() {
+        ReactiveNotificationClient client = client(HttpStatus.OK);
+        circuitBreakers.circuitBreaker("notificationBreaker").transitionToOpenState();
+
+        StepVerifier.create(client.sendOtp(request()))
+                .expectError(CallNotPermittedException.class)
+                .verify();
+
+        assertEquals(0, calls.get());
+    }
+}
@@ -0,0 +1,143 @@
+package com.example.userservice.service;
+
+import com.example.userservice.config.OtpThrottleProperties;
+import com.example.userservice.config.OutboxProperties;
+import com.example.userservice.dto.OtpSendRequest;
+import com.example.userservice.exception.TooManyRequestsException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.connection.RedisStreamCommands.XAddOptions;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.connection.stream.MapRecord;
+import org.springframework.data.redis.connection.stream.RecordId;
+import org.springframework.data.redis.core.ReactiveStreamOperations;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ReactiveOtpServiceTest {
+
+    @Mock ReactiveStringRedisTemplate redisTemplate;
+
+    private ReactiveOtpService otpService;
+
+    @BeforeEach
+    void setup() {
+        OtpThrottle throttle = new OtpThrottle(mock(RedisTemplate.class), new OtpThrottleProperties(),
+                new SimpleMeterRegistry());
+        otpService = new ReactiveOtpService(redisTemplate, new OutboxProperties(), throttle, new OtpGenerator(6, 1));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void issueOtp_viaOutbox_shouldWriteStateAndOutboxEntryInOneScript() {
+        ArgumentCaptor<List<String>> keys = ArgumentCaptor.forClass(List.class);
+        ArgumentCaptor<List<String>> args = ArgumentCaptor.forClass(List.class);
+        doReturn(Flux.just(1L)).when(redisTemplate).execute(any(RedisScript.class), keys.capture(), args.capture());
+
+        OtpSendRequest notification = otpService.issueOtp("veer@gmail.com", "{}", "Registration", true).block();
+
+        assertNotNull(notification);
+        assertEquals(6, notification.getOtp().length());
+        assertNotNull(notification.getIdempotencyKey());
+        assertEquals(List.of("tmp:user:{veer@gmail.com}", "OTP_{veer@gmail.com}", "outbox:notification:otp"), keys.getValue());
+        List<String> sent = args.getValue();
+        assertEquals(List.of("{}", notification.getOtp(), "300", "100000"), sent.subList(0, 4));
+        assertEquals(12, sent.size());
+        assertTrue(sent.contains("idempotencyKey"));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void issueOtp_direct_shouldSkipOutboxEntry() {
+        ArgumentCaptor<List<String>> args = ArgumentCaptor.forClass(List.class);
+        doReturn(Flux.just(1L)).when(redisTemplate).execute(any(RedisScript.class), anyList(), args.capture());
+
+        otpService.issueOtp("veer@gmail.com", "{}", "Registration", false).block();
+
+        assertEquals(4, args.getValue().size());
+    }
+
+    @Test
+    void consumePendingRegistration_shouldMapScriptReply() {
+        doReturn(Flux.just(List.of("OK", "{\"username\":\"veer\"}"))).when(redisTemplate)
+                .execute(eq(OtpService.CONSUME_SCRIPT),
+                        eq(List.of("OTP_{veer@gmail.com}", "tmp:user:{veer@gmail.com}", "otp:failures:{veer@gmail.com}")),
+                        eq(List.of("123456", "5", "900000")));
+
+        StepVerifier.create(otpService.consumePendingRegistration("veer@gmail.com", "123456"))
+                .expectNext(new OtpService.Verification(OtpService.Status.OK, "{\"username\":\"veer\"}"))
+                .verifyComplete();
+    }
+
+    @Test
+    void consumePendingRegistration_whenLockedOut_shouldError() {
+        doReturn(Flux.just(List.of("LOCKED", 60_000L))).when(redisTemplate)
+                .execute(eq(OtpService.CONSUME_SCRIPT), anyList(), anyList());
+
+        StepVerifier.create(otpService.consumePendingRegistration("veer@gmail.com", "000000"))
+                .expectError(TooManyRequestsException.class)
+                .verify();
+    }
+
+    @Test
+    void acquireSend_whenCoolingDown_shouldError() {
+        doReturn(Flux.just(List.of("COOLDOWN", 30_000L))).when(redisTemplate)
+                .execute(eq(OtpThrottle.SEND_SCRIPT), anyList(), anyList());
+
+        StepVerifier.create(otpService.acquireSend("veer@gmail.com"))
+                .expectErrorMatches(e -> e instanceof TooManyRequestsException throttled
+                        && throttled.getRetryAfter().toSeconds() == 30)
+                .verify();
+    }
+
+    @Test
+    void consumePendingRegistration_withoutOtp_shouldBeInvalidWithoutRedis() {
+        StepVerifier.create(otpService.consumePendingRegistration("veer@gmail.com", null))
+                .expectNext(new OtpService.Verification(OtpService.Status.INVALID, null))
+                .verifyComplete();
+
+        verifyNoInteractions(redisTemplate);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void issueOtp_onCluster_shouldScriptOtpKeysThenAddOutboxEntry() {
+        LettuceConnectionFactory cluster = mock(LettuceConnectionFactory.class);
+        when(cluster.isClusterAware()).thenReturn(true);
+        when(redisTemplate.getConnectionFactory()).thenReturn(cluster);
+        ReactiveStreamOperations<String, Object, Object> streams = mock(ReactiveStreamOperations.class);
+        when(redisTemplate.opsForStream()).thenReturn(streams);
+        when(streams.add(any(MapRecord.class), any(XAddOptions.class))).thenReturn(Mono.just(RecordId.autoGenerate()));
+        ArgumentCaptor<List<String>> keys = ArgumentCaptor.forClass(List.class);
+        ArgumentCaptor<List<String>> args = ArgumentCaptor.forClass(List.class);
+        doReturn(Flux.just(1L)).when(redisTemplate).execute(any(RedisScript.class), keys.capture(), args.capture());
+
+        OtpSendRequest notification = otpService.issueOtp("veer@gmail.com", "{}", "Registration", true).block();
+
+        assertNotNull(notification);
+        assertEquals(List.of("tmp:user:{veer@gmail.com}", "OTP_{veer@gmail.com}"), keys.getValue());
+        assertEquals(4, args.getValue().size());
+        ArgumentCaptor<MapRecord<String, String, String>> entry = ArgumentCaptor.forClass(MapRecord.class);
+        verify(streams).add(entry.capture(), any(XAddOptions.class));
+        assertEquals("outbox:notification:otp", entry.getValue().getStream());
+        assertEquals(notification.getOtp(), entry.getValue().getValue().get("otp"));
+    }
+}
@@ -0,0 +1,185 @@
+package com.example.userservice.service;
+
+import com.example.userservice.cache.UserExistenceIndex;
+import com.example.userservice.config.PendingRegistrationProperties;
+import com.example.userservice.config.ReactiveRegistrationProperties;
+import com.example.userservice.dto.OtpSendRequest;
+import com.example.userservice.dto.UserMapper;
+import com.example.userservice.dto.UserRequest;
+import com.example.userservice.dto.VerifyOtpRequest;
+import com.example.userservice.entity.UserRecord;
+import com.example.userservice.repository.ReactiveUserRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DuplicateKeyException;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ReactiveUserServiceTest {
+
+    @Mock ReactiveUserRepository userRepository;
+    @Mock ReactiveOtpService otpService;
+    @Mock ReactiveNotificationClient notificationClient;
+    @Mock PasswordHashingService passwordHasher;
+    @Mock UserExistenceIndex existenceIndex;
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+    private final PendingRegistrationCodec pendingCodec =
+            new PendingRegistrationCodec(objectMapper, new PendingRegistrationProperties());
+    private final ReactiveRegistrationProperties properties = new ReactiveRegistrationProperties();
+    private ReactiveUserService userService;
+
+    @BeforeEach
+    void setup() {
+        userService = new ReactiveUserService(userRepository, otpService, notificationClient, passwordHasher,
+                new UserMapper(), pendingCodec, existenceIndex, properties);
+        lenient().when(otpService.acquireSend(anyString())).thenReturn(Mono.empty());
+    }
+
+    private static UserRequest request() {
+        UserRequest request = new UserRequest();
+        request.setEmail("veer@gmail.com");
+        request.setUsername("veer");
+        request.setPassword("secret");
+        return request;
+    }
+
+    private void noExistingUsers() {
+        when(existenceIndex.emailExists(eq("veer@gmail.com"), any())).thenReturn(Mono.just(false));
+        when(existenceIndex.usernameExists(eq("veer"), any())).thenReturn(Mono.just(false));
+    }
+
+    private static VerifyOtpRequest verifyRequest() {
+        VerifyOtpRequest request = new VerifyOtpRequest();
+        request.setEmail("veer@gmail.com");
+        request.setOtp("123456");
+        return request;
+    }
+
+    @Test
+    void sendOtp_viaOutbox_shouldStoreHashedPendingUserWithoutCallingNotifier() throws Exception {
+        noExistingUsers();
+        when(passwordHasher.encodeAsync("secret")).thenReturn(CompletableFuture.completedFuture("{bcrypt}hash"));
+        ArgumentCaptor<String> pending = ArgumentCaptor.forClass(String.class);
+        when(otpService.issueOtp(eq("veer@gmail.com"), pending.capture(), eq("Registration"), eq(true)))
+                .thenReturn(Mono.just(new OtpSendRequest("veer@gmail.com", "123456", "Registration", "key")));
+
+        StepVerifier.create(userService.sendOtp(request()))
+                .expectNext("OTP will be sent to your email shortly.")
+                .verifyComplete();
+
+        UserRequest stored = pendingCodec.decode("veer@gmail.com", pending.getValue());
+        assertEquals("{bcrypt}hash", stored.getPassword());
+        verifyNoInteractions(notificationClient);
+    }
+
+    @Test
+    void sendOtp_whenEmailTaken_shouldFailWithoutHashing() {
+        when(existenceIndex.emailExists(eq("veer@gmail.com"), any())).thenReturn(Mono.just(true));
+
+        StepVerifier.create(userService.sendOtp(request()))
+                .expectErrorMatches(e -> e instanceof IllegalArgumentException
+                        && e.getMessage().equals("Email already exists"))
+                .verify();
+
+        verifyNoInteractions(passwordHasher);
+        verify(otpService, never()).issueOtp(anyString(), anyString(), anyString(), anyBoolean());
+    }
+
+    @Test
+    void sendOtp_withBlankPassword_shouldFailValidation() {
+        UserRequest request = request();
+        request.setPassword(" ");
+
+        StepVerifier.create(userService.sendOtp(request))
+                .expectError(IllegalArgumentException.class)
+                .verify();
+
+        verifyNoInteractions(existenceIndex, otpService);
+    }
+
+    @Test
+    void sendOtp_direct_whenNotifierDown_shouldReturnFallbackMessage() {
+        properties.setDelivery(ReactiveRegistrationProperties.Delivery.DIRECT);
+        noExistingUsers();
+        when(passwordHasher.encodeAsync("secret")).thenReturn(CompletableFuture.completedFuture("{bcrypt}hash"));
+        OtpSendRequest notification = new OtpSendRequest("veer@gmail.com", "123456", "Registration", "key");
+        when(otpService.issueOtp(eq("veer@gmail.com"), anyString(), eq("Registration"), eq(false)))
+                .thenReturn(Mono.just(notification));
+        when(notificationClient.sendOtp(notification)).thenReturn(Mono.error(new IllegalStateException("down")));
+
+        StepVerifier.create(userService.sendOtp(request()))
+                .expectNext("Notification service is down. OTP sending failed.")
+                .verifyComplete();
+    }
+
+    @Test
+    void verifyOtp_valid_shouldInsertUserAndRecordIt() throws Exception {
+        UserRequest pending = request();
+        pending.setPassword("{bcrypt}hash");
+        when(otpService.consumePendingRegistration("veer@gmail.com", "123456")).thenReturn(Mono.just(
+                new OtpService.Verification(OtpService.Status.OK, pendingCodec.encode(pending))));
+        noExistingUsers();
+        when(userRepository.save(any(UserRecord.class))).thenAnswer(inv -> Mono.just(inv.getArgument(0)));
+
+        StepVerifier.create(userService.verifyOtpAndRegister(verifyRequest()))
+                .expectNext("User registered successfully")
+                .verifyComplete();
+
+        ArgumentCaptor<UserRecord> saved = ArgumentCaptor.forClass(UserRecord.class);
+        verify(userRepository).save(saved.capture());
+        assertNotNull(saved.getValue().getUserid());
+        assertEquals("{bcrypt}hash", saved.getValue().getPassword());
+        verify(existenceIndex).recordUser("veer", "veer@gmail.com");
+    }
+
+    @Test
+    void verifyOtp_invalid_shouldNotTouchDatabase() {
+        when(otpService.consumePendingRegistration("veer@gmail.com", "123456"))
+                .thenReturn(Mono.just(new OtpService.Verification(OtpService.Status.INVALID, null)));
+
+        StepVerifier.create(userService.verifyOtpAndRegister(verifyRequest()))
+                .expectNext("Invalid or expired OTP")
+                .verifyComplete();
+
+        verifyNoInteractions(userRepository);
+    }
+
+    @Test
+    void verifyOtp_whenInsertRacesAnotherSignup_shouldReportConflict() throws Exception {
+        when(otpService.consumePendingRegistration("veer@gmail.com", "123456")).thenReturn(Mono.just(
+                new OtpService.Verification(OtpService.Status.OK, objectMapper.writeValueAsString(request()))));
+        noExistingUsers();
+        when(userRepository.save(any(UserRecord.class))).thenReturn(Mono.error(new DuplicateKeyException("users_email_key")));
+
+        StepVerifier.create(userService.verifyOtpAndRegister(verifyRequest()))
+                .expectNext("Registration failed: username or email already in use")
+                .verifyComplete();
+
+        verify(existenceIndex, never()).recordUser(anyString(), anyString());
+    }
+
+    @Test
+    void isUsernameAvailable_shouldInvertExistence() {
+        when(existenceIndex.usernameExists(eq("veer"), any())).thenReturn(Mono.just(true));
+
+        StepVerifier.create(userService.isUsernameAvailable("veer"))
+                .expectNext(false)
+                .verifyComplete();
+    }
+}
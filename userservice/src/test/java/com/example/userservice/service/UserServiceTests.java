@@ -1,10 +1,12 @@
 package com.example.userservice.service;
 
+import com.example.userservice.cache.UserExistenceIndex;
+import com.example.userservice.cache.UserProfileCache;
 import com.example.userservice.dto.*;
 import com.example.userservice.entity.User;
+import com.example.userservice.exception.TooManyRequestsException;
 import com.example.userservice.external.service.NotificationService;
 import com.example.userservice.repository.UserRepository;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 
@@ -12,14 +14,15 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.dao.DataIntegrityViolationException;
-import org.springframework.data.redis.core.RedisTemplate;
-import org.springframework.data.redis.core.ValueOperations;
-import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.data.domain.Limit;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -31,20 +34,15 @@ class UserServiceTest {
     @Mock UserRepository userRepository;
     @Mock UserMapper userMapper;
     @Mock OtpService otpService;
-    @Mock NotificationCaller notificationCaller;
-    @Mock PasswordEncoder passwordEncoder;
-    @Mock RedisTemplate<String,String> redisTemplate;
-    @Mock ValueOperations<String,String> valueOperations;
-    @Mock ObjectMapper objectMapper;
+    @Mock OtpThrottle otpThrottle;
+    @Mock PasswordHashingService passwordHasher;
+    @Mock PendingRegistrationCodec pendingCodec;
+    @Mock UserExistenceIndex existenceIndex;
+    @Mock UserProfileCache profileCache;
 
     @InjectMocks
     UserService userService;
 
-    // helper to avoid null
-    private void mockRedisOps() {
-        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
-    }
-
     // ------------------------------------------------------
     // TEST 1: sendOtp()
     // ------------------------------------------------------
@@ -55,23 +53,50 @@ class UserServiceTest {
         req.setUsername("rahul");
         req.setPassword("12345");
 
-        when(userRepository.existsByEmail("test@gmail.com")).thenReturn(false);
-        when(userRepository.existsByUsername("rahul")).thenReturn(false);
+        when(existenceIndex.emailExists("test@gmail.com")).thenReturn(false);
+        when(existenceIndex.usernameExists("rahul")).thenReturn(false);
 
-        when(passwordEncoder.encode("12345")).thenReturn("encoded");
-        when(objectMapper.writeValueAsString(any(UserRequest.class))).thenReturn("{json}");
+        when(passwordHasher.encode("12345")).thenReturn("encoded");
+        when(pendingCodec.encode(any(UserRequest.class))).thenReturn("1encoded\nrahul");
 
-        mockRedisOps();
-
-        when(otpService.generateOtp("test@gmail.com")).thenReturn("999999");
-        when(notificationCaller.sendOtp(any())).thenReturn("OTP sent successfully.");
+        when(otpService.issueOtp("test@gmail.com", "1encoded\nrahul", "Registration")).thenReturn("999999");
 
         String response = userService.sendOtp(req);
 
-        assertEquals("OTP sent successfully.", response);
-        verify(valueOperations).set(eq("tmp:user:test@gmail.com"), eq("{json}"), any());
-        verify(otpService).generateOtp("test@gmail.com");
-        verify(notificationCaller).sendOtp(any(OtpSendRequest.class));
+        assertEquals("OTP will be sent to your email shortly.", response);
+        verify(otpThrottle).acquireSend("test@gmail.com");
+        verify(otpService).issueOtp("test@gmail.com", "1encoded\nrahul", "Registration");
+    }
+
+    // ------------------------------------------------------
+    // TEST 1b: sendOtp() - throttled email does no further work
+    // ------------------------------------------------------
+    @Test
+    void sendOtp_whenThrottled_shouldNotHashOrIssueOtp() {
+        UserRequest req = new UserRequest();
+        req.setEmail("test@gmail.com");
+        req.setUsername("rahul");
+        req.setPassword("12345");
+        doThrow(new TooManyRequestsException("slow down", Duration.ofSeconds(30)))
+                .when(otpThrottle).acquireSend("test@gmail.com");
+
+        assertThrows(TooManyRequestsException.class, () -> userService.sendOtp(req));
+
+        verifyNoInteractions(existenceIndex, passwordHasher, otpService);
+    }
+
+    // ------------------------------------------------------
+    // TEST 1c: sendOtp() - invalid request does not use up the quota
+    // ------------------------------------------------------
+    @Test
+    void sendOtp_whenPasswordMissing_shouldNotCountAgainstThrottle() {
+        UserRequest req = new UserRequest();
+        req.setEmail("test@gmail.com");
+        req.setUsername("rahul");
+
+        assertThrows(IllegalArgumentException.class, () -> userService.sendOtp(req));
+
+        verifyNoInteractions(otpThrottle, existenceIndex, passwordHasher, otpService);
     }
 
     // ------------------------------------------------------
@@ -83,20 +108,18 @@ class UserServiceTest {
         req.setEmail("test@gmail.com");
         req.setOtp("111111");
 
-        when(otpService.verifyOtp("test@gmail.com", "111111")).thenReturn(true);
-
-        mockRedisOps();
-        when(valueOperations.get("tmp:user:test@gmail.com"))
-                .thenReturn("{\"email\":\"test@gmail.com\",\"username\":\"rahul\",\"password\":\"encoded\"}");
+        when(otpService.consumePendingRegistration("test@gmail.com", "111111"))
+                .thenReturn(new OtpService.Verification(OtpService.Status.OK,
+                        "1encoded\nrahul"));
 
         UserRequest tempReq = new UserRequest();
         tempReq.setEmail("test@gmail.com");
         tempReq.setUsername("rahul");
         tempReq.setPassword("encoded");
 
-        when(objectMapper.readValue(anyString(), eq(UserRequest.class))).thenReturn(tempReq);
-        when(userRepository.existsByUsername("rahul")).thenReturn(false);
-        when(userRepository.existsByEmail("test@gmail.com")).thenReturn(false);
+        when(pendingCodec.decode("test@gmail.com", "1encoded\nrahul")).thenReturn(tempReq);
+        when(existenceIndex.usernameExists("rahul")).thenReturn(false);
+        when(existenceIndex.emailExists("test@gmail.com")).thenReturn(false);
 
         User savedUser = new User();
         savedUser.setUserid(UUID.randomUUID());
@@ -110,7 +133,7 @@ class UserServiceTest {
 
         assertEquals("User registered successfully", result);
         verify(userRepository).save(any(User.class));
-        verify(redisTemplate).delete("tmp:user:test@gmail.com");
+        verify(existenceIndex).recordUser("rahul", "test@gmail.com");
     }
 
     // ------------------------------------------------------
@@ -122,13 +145,32 @@ class UserServiceTest {
         req.setEmail("x@gmail.com");
         req.setOtp("222222");
 
-        when(otpService.verifyOtp("x@gmail.com", "222222")).thenReturn(false);
+        when(otpService.consumePendingRegistration("x@gmail.com", "222222"))
+                .thenReturn(new OtpService.Verification(OtpService.Status.INVALID, null));
 
         String result = userService.verifyOtpAndRegister(req);
 
         assertEquals("Invalid or expired OTP", result);
     }
 
+    // ------------------------------------------------------
+    // TEST 3b: verifyOtpAndRegister() - temp user expired
+    // ------------------------------------------------------
+    @Test
+    void verifyOtpAndRegister_shouldFailWhenTempUserMissing() {
+        VerifyOtpRequest req = new VerifyOtpRequest();
+        req.setEmail("x@gmail.com");
+        req.setOtp("222222");
+
+        when(otpService.consumePendingRegistration("x@gmail.com", "222222"))
+                .thenReturn(new OtpService.Verification(OtpService.Status.MISSING, null));
+
+        String result = userService.verifyOtpAndRegister(req);
+
+        assertEquals("No pending registration found for this email. Please start again.", result);
+        verify(userRepository, never()).save(any(User.class));
+    }
+
     // ------------------------------------------------------
     // TEST 4: getByUsername()
     // ------------------------------------------------------
@@ -140,6 +182,8 @@ class UserServiceTest {
         UserResponse response = new UserResponse();
         response.setUsername("veer");
 
+        when(profileCache.get(eq("veer"), any())).thenAnswer(invocation ->
+                invocation.<Function<String, UserResponse>>getArgument(1).apply("veer"));
         when(userRepository.findByUsername("veer")).thenReturn(Optional.of(u));
         when(userMapper.toResponse(u)).thenReturn(response);
 
@@ -171,7 +215,7 @@ class UserServiceTest {
         saved.setEmail("new@gmail.com");
 
         when(userRepository.findById(id)).thenReturn(Optional.of(existing));
-        when(passwordEncoder.encode("pass")).thenReturn("encoded");
+        when(passwordHasher.encode("pass")).thenReturn("encoded");
         when(userRepository.save(any(User.class))).thenReturn(saved);
 
         UserResponse mapped = new UserResponse();
@@ -184,6 +228,7 @@ class UserServiceTest {
 
         assertEquals("new", result.getUsername());
         assertEquals("new@gmail.com", result.getEmail());
+        verify(profileCache).evict("old", "new");
     }
 
     // ------------------------------------------------------
@@ -192,12 +237,16 @@ class UserServiceTest {
     @Test
     void deleteUser_shouldDeleteWhenExists() {
         UUID id = UUID.randomUUID();
-        when(userRepository.existsById(id)).thenReturn(true);
+        User existing = new User();
+        existing.setUserid(id);
+        existing.setUsername("veer");
+        when(userRepository.findById(id)).thenReturn(Optional.of(existing));
 
         String msg = userService.deleteUser(id);
 
         assertEquals("User is deleted", msg);
         verify(userRepository).deleteById(id);
+        verify(profileCache).evict("veer");
     }
 
     // ------------------------------------------------------
@@ -205,7 +254,58 @@ class UserServiceTest {
     // ------------------------------------------------------
     @Test
     void isUsernameAvailable_whenUserNotPresent() {
-        when(userRepository.existsByUsername("veer")).thenReturn(false);
+        when(existenceIndex.usernameExists("veer")).thenReturn(false);
         assertTrue(userService.isUsernameAvailable("veer"));
     }
+
+    // ------------------------------------------------------
+    // TEST 8: listUsers()
+    // ------------------------------------------------------
+    @Test
+    void listUsers_shouldReturnCursorWhenMoreRowsFollow() {
+        UserSummary first = summary("veer", LocalDateTime.of(2025, 3, 2, 10, 0));
+        UserSummary second = summary("rahul", LocalDateTime.of(2025, 3, 1, 10, 0));
+        UserSummary extra = summary("amit", LocalDateTime.of(2025, 2, 28, 10, 0));
+        when(userRepository.findPage(Limit.of(3))).thenReturn(List.of(first, second, extra));
+
+        UserPage page = userService.listUsers(null, 2, null);
+
+        assertEquals(List.of(first, second), page.getUsers());
+        UserCursor next = UserCursor.decode(page.getNextCursor());
+        assertEquals(second.getCreated_at(), next.createdAt());
+        assertEquals(second.getUserid(), next.userid());
+    }
+
+    @Test
+    void listUsers_shouldContinueAfterCursorAndEndWithoutOne() {
+        UserSummary last = summary("veer", LocalDateTime.of(2025, 3, 2, 10, 0));
+        UserCursor cursor = new UserCursor(LocalDateTime.of(2025, 3, 3, 9, 30), UUID.randomUUID());
+        when(userRepository.findPageAfter(cursor.createdAt(), cursor.userid(), Limit.of(51)))
+                .thenReturn(List.of(last));
+
+        UserPage page = userService.listUsers(cursor.encode(), 50, " ");
+
+        assertEquals(List.of(last), page.getUsers());
+        assertNull(page.getNextCursor());
+    }
+
+    @Test
+    void listUsers_shouldSearchByEscapedLowercasePrefixAndCapPageSize() {
+        when(userRepository.searchPage(anyString(), any(Limit.class))).thenReturn(List.of());
+
+        userService.listUsers(null, 10_000, " Ve_er% ");
+
+        verify(userRepository).searchPage("ve\\_er\\%%", Limit.of(UserService.MAX_PAGE_SIZE + 1));
+    }
+
+    @Test
+    void listUsers_shouldRejectBadCursorAndSize() {
+        assertThrows(IllegalArgumentException.class, () -> userService.listUsers("not-a-cursor", 10, null));
+        assertThrows(IllegalArgumentException.class, () -> userService.listUsers(null, 0, null));
+        verifyNoInteractions(userRepository);
+    }
+
+    private static UserSummary summary(String username, LocalDateTime createdAt) {
+        return new UserSummary(UUID.randomUUID(), username, username + "@gmail.com", createdAt);
+    }
 }